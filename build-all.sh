@@ -10,17 +10,21 @@ echo ""
 echo "Building mcp-server..."
 docker run --rm -v "$PWD":/app -w /app/mcp-server maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
 
+echo ""
+echo "Installing mcp-host-common..."
+docker run --rm -v "$PWD":/app -v "$HOME/.m2":/root/.m2 -w /app/mcp-host-common maven:3.9-eclipse-temurin-21 mvn clean install -DskipTests
+
 echo ""
 echo "Building mcp-client..."
-docker run --rm -v "$PWD":/app -w /app/mcp-client maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
+docker run --rm -v "$PWD":/app -v "$HOME/.m2":/root/.m2 -w /app/mcp-client maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
 
 echo ""
 echo "Building mcp-host..."
-docker run --rm -v "$PWD":/app -w /app/mcp-host maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
+docker run --rm -v "$PWD":/app -v "$HOME/.m2":/root/.m2 -w /app/mcp-host maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
 
 echo ""
 echo "Building mcp-host-claude..."
-docker run --rm -v "$PWD":/app -w /app/mcp-host-claude maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
+docker run --rm -v "$PWD":/app -v "$HOME/.m2":/root/.m2 -w /app/mcp-host-claude maven:3.9-eclipse-temurin-21 mvn clean package -DskipTests
 
 echo ""
 echo "✓ All projects built successfully!"
@@ -2,7 +2,7 @@
 # Clean target directories that may be owned by root from Docker builds
 
 echo "Cleaning target directories..."
-sudo rm -rf mcp-server/target mcp-client/target mcp-host/target mcp-host-claude/target
+sudo rm -rf mcp-server/target mcp-client/target mcp-host/target mcp-host-common/target mcp-host-claude/target
 
 if [ $? -eq 0 ]; then
     echo "✓ Target directories cleaned successfully"
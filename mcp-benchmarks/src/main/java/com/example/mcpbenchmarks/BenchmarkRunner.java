@@ -0,0 +1,53 @@
+package com.example.mcpbenchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Runs the selected benchmarks once per thread count and writes JSON results.
+ *
+ * Accepts the usual JMH command line (benchmark regex, -p, -prof, ...).
+ * Thread counts come from -Dbench.threads (default 1,4,16) unless -t is given.
+ * Results are written to -Dbench.results (default target/jmh) as
+ * results-t&lt;threads&gt;.json, one file per thread count, so runs of different
+ * releases can be diffed to spot regressions.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Path resultsDir = Paths.get(System.getProperty("bench.results", "target/jmh"));
+        Files.createDirectories(resultsDir);
+
+        int[] threadCounts = commandLine.getThreads().hasValue()
+                ? new int[]{commandLine.getThreads().get()}
+                : Arrays.stream(System.getProperty("bench.threads", "1,4,16").split(","))
+                        .map(String::trim)
+                        .mapToInt(Integer::parseInt)
+                        .toArray();
+
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLine)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(resultsDir.resolve("results-t" + threads + ".json").toString())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
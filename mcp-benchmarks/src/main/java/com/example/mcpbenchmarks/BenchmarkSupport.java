@@ -0,0 +1,70 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.CompactKeyValueStore;
+import com.example.mcpserver.InMemoryKeyValueStore;
+import com.example.mcpserver.KeyValueStore;
+import com.example.mcpserver.WalKeyValueStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Shared fixtures for the benchmark suites.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Create a storage backend the same way StorageConfig does, without the expiry and eviction layer
+     */
+    static KeyValueStore newStore(String backend, Path walDirectory, boolean syncWrites) {
+        return switch (backend) {
+            case "memory" -> new InMemoryKeyValueStore();
+            case "wal" -> new WalKeyValueStore(walDirectory, syncWrites, Long.MAX_VALUE, Long.MAX_VALUE);
+            case "compact" -> new CompactKeyValueStore(16 << 20, 1024);
+            default -> throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        };
+    }
+
+    /**
+     * A random ASCII payload of the given size
+     */
+    static String payload(int size) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    static String key(int index) {
+        return "key-" + index;
+    }
+
+    static Path tempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.BulkMath;
+import com.example.mcpserver.CalculatorService;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springaicommunity.mcp.provider.tool.SyncMcpToolProvider;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk calculator tools against the per-element path agents used before
+ * (one add tool call per number), and the Vector API kernels against the
+ * scalar ones. The dispatched variants go through the @McpTool layer,
+ * including binding the JSON array to double[]; no transport is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class BulkMathBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private CalculatorService calculator;
+    private double[] a;
+    private double[] b;
+    private double[] coefficients;
+    private McpServerFeatures.SyncToolSpecification addTool;
+    private McpServerFeatures.SyncToolSpecification sumArrayTool;
+    private McpSchema.CallToolRequest sumArrayRequest;
+
+    @Setup
+    public void setup() {
+        calculator = new CalculatorService();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        a = random.doubles(size, -100, 100).toArray();
+        b = random.doubles(size, 0.5, 2).toArray();
+        coefficients = new double[]{1, -0.5, 0.25, -0.125, 0.0625};
+
+        Map<String, McpServerFeatures.SyncToolSpecification> tools =
+                new SyncMcpToolProvider(List.of(calculator)).getToolSpecifications().stream()
+                        .collect(Collectors.toMap(spec -> spec.tool().name(), Function.identity()));
+        addTool = tools.get("add");
+        sumArrayTool = tools.get("sumArray");
+        sumArrayRequest = new McpSchema.CallToolRequest("sumArray",
+                Map.of("values", Arrays.stream(a).boxed().toList()));
+    }
+
+    /**
+     * Kernel choice, only used by the kernel benchmarks
+     */
+    @State(Scope.Benchmark)
+    public static class Kernels {
+
+        @Param({"simd", "scalar"})
+        public String kernels;
+
+        BulkMath bulkMath;
+
+        @Setup
+        public void setup() {
+            bulkMath = BulkMath.create("simd".equals(kernels));
+        }
+    }
+
+    // ==================== PER-ELEMENT VS BULK TOOL CALLS ====================
+
+    @Benchmark
+    public double sumPerElementCalls() {
+        double sum = 0;
+        for (double value : a) {
+            sum = calculator.add(sum, value);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sumPerElementDispatched() {
+        double sum = 0;
+        for (double value : a) {
+            McpSchema.CallToolResult result = addTool.callHandler()
+                    .apply(null, new McpSchema.CallToolRequest("add", Map.of("a", sum, "b", value)));
+            sum = Double.parseDouble(((McpSchema.TextContent) result.content().get(0)).text());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double sumArrayCall() {
+        return calculator.sumArray(a);
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult sumArrayDispatched() {
+        return sumArrayTool.callHandler().apply(null, sumArrayRequest);
+    }
+
+    // ==================== KERNELS ====================
+
+    @Benchmark
+    public double sum(Kernels state) {
+        return state.bulkMath.sum(a);
+    }
+
+    @Benchmark
+    public double dot(Kernels state) {
+        return state.bulkMath.dot(a, b);
+    }
+
+    @Benchmark
+    public double[] multiply(Kernels state) {
+        return state.bulkMath.elementwise(BulkMath.Op.MULTIPLY, a, b);
+    }
+
+    @Benchmark
+    public BulkMath.Statistics statistics(Kernels state) {
+        return state.bulkMath.statistics(a);
+    }
+
+    @Benchmark
+    public double[] polyEval(Kernels state) {
+        return state.bulkMath.polyEval(coefficients, a);
+    }
+}
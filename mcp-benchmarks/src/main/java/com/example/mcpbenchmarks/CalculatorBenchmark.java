@@ -0,0 +1,78 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.CalculatorService;
+import com.example.mcpserver.ToolExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CalculatorService calls through ToolExecutor, run directly or behind the per-tool concurrency limit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+
+    @Param({"direct", "limited", "virtual"})
+    public String executionMode;
+
+    private ToolExecutor toolExecutor;
+    private CalculatorService calculator;
+
+    @Setup
+    public void setup() {
+        toolExecutor = new ToolExecutor(executionMode, 1024, new StandardEnvironment());
+        calculator = new CalculatorService();
+    }
+
+    @TearDown
+    public void tearDown() {
+        toolExecutor.shutdown();
+    }
+
+    @Benchmark
+    public double add() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return toolExecutor.execute("add", () -> calculator.add(random.nextDouble(), random.nextDouble()));
+    }
+
+    @Benchmark
+    public double divide() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return toolExecutor.execute("divide", () -> calculator.divide(random.nextDouble(), 1 + random.nextDouble()));
+    }
+
+    @Benchmark
+    public double power() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return toolExecutor.execute("power", () -> calculator.power(random.nextDouble() * 10, random.nextDouble() * 4));
+    }
+
+    @Benchmark
+    public double sqrt() {
+        return toolExecutor.execute("sqrt", () -> calculator.sqrt(ThreadLocalRandom.current().nextDouble() * 1000));
+    }
+
+    @Benchmark
+    public double evaluate() {
+        return toolExecutor.execute("evaluate", () -> calculator.evaluate("(x + 4) * sqrt(16) / 2", Map.of("x", ThreadLocalRandom.current().nextDouble())));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpclient.CanonicalArguments;
+import com.example.mcpclient.ToolCallResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side work per tool call around the MCP transport: building the result
+ * cache key from the arguments and serializing the endpoint response.
+ * The legacy variants reproduce the earlier sorted-copy/BigDecimal key and the
+ * HashMap response; the lean variants use CanonicalArguments and
+ * ToolCallResponse. Run with -prof gc and compare gc.alloc.rate.norm
+ * (bytes allocated per call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientCallPathBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    private final ObjectMapper responseMapper = new ObjectMapper();
+    private final ObjectMapper legacyKeyMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+    private String value;
+
+    @Setup
+    public void setup() {
+        value = BenchmarkSupport.payload(payloadSize);
+    }
+
+    @Benchmark
+    public byte[] addLegacy(Blackhole blackhole) throws JsonProcessingException {
+        return legacyCall("add", Map.of("a", 1.5, "b", 2.5), "4.0", blackhole);
+    }
+
+    @Benchmark
+    public byte[] addLean(Blackhole blackhole) throws JsonProcessingException {
+        return leanCall("add", Map.of("a", 1.5, "b", 2.5), "4.0", blackhole);
+    }
+
+    @Benchmark
+    public byte[] retrieveLegacy(Blackhole blackhole) throws JsonProcessingException {
+        return legacyCall("retrieve", Map.of("key", "bench"), value, blackhole);
+    }
+
+    @Benchmark
+    public byte[] retrieveLean(Blackhole blackhole) throws JsonProcessingException {
+        return leanCall("retrieve", Map.of("key", "bench"), value, blackhole);
+    }
+
+    private byte[] leanCall(String toolName, Map<String, Object> arguments, String result,
+                            Blackhole blackhole) throws JsonProcessingException {
+        blackhole.consume(CanonicalArguments.of(arguments));
+        ToolCallResponse response = ToolCallResponse.success(toolName, result, null);
+        return responseMapper.writeValueAsBytes(response);
+    }
+
+    private byte[] legacyCall(String toolName, Map<String, Object> arguments, String result,
+                              Blackhole blackhole) throws JsonProcessingException {
+        blackhole.consume(legacyKeyMapper.writeValueAsString(legacyNormalize(arguments)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("result", result);
+        response.put("tool", toolName);
+        response.put("status", "success");
+        response.put("protocol", "MCP JSON-RPC 2.0");
+        response.put("source", "mcp-server");
+        response.put("timestamp", System.currentTimeMillis());
+        return responseMapper.writeValueAsBytes(response);
+    }
+
+    private static Object legacyNormalize(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> normalized = new TreeMap<>();
+            map.forEach((k, v) -> normalized.put(String.valueOf(k), legacyNormalize(v)));
+            return normalized;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(ClientCallPathBenchmark::legacyNormalize).toList();
+        }
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString()).stripTrailingZeros();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.KeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact off-heap store versus the ConcurrentHashMap backend with millions
+ * of keys: lookup and overwrite throughput, and the cost of loading the data
+ * set. Run with -prof gc for allocation rate and GC counts; the retained heap
+ * of each backend is printed after setup.
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompactStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Loaded {
+
+        @Param({"memory", "compact"})
+        public String backend;
+
+        @Param({"1000000", "5000000"})
+        public int entries;
+
+        KeyValueStore store;
+        String value;
+
+        @Setup
+        public void setup() {
+            long heapBefore = usedHeap();
+            store = BenchmarkSupport.newStore(backend, null, false);
+            value = BenchmarkSupport.payload(32);
+            for (int i = 0; i < entries; i++) {
+                store.put(BenchmarkSupport.key(i), value);
+            }
+            System.out.printf("%n%s with %d entries: retained heap %d MB, store stats %s%n",
+                    backend, entries, (usedHeap() - heapBefore) >> 20, store.stats());
+        }
+
+        @TearDown
+        public void tearDown() {
+            store.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Empty {
+
+        @Param({"memory", "compact"})
+        public String backend;
+
+        @Param({"1000000"})
+        public int entries;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String get(Loaded loaded) {
+        return loaded.store.get(BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(loaded.entries)));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String overwrite(Loaded loaded) {
+        return loaded.store.put(BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(loaded.entries)), loaded.value);
+    }
+
+    /**
+     * Load a full data set into an empty store
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @Threads(1)
+    public int load(Empty empty) {
+        KeyValueStore store = BenchmarkSupport.newStore(empty.backend, null, false);
+        String value = "v".repeat(32);
+        for (int i = 0; i < empty.entries; i++) {
+            store.put(BenchmarkSupport.key(i), value);
+        }
+        int size = store.size();
+        store.close();
+        return size;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
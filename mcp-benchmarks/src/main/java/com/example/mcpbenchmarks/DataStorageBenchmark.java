@@ -0,0 +1,91 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.DataStorageService;
+import com.example.mcpserver.KeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataStorageService throughput per storage backend. Run with several thread
+ * counts (the runner's default) to see behaviour under contention; all
+ * threads share one store and one key space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataStorageBenchmark {
+
+    @Param({"memory", "wal", "compact"})
+    public String backend;
+
+    @Param({"16", "1024", "65536"})
+    public int valueSize;
+
+    @Param({"10000"})
+    public int keySpace;
+
+    private Path walDirectory;
+    private KeyValueStore store;
+    private DataStorageService service;
+    private String value;
+
+    @Setup
+    public void setup() {
+        walDirectory = BenchmarkSupport.tempDirectory("bench-storage");
+        // Group-committed fsync is measured separately in WalBenchmark
+        store = BenchmarkSupport.newStore(backend, walDirectory, false);
+        service = new DataStorageService(store);
+        value = BenchmarkSupport.payload(valueSize);
+        for (int i = 0; i < keySpace; i++) {
+            store.put(BenchmarkSupport.key(i), value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+        BenchmarkSupport.deleteRecursively(walDirectory);
+    }
+
+    @Benchmark
+    public String store() {
+        return service.store(randomKey(), value);
+    }
+
+    @Benchmark
+    public String retrieve() {
+        return service.retrieve(randomKey());
+    }
+
+    /**
+     * 90% reads, 10% writes
+     */
+    @Benchmark
+    public String readMostly() {
+        if (ThreadLocalRandom.current().nextInt(10) == 0) {
+            return service.store(randomKey(), value);
+        }
+        return service.retrieve(randomKey());
+    }
+
+    private String randomKey() {
+        return BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(keySpace));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.ExpiringKeyValueStore;
+import com.example.mcpserver.InMemoryKeyValueStore;
+import com.example.mcpserver.KeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the expiry and eviction layer over the plain in-memory backend.
+ * "plain" is the bare backend, "unbounded" the layer without a budget (the
+ * default configuration, which only tracks keys stored with a TTL), "lru" and
+ * "lfu" a budget of half the key space, so about every other write evicts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpiringStoreBenchmark {
+
+    @Param({"plain", "unbounded", "lru", "lfu"})
+    public String layer;
+
+    @Param({"100000"})
+    public int keySpace;
+
+    private KeyValueStore store;
+    private String value;
+
+    @Setup
+    public void setup() {
+        store = switch (layer) {
+            case "plain" -> new InMemoryKeyValueStore();
+            case "unbounded" -> new ExpiringKeyValueStore(new InMemoryKeyValueStore(), 0, 0,
+                    ExpiringKeyValueStore.EvictionPolicy.LRU, 100, true);
+            default -> new ExpiringKeyValueStore(new InMemoryKeyValueStore(), keySpace / 2, 0,
+                    ExpiringKeyValueStore.EvictionPolicy.of(layer), 100, true);
+        };
+        value = BenchmarkSupport.payload(64);
+        for (int i = 0; i < keySpace; i++) {
+            store.put(BenchmarkSupport.key(i), value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    @Benchmark
+    public String put() {
+        return store.put(randomKey(), value);
+    }
+
+    @Benchmark
+    public String get() {
+        return store.get(randomKey());
+    }
+
+    /**
+     * Schedules a timer per write; with TTLs of up to 4 s the wheel keeps firing during the measurement
+     */
+    @Benchmark
+    public String putWithTtl() {
+        if ("plain".equals(layer)) {
+            return store.put(randomKey(), value);
+        }
+        return store.put(randomKey(), value, Duration.ofMillis(1 + ThreadLocalRandom.current().nextInt(4000)));
+    }
+
+    private String randomKey() {
+        return BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(keySpace));
+    }
+}
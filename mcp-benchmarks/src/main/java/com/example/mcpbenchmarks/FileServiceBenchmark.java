@@ -0,0 +1,96 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.FileService;
+import com.example.mcpserver.FileWriteCoordinator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileService calls against files of different sizes in a temp workspace.
+ * appendToFile shares one file between all threads, so it measures append
+ * coalescing under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileServiceBenchmark {
+
+    private static final String FILE = "bench.txt";
+    private static final String LOG_FILE = "bench.log";
+
+    @Param({"1024", "1048576", "16777216"})
+    public int fileSize;
+
+    @Param({"0", "1"})
+    public long appendFlushIntervalMillis;
+
+    private Path workspace;
+    private FileService fileService;
+    private String content;
+    private String line;
+
+    @Setup
+    public void setup() {
+        workspace = BenchmarkSupport.tempDirectory("bench-workspace");
+        fileService = new FileService(new FileWriteCoordinator(64, appendFlushIntervalMillis, 1 << 20), workspace);
+        content = BenchmarkSupport.payload(fileSize);
+        line = BenchmarkSupport.payload(120) + "\n";
+        fileService.writeFile(FILE, content);
+    }
+
+    /**
+     * Start every iteration with an empty log so appends do not grow it without bound
+     */
+    @Setup(Level.Iteration)
+    public void resetLog() {
+        fileService.writeFile(LOG_FILE, "");
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkSupport.deleteRecursively(workspace);
+    }
+
+    @Benchmark
+    public String readFile() {
+        return fileService.readFile(FILE);
+    }
+
+    /**
+     * One 64 KB range at a random offset
+     */
+    @Benchmark
+    public FileService.FileChunk readFileRange() throws IOException {
+        long offset = ThreadLocalRandom.current().nextLong(Math.max(fileSize - 65536, 1));
+        return fileService.readFileRange(FILE, offset, 65536, null);
+    }
+
+    @Benchmark
+    public String writeFile() {
+        return fileService.writeFile("write-" + Thread.currentThread().threadId() + ".txt", content);
+    }
+
+    @Benchmark
+    public String appendToFile() {
+        return fileService.appendToFile(LOG_FILE, line);
+    }
+}
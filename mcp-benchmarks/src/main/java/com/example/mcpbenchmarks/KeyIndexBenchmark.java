@@ -0,0 +1,108 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.ExpiringKeyValueStore;
+import com.example.mcpserver.InMemoryKeyValueStore;
+import com.example.mcpserver.KeyValueStore;
+import com.example.mcpserver.Page;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the sorted key index costs on writes and saves on scans. Keys look like
+ * session:00042:item:17, ITEMS_PER_SESSION per session. The write benchmarks
+ * show the extra skip-list insert or remove per write, the scan benchmarks one
+ * session's keys with and without the index (a full pass over all keys).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyIndexBenchmark {
+
+    private static final int ITEMS_PER_SESSION = 100;
+
+    @Param({"true", "false"})
+    public boolean keyIndex;
+
+    @Param({"100000", "1000000"})
+    public int keyCount;
+
+    private KeyValueStore store;
+    private int sessions;
+    private String[] keys;
+    private String[] prefixes;
+    private String[] newKeys;
+    private String value;
+
+    @Setup
+    public void setup() {
+        store = new ExpiringKeyValueStore(new InMemoryKeyValueStore(), 0, 0,
+                ExpiringKeyValueStore.EvictionPolicy.LRU, 100, keyIndex);
+        sessions = keyCount / ITEMS_PER_SESSION;
+        keys = new String[sessions * ITEMS_PER_SESSION];
+        prefixes = new String[sessions];
+        newKeys = new String[sessions];
+        value = BenchmarkSupport.payload(64);
+        for (int session = 0; session < sessions; session++) {
+            prefixes[session] = String.format("session:%05d:", session);
+            newKeys[session] = key(session, ITEMS_PER_SESSION);
+            for (int item = 0; item < ITEMS_PER_SESSION; item++) {
+                keys[session * ITEMS_PER_SESSION + item] = key(session, item);
+                store.put(keys[session * ITEMS_PER_SESSION + item], value);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        store.close();
+    }
+
+    /**
+     * Overwrite of an existing key; the index already holds it
+     */
+    @Benchmark
+    public String overwrite() {
+        return store.put(keys[ThreadLocalRandom.current().nextInt(keys.length)], value);
+    }
+
+    /**
+     * Insert and remove of a new key, each changing the index
+     */
+    @Benchmark
+    public String insertAndRemove() {
+        String key = newKeys[ThreadLocalRandom.current().nextInt(sessions)];
+        store.put(key, value);
+        return store.remove(key);
+    }
+
+    @Benchmark
+    public Page scanPrefix() {
+        return store.scanKeys(prefixes[ThreadLocalRandom.current().nextInt(sessions)], null, ITEMS_PER_SESSION);
+    }
+
+    @Benchmark
+    public Page scanRange() {
+        int first = ThreadLocalRandom.current().nextInt(sessions) * ITEMS_PER_SESSION;
+        return store.scanRange(keys[first], keys[first + ITEMS_PER_SESSION / 2], null, ITEMS_PER_SESSION);
+    }
+
+    private static String key(int session, int item) {
+        return String.format("session:%05d:item:%02d", session, item);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.McpServerApplication;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.spec.McpClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full JSON-RPC round trips from an MCP client to the mcp-server.
+ *
+ * For SSE the server runs inside the benchmark JVM on a random port. For
+ * STDIO it runs as a child process started from the same classpath, since
+ * the transport is the child's stdin and stdout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    @Param({"sse", "stdio"})
+    public String transport;
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    private ConfigurableApplicationContext server;
+    private McpSyncClient client;
+    private String value;
+
+    @Setup
+    public void setup() {
+        client = McpClient.sync(createTransport())
+                .requestTimeout(Duration.ofSeconds(30))
+                .clientInfo(new McpSchema.Implementation("mcp-benchmarks", "1.0.0"))
+                .build();
+        client.initialize();
+
+        value = BenchmarkSupport.payload(payloadSize);
+        client.callTool(new McpSchema.CallToolRequest("store", Map.of("key", "bench", "value", value)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.closeGracefully();
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult add() {
+        return client.callTool(new McpSchema.CallToolRequest("add", Map.of("a", 1.5, "b", 2.5)));
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult store() {
+        return client.callTool(new McpSchema.CallToolRequest("store",
+                Map.of("key", "bench-" + Thread.currentThread().threadId(), "value", value)));
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult retrieve() {
+        return client.callTool(new McpSchema.CallToolRequest("retrieve", Map.of("key", "bench")));
+    }
+
+    private McpClientTransport createTransport() {
+        if ("sse".equals(transport)) {
+            server = new SpringApplicationBuilder(McpServerApplication.class)
+                    .properties("server.port=0", "spring.ai.mcp.server.transport=sse",
+                            "logging.level.root=WARN", "logging.level.com.example.mcpserver=WARN",
+                            "logging.level.org.springframework.ai=WARN")
+                    .run();
+            String port = server.getEnvironment().getProperty("local.server.port");
+            return HttpClientSseClientTransport.builder("http://localhost:" + port)
+                    .sseEndpoint("/sse")
+                    .build();
+        }
+        // Keep the child's stdout free of banner and log output, it carries the protocol
+        ServerParameters parameters = ServerParameters.builder("java")
+                .args(List.of("-cp", System.getProperty("java.class.path"),
+                        McpServerApplication.class.getName(), "--stdio",
+                        "--spring.main.banner-mode=off", "--logging.pattern.console="))
+                .build();
+        return new StdioClientTransport(parameters, McpJsonMapper.getDefault());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.McpServerApplication;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first tool response of a freshly spawned STDIO mcp-server: process
+ * start, Spring context refresh, MCP initialize and one "add" call.
+ *
+ * launch=classpath runs the server classes from this benchmark's classpath,
+ * launch=jar runs the packaged jar, and launch=fast-start runs the extracted
+ * jar with AOT and the AppCDS archive built by mvn -Pfast-start package in
+ * mcp-server. The jar locations can be changed with -Dbench.server.jar and
+ * -Dbench.server.fast-start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+
+    private static final String SERVER_JAR = "mcp-server-0.0.1-SNAPSHOT.jar";
+
+    @Param({"classpath", "jar", "fast-start"})
+    public String launch;
+
+    private List<String> args;
+    private McpSyncClient client;
+
+    @Setup
+    public void setup() {
+        args = switch (launch) {
+            case "classpath" -> List.of("-cp", System.getProperty("java.class.path"),
+                    McpServerApplication.class.getName(), "--stdio");
+            case "jar" -> List.of("-jar", existing(Paths.get(System.getProperty("bench.server.jar",
+                    "../mcp-server/target/" + SERVER_JAR))), "--stdio");
+            case "fast-start" -> {
+                Path directory = Paths.get(System.getProperty("bench.server.fast-start", "../mcp-server/target/fast-start"));
+                yield List.of("-XX:SharedArchiveFile=" + existing(directory.resolve("mcp-server.jsa")),
+                        "-Dspring.aot.enabled=true", "-jar", existing(directory.resolve(SERVER_JAR)), "--stdio");
+            }
+            default -> throw new IllegalArgumentException("Unknown launch mode: " + launch);
+        };
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopServer() {
+        if (client != null) {
+            client.closeGracefully();
+            client = null;
+        }
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult firstToolResponse() {
+        client = McpClient.sync(new StdioClientTransport(ServerParameters.builder("java").args(args).build(), McpJsonMapper.getDefault()))
+                .requestTimeout(Duration.ofSeconds(60))
+                .clientInfo(new McpSchema.Implementation("mcp-benchmarks", "1.0.0"))
+                .build();
+        client.initialize();
+        return client.callTool(new McpSchema.CallToolRequest("add", Map.of("a", 1.5, "b", 2.5)));
+    }
+
+    private static String existing(Path file) {
+        if (!Files.exists(file)) {
+            throw new IllegalStateException(file.toAbsolutePath() + " not found, build it with: cd mcp-server && mvn -Pfast-start package");
+        }
+        return file.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.CalculatorService;
+import com.example.mcpserver.DataStorageService;
+import com.example.mcpserver.InMemoryKeyValueStore;
+import com.example.mcpserver.ToolExecutor;
+import com.example.mcpserver.ToolInstrumentation;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springaicommunity.mcp.provider.tool.SyncMcpToolProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Overhead of dispatching a tool call through the @McpTool annotation layer
+ * (argument binding, result serialization and the ToolExecutor metrics added by
+ * ToolInstrumentation) compared with calling the service method directly. No
+ * transport is involved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ToolDispatchBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int payloadSize;
+
+    private CalculatorService calculator;
+    private DataStorageService storage;
+    private String value;
+    private McpServerFeatures.SyncToolSpecification addTool;
+    private McpServerFeatures.SyncToolSpecification storeTool;
+    private McpServerFeatures.SyncToolSpecification retrieveTool;
+    private McpSchema.CallToolRequest addRequest;
+    private McpSchema.CallToolRequest storeRequest;
+    private McpSchema.CallToolRequest retrieveRequest;
+
+    @Setup
+    public void setup() {
+        calculator = new CalculatorService();
+        storage = new DataStorageService(new InMemoryKeyValueStore());
+        ToolInstrumentation instrumentation = new ToolInstrumentation(new ToolExecutor());
+        value = BenchmarkSupport.payload(payloadSize);
+        storage.store("bench", value);
+
+        Map<String, McpServerFeatures.SyncToolSpecification> tools =
+                new SyncMcpToolProvider(List.of(calculator, storage)).getToolSpecifications().stream()
+                        .map(instrumentation::instrument)
+                        .collect(Collectors.toMap(spec -> spec.tool().name(), Function.identity()));
+        addTool = tools.get("add");
+        storeTool = tools.get("store");
+        retrieveTool = tools.get("retrieve");
+
+        addRequest = new McpSchema.CallToolRequest("add", Map.of("a", 1.5, "b", 2.5));
+        storeRequest = new McpSchema.CallToolRequest("store", Map.of("key", "bench", "value", value));
+        retrieveRequest = new McpSchema.CallToolRequest("retrieve", Map.of("key", "bench"));
+    }
+
+    @Benchmark
+    public double addDirect() {
+        return calculator.add(1.5, 2.5);
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult addDispatched() {
+        return addTool.callHandler().apply(null, addRequest);
+    }
+
+    @Benchmark
+    public String storeDirect() {
+        return storage.store("bench", value);
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult storeDispatched() {
+        return storeTool.callHandler().apply(null, storeRequest);
+    }
+
+    @Benchmark
+    public String retrieveDirect() {
+        return storage.retrieve("bench");
+    }
+
+    @Benchmark
+    public McpSchema.CallToolResult retrieveDispatched() {
+        return retrieveTool.callHandler().apply(null, retrieveRequest);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.mcpbenchmarks;
+
+import com.example.mcpserver.WalKeyValueStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-ahead log storage: write throughput with and without waiting for the
+ * group-committed fsync, and recovery time from log replay or a snapshot.
+ */
+public class WalBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+
+        @Param({"true", "false"})
+        public boolean syncWrites;
+
+        @Param({"64", "4096"})
+        public int valueSize;
+
+        Path directory;
+        WalKeyValueStore store;
+        String value;
+
+        @Setup
+        public void setup() {
+            directory = BenchmarkSupport.tempDirectory("bench-wal");
+            store = new WalKeyValueStore(directory, syncWrites, Long.MAX_VALUE, Long.MAX_VALUE);
+            value = BenchmarkSupport.payload(valueSize);
+        }
+
+        @TearDown
+        public void tearDown() {
+            store.close();
+            BenchmarkSupport.deleteRecursively(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+
+        @Param({"100000", "1000000"})
+        public int entries;
+
+        @Param({"false", "true"})
+        public boolean fromSnapshot;
+
+        Path directory;
+
+        /**
+         * Write the data set once, then close, leaving a log (and optionally a snapshot) to recover from
+         */
+        @Setup
+        public void setup() throws IOException {
+            directory = BenchmarkSupport.tempDirectory("bench-wal-recovery");
+            WalKeyValueStore store = new WalKeyValueStore(directory, false, Long.MAX_VALUE, Long.MAX_VALUE);
+            String value = BenchmarkSupport.payload(100);
+            for (int i = 0; i < entries; i++) {
+                store.put(BenchmarkSupport.key(i), value);
+            }
+            if (fromSnapshot) {
+                store.snapshot();
+            }
+            store.close();
+        }
+
+        @TearDown
+        public void tearDown() {
+            BenchmarkSupport.deleteRecursively(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    public String put(Writes writes) {
+        return writes.store.put(BenchmarkSupport.key(ThreadLocalRandom.current().nextInt(100_000)), writes.value);
+    }
+
+    /**
+     * Time to open the store: load the snapshot, if any, and replay the log
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @Threads(1)
+    @Fork(1)
+    public int recover(Recovery recovery) {
+        WalKeyValueStore store = new WalKeyValueStore(recovery.directory, false, Long.MAX_VALUE, Long.MAX_VALUE);
+        int size = store.size();
+        store.close();
+        return size;
+    }
+}
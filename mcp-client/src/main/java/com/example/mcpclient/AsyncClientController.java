@@ -0,0 +1,153 @@
+package com.example.mcpclient;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking REST controller for MCP tools.
+ * Mirrors the /api endpoints under /api/async, returning Mono so no servlet
+ * thread is held while the MCP server works on the call.
+ */
+@RestController
+@RequestMapping("/api/async")
+public class AsyncClientController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncClientController.class);
+
+    @Autowired
+    private McpAsyncRpcClient mcpAsyncRpcClient;
+
+    /**
+     * Call any MCP tool by name with a JSON body of arguments
+     */
+    @PostMapping("/tools/{toolName}")
+    public Mono<ToolCallResponse> callTool(@PathVariable String toolName,
+                                           @RequestBody(required = false) Map<String, Object> arguments) {
+        return callMcpTool(toolName, arguments != null ? arguments : Map.of());
+    }
+
+    // ==================== TIME SERVICE ====================
+
+    @GetMapping("/time")
+    public Mono<ToolCallResponse> getCurrentTime() {
+        return callMcpTool("getCurrentTime", Map.of());
+    }
+
+    // ==================== CALCULATOR SERVICE ====================
+
+    @GetMapping("/calculator/add")
+    public Mono<ToolCallResponse> add(@RequestParam double a, @RequestParam double b) {
+        return callMcpTool("add", Map.of("a", a, "b", b));
+    }
+
+    @GetMapping("/calculator/subtract")
+    public Mono<ToolCallResponse> subtract(@RequestParam double a, @RequestParam double b) {
+        return callMcpTool("subtract", Map.of("a", a, "b", b));
+    }
+
+    @GetMapping("/calculator/multiply")
+    public Mono<ToolCallResponse> multiply(@RequestParam double a, @RequestParam double b) {
+        return callMcpTool("multiply", Map.of("a", a, "b", b));
+    }
+
+    @GetMapping("/calculator/divide")
+    public Mono<ToolCallResponse> divide(@RequestParam double a, @RequestParam double b) {
+        return callMcpTool("divide", Map.of("a", a, "b", b));
+    }
+
+    @GetMapping("/calculator/power")
+    public Mono<ToolCallResponse> power(@RequestParam double base, @RequestParam double exponent) {
+        return callMcpTool("power", Map.of("base", base, "exponent", exponent));
+    }
+
+    @GetMapping("/calculator/sqrt")
+    public Mono<ToolCallResponse> sqrt(@RequestParam double number) {
+        return callMcpTool("sqrt", Map.of("number", number));
+    }
+
+    // ==================== FILE SERVICE ====================
+
+    @GetMapping("/files/list")
+    public Mono<ToolCallResponse> listFiles() {
+        return callMcpTool("listFiles", Map.of());
+    }
+
+    @PostMapping("/files/write")
+    public Mono<ToolCallResponse> writeFile(@RequestParam String filename, @RequestParam String content) {
+        return callMcpTool("writeFile", Map.of("filename", filename, "content", content));
+    }
+
+    @GetMapping("/files/read")
+    public Mono<ToolCallResponse> readFile(@RequestParam String filename) {
+        return callMcpTool("readFile", Map.of("filename", filename));
+    }
+
+    @PostMapping("/files/append")
+    public Mono<ToolCallResponse> appendToFile(@RequestParam String filename, @RequestParam String content) {
+        return callMcpTool("appendToFile", Map.of("filename", filename, "content", content));
+    }
+
+    @GetMapping("/files/info")
+    public Mono<ToolCallResponse> getFileInfo(@RequestParam String filename) {
+        return callMcpTool("getFileInfo", Map.of("filename", filename));
+    }
+
+    @DeleteMapping("/files/delete")
+    public Mono<ToolCallResponse> deleteFile(@RequestParam String filename) {
+        return callMcpTool("deleteFile", Map.of("filename", filename));
+    }
+
+    // ==================== DATA STORAGE SERVICE ====================
+
+    @PostMapping("/storage/store")
+    public Mono<ToolCallResponse> storeData(@RequestParam String key, @RequestParam String value) {
+        return callMcpTool("store", Map.of("key", key, "value", value));
+    }
+
+    @GetMapping("/storage/retrieve")
+    public Mono<ToolCallResponse> retrieveData(@RequestParam String key) {
+        return callMcpTool("retrieve", Map.of("key", key));
+    }
+
+    @GetMapping("/storage/list")
+    public Mono<ToolCallResponse> listKeys() {
+        return callMcpTool("listKeys", Map.of());
+    }
+
+    @DeleteMapping("/storage/delete")
+    public Mono<ToolCallResponse> deleteData(@RequestParam String key) {
+        return callMcpTool("delete", Map.of("key", key));
+    }
+
+    @DeleteMapping("/storage/clear")
+    public Mono<ToolCallResponse> clearStorage() {
+        return callMcpTool("clear", Map.of());
+    }
+
+    @GetMapping("/storage/count")
+    public Mono<ToolCallResponse> countEntries() {
+        return callMcpTool("count", Map.of());
+    }
+
+    // ==================== HELPER METHOD ====================
+
+    /**
+     * Call MCP server tool without blocking, mapping the result to the same
+     * response shape as the synchronous endpoints
+     */
+    private Mono<ToolCallResponse> callMcpTool(String toolName, Map<String, Object> arguments) {
+        return mcpAsyncRpcClient.callTool(toolName, arguments)
+                .map(result -> ToolCallResponse.success(toolName, result, "async"))
+                .onErrorResume(e -> {
+                    logger.debug("Async tool '{}' failed", toolName, e);
+                    return Mono.just(ToolCallResponse.failure(toolName,
+                            e instanceof TimeoutException ? "MCP tool call timed out" : e.getMessage(), "async"));
+                });
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.mcpclient;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Canonical JSON form of tool arguments, used as the result cache key.
+ *
+ * Keys are written in sorted order and numbers are normalized so 4, 4L and 4.0
+ * give the same key. The arguments are streamed straight through a Jackson
+ * generator into a per-thread buffer that is reused between calls, so no
+ * sorted copies of the maps, BigDecimals or intermediate trees are built.
+ */
+public final class CanonicalArguments {
+
+    private static final String EMPTY = "{}";
+
+    /**
+     * Buffers that grew past this are not kept for the next call on the thread
+     */
+    private static final int MAX_RETAINED_CHARS = 16 * 1024;
+
+    private static final JsonFactory JSON = new JsonFactory()
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false)
+            .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+
+    private static final ThreadLocal<CharArrayWriter> BUFFER = ThreadLocal.withInitial(() -> new CharArrayWriter(256));
+
+    private CanonicalArguments() {
+    }
+
+    /**
+     * Canonical key of the arguments
+     */
+    public static String of(Map<String, Object> arguments) {
+        if (arguments == null || arguments.isEmpty()) {
+            return EMPTY;
+        }
+        CharArrayWriter buffer = BUFFER.get();
+        buffer.reset();
+        try (JsonGenerator generator = JSON.createGenerator(buffer)) {
+            writeValue(generator, arguments);
+        } catch (IOException e) {
+            return String.valueOf(new TreeMap<>(arguments));
+        }
+        String key = buffer.toString();
+        if (buffer.size() > MAX_RETAINED_CHARS) {
+            BUFFER.remove();
+        }
+        return key;
+    }
+
+    private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof String text) {
+            generator.writeString(text);
+        } else if (value instanceof Number number) {
+            writeNumber(generator, number);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Map<?, ?> map) {
+            writeObject(generator, map);
+        } else if (value instanceof Iterable<?> items) {
+            generator.writeStartArray();
+            for (Object item : items) {
+                writeValue(generator, item);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeObject(JsonGenerator generator, Map<?, ?> map) throws IOException {
+        Object[] keys = map.keySet().toArray();
+        if (keys.length > 1) {
+            Arrays.sort(keys, (left, right) -> String.valueOf(left).compareTo(String.valueOf(right)));
+        }
+        generator.writeStartObject();
+        for (Object key : keys) {
+            generator.writeFieldName(String.valueOf(key));
+            writeValue(generator, map.get(key));
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Integral values are written as longs, other floating point values in
+     * their shortest form; floats go through their decimal string so 0.1f
+     * matches 0.1
+     */
+    private static void writeNumber(JsonGenerator generator, Number number) throws IOException {
+        if (number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte) {
+            generator.writeNumber(number.longValue());
+            return;
+        }
+        if (number instanceof Double || number instanceof Float) {
+            double value = number instanceof Float f ? Double.parseDouble(f.toString()) : number.doubleValue();
+            if (value == Math.rint(value) && Math.abs(value) < 0x1p53) {
+                generator.writeNumber((long) value);
+            } else {
+                generator.writeNumber(value);
+            }
+            return;
+        }
+        try {
+            BigDecimal decimal = new BigDecimal(number.toString()).stripTrailingZeros();
+            if (decimal.scale() <= 0 && decimal.abs().compareTo(BigDecimal.valueOf(1L << 53)) < 0) {
+                generator.writeNumber(decimal.longValue());
+            } else {
+                generator.writeNumber(decimal);
+            }
+        } catch (NumberFormatException e) {
+            generator.writeString(number.toString());
+        }
+    }
+}
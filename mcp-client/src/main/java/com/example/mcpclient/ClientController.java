@@ -1,5 +1,6 @@
 package com.example.mcpclient;
 
+import com.example.mcphost.common.McpClientPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +22,12 @@ public class ClientController {
     @Autowired(required = false)
     private McpClientService mcpClientService;
 
+    @Autowired(required = false)
+    private McpClientPool mcpClientPool;
+
+    @Autowired(required = false)
+    private McpToolResultCache mcpToolResultCache;
+
     /**
      * Get client status.
      */
@@ -53,111 +60,165 @@ public class ClientController {
         return mcpClientService.listTools();
     }
 
+    /**
+     * Per-session statistics of the MCP client pool
+     */
+    @GetMapping("/pool")
+    public Map<String, Object> poolStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("available", mcpClientPool.isAvailable());
+        response.put("sessions", mcpClientPool.stats());
+        return response;
+    }
+
+    /**
+     * Tool result cache hit/miss/eviction counters
+     */
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return mcpToolResultCache.stats();
+    }
+
+    @DeleteMapping("/cache")
+    public Map<String, Object> clearCache() {
+        mcpToolResultCache.clear();
+        return mcpToolResultCache.stats();
+    }
+
     // ==================== TIME SERVICE ====================
 
     @GetMapping("/time")
-    public Map<String, Object> getCurrentTime() {
+    public ToolCallResponse getCurrentTime() {
         return mcpClientService.getCurrentTime();
     }
 
     // ==================== CALCULATOR SERVICE ====================
 
     @GetMapping("/calculator/add")
-    public Map<String, Object> add(@RequestParam double a, @RequestParam double b) {
+    public ToolCallResponse add(@RequestParam double a, @RequestParam double b) {
         return mcpClientService.add(a, b);
     }
 
     @GetMapping("/calculator/subtract")
-    public Map<String, Object> subtract(@RequestParam double a, @RequestParam double b) {
+    public ToolCallResponse subtract(@RequestParam double a, @RequestParam double b) {
         return mcpClientService.subtract(a, b);
     }
 
     @GetMapping("/calculator/multiply")
-    public Map<String, Object> multiply(@RequestParam double a, @RequestParam double b) {
+    public ToolCallResponse multiply(@RequestParam double a, @RequestParam double b) {
         return mcpClientService.multiply(a, b);
     }
 
     @GetMapping("/calculator/divide")
-    public Map<String, Object> divide(@RequestParam double a, @RequestParam double b) {
+    public ToolCallResponse divide(@RequestParam double a, @RequestParam double b) {
         return mcpClientService.divide(a, b);
     }
 
     @GetMapping("/calculator/power")
-    public Map<String, Object> power(@RequestParam double base, @RequestParam double exponent) {
+    public ToolCallResponse power(@RequestParam double base, @RequestParam double exponent) {
         return mcpClientService.power(base, exponent);
     }
 
     @GetMapping("/calculator/sqrt")
-    public Map<String, Object> sqrt(@RequestParam double number) {
+    public ToolCallResponse sqrt(@RequestParam double number) {
         return mcpClientService.sqrt(number);
     }
 
     // ==================== FILE SERVICE ====================
 
     @GetMapping("/files/list")
-    public Map<String, Object> listFiles() {
+    public ToolCallResponse listFiles() {
         return mcpClientService.listFiles();
     }
 
+    @GetMapping("/files/list/page")
+    public ToolCallResponse listFilesPage(@RequestParam(required = false) String prefix,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String cursor) {
+        return mcpClientService.listFilesPage(prefix, limit, cursor);
+    }
+
     @PostMapping("/files/write")
-    public Map<String, Object> writeFile(@RequestParam String filename, @RequestParam String content) {
+    public ToolCallResponse writeFile(@RequestParam String filename, @RequestParam String content) {
         return mcpClientService.writeFile(filename, content);
     }
 
     @GetMapping("/files/read")
-    public Map<String, Object> readFile(@RequestParam String filename) {
+    public ToolCallResponse readFile(@RequestParam String filename) {
         return mcpClientService.readFile(filename);
     }
 
     @PostMapping("/files/append")
-    public Map<String, Object> appendToFile(@RequestParam String filename, @RequestParam String content) {
+    public ToolCallResponse appendToFile(@RequestParam String filename, @RequestParam String content) {
         return mcpClientService.appendToFile(filename, content);
     }
 
     @GetMapping("/files/info")
-    public Map<String, Object> getFileInfo(@RequestParam String filename) {
+    public ToolCallResponse getFileInfo(@RequestParam String filename) {
         return mcpClientService.getFileInfo(filename);
     }
 
     @DeleteMapping("/files/delete")
-    public Map<String, Object> deleteFile(@RequestParam String filename) {
+    public ToolCallResponse deleteFile(@RequestParam String filename) {
         return mcpClientService.deleteFile(filename);
     }
 
     @GetMapping("/files/workspace")
-    public Map<String, Object> getWorkspacePath() {
+    public ToolCallResponse getWorkspacePath() {
         return mcpClientService.getWorkspacePath();
     }
 
     // ==================== DATA STORAGE SERVICE ====================
 
     @PostMapping("/storage/store")
-    public Map<String, Object> storeData(@RequestParam String key, @RequestParam String value) {
+    public ToolCallResponse storeData(@RequestParam String key, @RequestParam String value) {
         return mcpClientService.storeData(key, value);
     }
 
     @GetMapping("/storage/retrieve")
-    public Map<String, Object> retrieveData(@RequestParam String key) {
+    public ToolCallResponse retrieveData(@RequestParam String key) {
         return mcpClientService.retrieveData(key);
     }
 
     @GetMapping("/storage/list")
-    public Map<String, Object> listKeys() {
+    public ToolCallResponse listKeys() {
         return mcpClientService.listKeys();
     }
 
+    @GetMapping("/storage/list/page")
+    public ToolCallResponse listKeysPage(@RequestParam(required = false) String prefix,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor) {
+        return mcpClientService.listKeysPage(prefix, limit, cursor);
+    }
+
+    @GetMapping("/storage/scan/prefix")
+    public ToolCallResponse scanPrefix(@RequestParam String prefix,
+                                       @RequestParam(required = false) Integer limit,
+                                       @RequestParam(required = false) String cursor) {
+        return mcpClientService.scanPrefix(prefix, limit, cursor);
+    }
+
+    @GetMapping("/storage/scan/range")
+    public ToolCallResponse scanRange(@RequestParam(required = false) String from,
+                                      @RequestParam(required = false) String to,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) String cursor) {
+        return mcpClientService.scanRange(from, to, limit, cursor);
+    }
+
     @DeleteMapping("/storage/delete")
-    public Map<String, Object> deleteData(@RequestParam String key) {
+    public ToolCallResponse deleteData(@RequestParam String key) {
         return mcpClientService.deleteData(key);
     }
 
     @DeleteMapping("/storage/clear")
-    public Map<String, Object> clearStorage() {
+    public ToolCallResponse clearStorage() {
         return mcpClientService.clearStorage();
     }
 
     @GetMapping("/storage/count")
-    public Map<String, Object> countEntries() {
+    public ToolCallResponse countEntries() {
         return mcpClientService.countEntries();
     }
 }
@@ -0,0 +1,105 @@
+package com.example.mcpclient;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpError;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking MCP RPC Client
+ * Calls MCP tools through the result cache and a shared McpAsyncClient session
+ * without holding a thread, so async writes invalidate the same cached reads as
+ * McpRpcClient.
+ * The session is dropped when a call fails for any reason other than an error
+ * response from the server (transport closed, request timed out by the
+ * session), and the next call opens a new one.
+ */
+@Component
+public class McpAsyncRpcClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpAsyncRpcClient.class);
+
+    @Autowired
+    private TransportSessionFactory sessionFactory;
+
+    @Autowired
+    private McpToolMetrics mcpToolMetrics;
+
+    @Autowired
+    private McpToolResultCache mcpToolResultCache;
+
+    @Value("${mcp.client.async.timeout-seconds:30}")
+    private long timeoutSeconds;
+
+    /**
+     * Initialized session shared by all subscribers, or null until the next call opens one
+     */
+    private final AtomicReference<Mono<McpAsyncClient>> session = new AtomicReference<>();
+
+    /**
+     * Call an MCP tool asynchronously.
+     * Cancelling the returned Mono (e.g. the HTTP client disconnects) cancels the pending MCP request.
+     */
+    public Mono<String> callTool(String toolName, Map<String, Object> arguments) {
+        return mcpToolResultCache.callToolAsync(toolName, arguments, () -> {
+                    Mono<McpAsyncClient> current = session();
+                    return current.flatMap(client -> mcpToolMetrics.recordAsync(toolName, arguments,
+                                    client.callTool(new McpSchema.CallToolRequest(toolName, arguments)))
+                            .doOnError(e -> !(e instanceof McpError), e -> resetSession(current, client, e)));
+                })
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .map(result -> {
+                    // Extract text content from result
+                    if (result.content() != null && !result.content().isEmpty()) {
+                        var content = result.content().get(0);
+                        if (content instanceof McpSchema.TextContent textContent) {
+                            return textContent.text();
+                        }
+                    }
+                    return result.toString();
+                })
+                .doOnSubscribe(subscription -> logger.debug("Calling MCP tool '{}' asynchronously with arguments: {}", toolName, arguments))
+                .doOnCancel(() -> logger.info("Async call to MCP tool '{}' was cancelled", toolName))
+                .doOnError(e -> logger.error("Error calling MCP tool '{}' asynchronously: {}", toolName, e.getMessage()));
+    }
+
+    /**
+     * The shared session, opening one if there is none. A failed initialization
+     * is not cached, so the next call retries.
+     */
+    private Mono<McpAsyncClient> session() {
+        Mono<McpAsyncClient> current = session.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<McpAsyncClient> opened = Mono.defer(() -> {
+                    McpAsyncClient client = sessionFactory.createAsync("mcp-server-async");
+                    return client.initialize().thenReturn(client);
+                })
+                .cache(client -> Duration.ofMillis(Long.MAX_VALUE), error -> Duration.ZERO, () -> Duration.ZERO);
+        current = session.compareAndExchange(null, opened);
+        return current != null ? current : opened;
+    }
+
+    /**
+     * Drop a session after a transport or session error and close it in the background.
+     * Only the first failed call on a session closes it.
+     */
+    private void resetSession(Mono<McpAsyncClient> failed, McpAsyncClient client, Throwable error) {
+        if (!session.compareAndSet(failed, null)) {
+            return;
+        }
+        logger.warn("Dropping async MCP session after error: {}", error.getMessage());
+        client.closeGracefully()
+                .subscribe(null, e -> logger.debug("Failed to close async MCP session: {}", e.getMessage()));
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.mcpclient;
 
+import com.example.mcphost.common.McpClientPool;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import(McpClientPool.class)
 public class McpClientApplication {
 
 	public static void main(String[] args) {
@@ -30,9 +30,11 @@ public class McpClientService {
         Map<String, Object> response = new HashMap<>();
         String[] toolNames = {
             "getCurrentTime",
-            "add", "subtract", "multiply", "divide", "power", "sqrt",
-            "listFiles", "writeFile", "readFile", "appendToFile", "getFileInfo", "deleteFile", "getWorkspacePath",
-            "store", "retrieve", "listKeys", "delete", "clear", "count"
+            "add", "subtract", "multiply", "divide", "power", "sqrt", "evaluate",
+            "sumArray", "dotProduct", "elementwise", "statistics", "polyEval",
+            "listFiles", "listFilesPage", "writeFile", "readFile", "readFileRange", "writeFileChunk", "appendToFile", "getFileInfo", "deleteFile", "getWorkspacePath",
+            "store", "retrieve", "listKeys", "listKeysPage", "scanPrefix", "scanRange", "delete", "clear", "count",
+            "storeMany", "retrieveMany", "deleteMany", "compareAndSet", "increment"
         };
 
         response.put("status", "success");
@@ -45,120 +47,143 @@ public class McpClientService {
 
     // ==================== TIME SERVICE ====================
 
-    public Map<String, Object> getCurrentTime() {
+    public ToolCallResponse getCurrentTime() {
         return callMcpTool("getCurrentTime", Map.of());
     }
 
     // ==================== CALCULATOR SERVICE ====================
 
-    public Map<String, Object> add(double a, double b) {
+    public ToolCallResponse add(double a, double b) {
         return callMcpTool("add", Map.of("a", a, "b", b));
     }
 
-    public Map<String, Object> subtract(double a, double b) {
+    public ToolCallResponse subtract(double a, double b) {
         return callMcpTool("subtract", Map.of("a", a, "b", b));
     }
 
-    public Map<String, Object> multiply(double a, double b) {
+    public ToolCallResponse multiply(double a, double b) {
         return callMcpTool("multiply", Map.of("a", a, "b", b));
     }
 
-    public Map<String, Object> divide(double a, double b) {
+    public ToolCallResponse divide(double a, double b) {
         return callMcpTool("divide", Map.of("a", a, "b", b));
     }
 
-    public Map<String, Object> power(double base, double exponent) {
+    public ToolCallResponse power(double base, double exponent) {
         return callMcpTool("power", Map.of("base", base, "exponent", exponent));
     }
 
-    public Map<String, Object> sqrt(double number) {
+    public ToolCallResponse sqrt(double number) {
         return callMcpTool("sqrt", Map.of("number", number));
     }
 
     // ==================== FILE SERVICE ====================
 
-    public Map<String, Object> listFiles() {
+    public ToolCallResponse listFiles() {
         return callMcpTool("listFiles", Map.of());
     }
 
-    public Map<String, Object> writeFile(String filename, String content) {
+    public ToolCallResponse listFilesPage(String prefix, Integer limit, String cursor) {
+        return callMcpTool("listFilesPage", pageArguments(prefix, limit, cursor));
+    }
+
+    public ToolCallResponse writeFile(String filename, String content) {
         return callMcpTool("writeFile", Map.of("filename", filename, "content", content));
     }
 
-    public Map<String, Object> readFile(String filename) {
+    public ToolCallResponse readFile(String filename) {
         return callMcpTool("readFile", Map.of("filename", filename));
     }
 
-    public Map<String, Object> appendToFile(String filename, String content) {
+    public ToolCallResponse appendToFile(String filename, String content) {
         return callMcpTool("appendToFile", Map.of("filename", filename, "content", content));
     }
 
-    public Map<String, Object> getFileInfo(String filename) {
+    public ToolCallResponse getFileInfo(String filename) {
         return callMcpTool("getFileInfo", Map.of("filename", filename));
     }
 
-    public Map<String, Object> deleteFile(String filename) {
+    public ToolCallResponse deleteFile(String filename) {
         return callMcpTool("deleteFile", Map.of("filename", filename));
     }
 
-    public Map<String, Object> getWorkspacePath() {
+    public ToolCallResponse getWorkspacePath() {
         return callMcpTool("getWorkspacePath", Map.of());
     }
 
     // ==================== DATA STORAGE SERVICE ====================
 
-    public Map<String, Object> storeData(String key, String value) {
+    public ToolCallResponse storeData(String key, String value) {
         return callMcpTool("store", Map.of("key", key, "value", value));
     }
 
-    public Map<String, Object> retrieveData(String key) {
+    public ToolCallResponse retrieveData(String key) {
         return callMcpTool("retrieve", Map.of("key", key));
     }
 
-    public Map<String, Object> listKeys() {
+    public ToolCallResponse listKeys() {
         return callMcpTool("listKeys", Map.of());
     }
 
-    public Map<String, Object> deleteData(String key) {
+    public ToolCallResponse listKeysPage(String prefix, Integer limit, String cursor) {
+        return callMcpTool("listKeysPage", pageArguments(prefix, limit, cursor));
+    }
+
+    public ToolCallResponse scanPrefix(String prefix, Integer limit, String cursor) {
+        return callMcpTool("scanPrefix", pageArguments(prefix, limit, cursor));
+    }
+
+    public ToolCallResponse scanRange(String from, String to, Integer limit, String cursor) {
+        Map<String, Object> arguments = pageArguments(null, limit, cursor);
+        if (from != null) {
+            arguments.put("from", from);
+        }
+        if (to != null) {
+            arguments.put("to", to);
+        }
+        return callMcpTool("scanRange", arguments);
+    }
+
+    public ToolCallResponse deleteData(String key) {
         return callMcpTool("delete", Map.of("key", key));
     }
 
-    public Map<String, Object> clearStorage() {
+    public ToolCallResponse clearStorage() {
         return callMcpTool("clear", Map.of());
     }
 
-    public Map<String, Object> countEntries() {
+    public ToolCallResponse countEntries() {
         return callMcpTool("count", Map.of());
     }
 
-    // ==================== HELPER METHOD ====================
+    // ==================== HELPER METHODS ====================
+
+    /**
+     * Arguments for the paginated listing tools, leaving out unset values
+     */
+    private Map<String, Object> pageArguments(String prefix, Integer limit, String cursor) {
+        Map<String, Object> arguments = new HashMap<>();
+        if (prefix != null) {
+            arguments.put("prefix", prefix);
+        }
+        if (limit != null) {
+            arguments.put("limit", limit);
+        }
+        if (cursor != null) {
+            arguments.put("cursor", cursor);
+        }
+        return arguments;
+    }
 
     /**
      * Call MCP server tool via JSON-RPC protocol
      */
-    private Map<String, Object> callMcpTool(String toolName, Map<String, Object> arguments) {
-        Map<String, Object> response = new HashMap<>();
+    private ToolCallResponse callMcpTool(String toolName, Map<String, Object> arguments) {
         try {
-            logger.info("Calling MCP tool '{}' via JSON-RPC with arguments: {}", toolName, arguments);
-
-            // Call tool via MCP JSON-RPC protocol
-            String result = mcpRpcClient.callTool(toolName, arguments);
-
-            response.put("result", result);
-            response.put("tool", toolName);
-            response.put("status", "success");
-            response.put("protocol", "MCP JSON-RPC 2.0");
-            response.put("source", "mcp-server");
-            response.put("timestamp", System.currentTimeMillis());
-
-            logger.info("Tool '{}' executed successfully via MCP protocol", toolName);
-
+            return ToolCallResponse.success(toolName, mcpRpcClient.callTool(toolName, arguments), null);
         } catch (Exception e) {
             logger.error("Error calling MCP tool '{}': {}", toolName, e.getMessage());
-            response.put("error", e.getMessage());
-            response.put("tool", toolName);
-            response.put("status", "failed");
+            return ToolCallResponse.failure(toolName, e.getMessage(), null);
         }
-        return response;
     }
 }
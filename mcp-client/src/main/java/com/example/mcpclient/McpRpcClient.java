@@ -1,47 +1,36 @@
 package com.example.mcpclient;
 
-import io.modelcontextprotocol.client.McpSyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
 import java.util.Map;
 
 /**
  * MCP RPC Client
- * Uses Spring AI's auto-configured McpSyncClient from the mcpSyncClients list
+ * Routes tool calls through the result cache and the McpClientPool so load is spread across sessions
  */
 @Component
 public class McpRpcClient {
 
     private static final Logger logger = LoggerFactory.getLogger(McpRpcClient.class);
 
-    @Autowired(required = false)
-    private List<McpSyncClient> mcpSyncClients;
+    @Autowired
+    private McpToolResultCache mcpToolResultCache;
 
     /**
-     * Call an MCP tool using Spring AI's auto-configured McpSyncClient
+     * Call an MCP tool, using the cache for cacheable tools
      */
     public String callTool(String toolName, Map<String, Object> arguments) {
         try {
-            if (mcpSyncClients == null || mcpSyncClients.isEmpty()) {
-                throw new RuntimeException("No MCP clients configured. Check application.properties configuration.");
-            }
-
-            // Use the first client in the list
-            McpSyncClient client = mcpSyncClients.get(0);
-
-            logger.info("Calling MCP tool '{}' with arguments: {}", toolName, arguments);
+            logger.debug("Calling MCP tool '{}' with arguments: {}", toolName, arguments);
 
-            // Call tool using McpSyncClient
-            McpSchema.CallToolResult result = client.callTool(
-                    new McpSchema.CallToolRequest(toolName, arguments)
-            );
+            // Serve from cache, or call tool on the least loaded session
+            McpSchema.CallToolResult result = mcpToolResultCache.callTool(toolName, arguments);
 
-            logger.info("Tool '{}' executed successfully", toolName);
+            logger.debug("Tool '{}' executed successfully", toolName);
 
             // Extract text content from result
             if (result.content() != null && !result.content().isEmpty()) {
@@ -0,0 +1,32 @@
+package com.example.mcpclient;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Response body of the tool endpoints.
+ *
+ * Serialized to the same JSON as the map the endpoints used to build, but
+ * without a HashMap, its nodes and boxed fields per call. Unset fields are
+ * left out, so failures only carry error, tool and status.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ToolCallResponse(String result, String tool, String status, String protocol,
+                               String source, String mode, Long timestamp, String error) {
+
+    private static final String PROTOCOL = "MCP JSON-RPC 2.0";
+    private static final String SOURCE = "mcp-server";
+
+    /**
+     * Successful call; mode is "async" for the non-blocking endpoints and null otherwise
+     */
+    public static ToolCallResponse success(String tool, String result, String mode) {
+        return new ToolCallResponse(result, tool, "success", PROTOCOL, SOURCE, mode, System.currentTimeMillis(), null);
+    }
+
+    /**
+     * Failed call with the error message
+     */
+    public static ToolCallResponse failure(String tool, String error, String mode) {
+        return new ToolCallResponse(null, tool, "failed", null, null, mode, null, error);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.mcpclient;
+
+import com.example.mcphost.common.McpSessionFactory;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.client.transport.ServerParameters;
+import io.modelcontextprotocol.client.transport.StdioClientTransport;
+import io.modelcontextprotocol.json.McpJsonMapper;
+import io.modelcontextprotocol.spec.McpClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates new MCP client sessions for the client pool.
+ * Uses the same STDIO or SSE transport settings as application.properties.
+ */
+@Component
+public class TransportSessionFactory implements McpSessionFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransportSessionFactory.class);
+
+    @Value("${spring.ai.mcp.client.transport:stdio}")
+    private String transport;
+
+    @Value("${spring.ai.mcp.client.stdio.command:java}")
+    private String stdioCommand;
+
+    @Value("${spring.ai.mcp.client.stdio.args:}")
+    private String[] stdioArgs;
+
+    @Value("${spring.ai.mcp.client.sse.base-url:http://localhost:8080}")
+    private String sseBaseUrl;
+
+    @Value("${spring.ai.mcp.client.sse.sse-endpoint:/sse}")
+    private String sseEndpoint;
+
+    @Value("${mcp.client.pool.request-timeout-seconds:30}")
+    private long requestTimeoutSeconds;
+
+    @Override
+    public List<String> serverNames() {
+        return List.of("mcp-server");
+    }
+
+    @Override
+    public McpSyncClient create(String serverName, String sessionId) {
+        logger.info("Opening MCP session '{}' over {} transport", sessionId, transport);
+
+        McpSyncClient client = McpClient.sync(createTransport())
+                .requestTimeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .clientInfo(new McpSchema.Implementation(sessionId, "1.0.0"))
+                .build();
+        client.initialize();
+        return client;
+    }
+
+    /**
+     * Build a non-blocking session to the MCP server.
+     * The caller subscribes to {@link McpAsyncClient#initialize()} before use.
+     */
+    public McpAsyncClient createAsync(String sessionId) {
+        logger.info("Opening async MCP session '{}' over {} transport", sessionId, transport);
+
+        return McpClient.async(createTransport())
+                .requestTimeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .clientInfo(new McpSchema.Implementation(sessionId, "1.0.0"))
+                .build();
+    }
+
+    private McpClientTransport createTransport() {
+        if ("sse".equalsIgnoreCase(transport)) {
+            return HttpClientSseClientTransport.builder(sseBaseUrl)
+                    .sseEndpoint(sseEndpoint)
+                    .build();
+        }
+        ServerParameters parameters = ServerParameters.builder(stdioCommand)
+                .args(Arrays.asList(stdioArgs))
+                .build();
+        return new StdioClientTransport(parameters, McpJsonMapper.getDefault());
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.mcphostclaude;
 
+import com.example.mcphost.common.ChatResponseCache;
+import com.example.mcphost.common.ChatSessionStore;
+import com.example.mcphost.common.ToolProgressCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.anthropic.AnthropicChatOptions;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Chat controller demonstrating Claude (Anthropic) with MCP tools.
@@ -33,6 +48,15 @@ public class ClaudeChatController {
     @Autowired(required = false)
     private List<String> mcpFunctionNames;
 
+    @Autowired(required = false)
+    private org.springframework.ai.mcp.SyncMcpToolCallbackProvider mcpToolCallbacks;
+
+    @Autowired
+    private ChatResponseCache chatResponseCache;
+
+    @Autowired
+    private ChatSessionStore chatSessionStore;
+
     /**
      * Get Claude host status.
      */
@@ -51,16 +75,130 @@ public class ClaudeChatController {
     /**
      * Chat endpoint that processes queries using Claude with MCP tools.
      * Supports both GET with query parameter and POST with JSON body.
+     * With a sessionId the conversation history of that session is sent along.
      */
     @GetMapping("/chat")
-    public Map<String, Object> chatGet(@RequestParam(required = false) String query) {
-        return processChat(query);
+    public Map<String, Object> chatGet(@RequestParam(required = false) String query,
+                                       @RequestParam(required = false) String sessionId) {
+        return processChat(query, sessionId);
     }
 
     @PostMapping("/chat")
     public Map<String, Object> chatPost(@RequestBody(required = false) Map<String, String> request) {
         String query = request != null ? request.get("query") : null;
-        return processChat(query);
+        String sessionId = request != null ? request.get("sessionId") : null;
+        return processChat(query, sessionId);
+    }
+
+    /**
+     * History of a chat session; DELETE ends the session.
+     */
+    @GetMapping("/chat/sessions/{sessionId}")
+    public Map<String, Object> chatSession(@PathVariable String sessionId) {
+        Map<String, Object> session = chatSessionStore.describe(sessionId);
+        if (session == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Session not found");
+            response.put("sessionId", sessionId);
+            return response;
+        }
+        return session;
+    }
+
+    @DeleteMapping("/chat/sessions/{sessionId}")
+    public Map<String, Object> deleteChatSession(@PathVariable String sessionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionId", sessionId);
+        response.put("deleted", chatSessionStore.delete(sessionId));
+        return response;
+    }
+
+    @GetMapping("/chat/sessions")
+    public Map<String, Object> chatSessionStats() {
+        return chatSessionStore.stats();
+    }
+
+    /**
+     * Streaming chat endpoint. Emits server-sent events as the model produces them:
+     * "token" events with text chunks, "tool" events when an MCP tool call starts
+     * and ends, then "done" (or "error"). The model call is cancelled if the client disconnects.
+     */
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> chatStreamGet(@RequestParam(required = false) String query) {
+        return streamChat(query);
+    }
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> chatStreamPost(@RequestBody(required = false) Map<String, String> request) {
+        String query = request != null ? request.get("query") : null;
+        return streamChat(query);
+    }
+
+    /**
+     * Stream a chat completion, interleaving tool progress with the model's tokens.
+     */
+    private Flux<ServerSentEvent<Map<String, Object>>> streamChat(String query) {
+        if (chatModel == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "ChatModel not configured");
+            error.put("message", "Anthropic API key may be missing. Set ANTHROPIC_API_KEY environment variable.");
+            return Flux.just(sseEvent("error", error));
+        }
+        if (query == null || query.trim().isEmpty()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Query parameter is required");
+            error.put("example", "/api/chat/stream?query=What+is+25+times+4");
+            return Flux.just(sseEvent("error", error));
+        }
+
+        logger.info("Streaming chat query with Claude: {}", query);
+
+        // Tool calls run inside the model's stream; their progress is merged into the same event stream
+        Sinks.Many<ServerSentEvent<Map<String, Object>>> toolEvents = Sinks.many().unicast().onBackpressureBuffer();
+        Consumer<Map<String, Object>> toolProgress = progress ->
+                toolEvents.emitNext(sseEvent("tool", progress), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+
+        Prompt prompt;
+        if (mcpToolCallbacks != null) {
+            List<ToolCallback> toolCallbacks = Arrays.stream(mcpToolCallbacks.getToolCallbacks())
+                    .map(callback -> (ToolCallback) new ToolProgressCallback(callback, toolProgress))
+                    .toList();
+            prompt = new Prompt(query, AnthropicChatOptions.builder().toolCallbacks(toolCallbacks).build());
+        } else {
+            prompt = new Prompt(query);
+        }
+
+        long start = System.currentTimeMillis();
+        AtomicInteger chunks = new AtomicInteger();
+        Flux<ServerSentEvent<Map<String, Object>>> tokens = chatModel.stream(prompt)
+                .mapNotNull(chatResponse -> chatResponse.getResult() != null && chatResponse.getResult().getOutput() != null
+                        ? chatResponse.getResult().getOutput().getText()
+                        : null)
+                .filter(text -> !text.isEmpty())
+                .map(text -> {
+                    chunks.incrementAndGet();
+                    return sseEvent("token", Map.of("text", text));
+                })
+                .concatWith(Mono.fromSupplier(() -> sseEvent("done", Map.of(
+                        "query", query,
+                        "model", "Anthropic Claude 3.5 Sonnet",
+                        "chunks", chunks.get(),
+                        "elapsedMillis", System.currentTimeMillis() - start))))
+                .onErrorResume(e -> {
+                    logger.error("Error streaming chat query", e);
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("error", "Failed to process query");
+                    error.put("message", e.getMessage());
+                    return Flux.just(sseEvent("error", error));
+                })
+                .doFinally(signal -> toolEvents.tryEmitComplete());
+
+        return Flux.merge(tokens, toolEvents.asFlux())
+                .doOnCancel(() -> logger.info("Client disconnected, cancelled chat stream for: {}", query));
+    }
+
+    private static ServerSentEvent<Map<String, Object>> sseEvent(String name, Map<String, Object> data) {
+        return ServerSentEvent.<Map<String, Object>>builder(data).event(name).build();
     }
 
     /**
@@ -71,7 +209,7 @@ public class ClaudeChatController {
     public Map<String, Object> demo(@RequestParam(required = false) String query) {
         if (query != null && !query.isEmpty()) {
             // If query parameter provided, process it with AI
-            return processChat(query);
+            return processChat(query, null);
         }
 
         // Otherwise return demo information
@@ -105,7 +243,7 @@ public class ClaudeChatController {
     /**
      * Process chat query using Claude with MCP tools.
      */
-    private Map<String, Object> processChat(String query) {
+    private Map<String, Object> processChat(String query, String sessionId) {
         Map<String, Object> response = new HashMap<>();
 
         if (chatModel == null) {
@@ -121,18 +259,56 @@ public class ClaudeChatController {
             return response;
         }
 
+        ChatSessionStore.ChatSession session = null;
+        if (sessionId != null) {
+            try {
+                session = chatSessionStore.open(sessionId);
+            } catch (IllegalArgumentException e) {
+                response.put("error", "Invalid sessionId");
+                response.put("message", e.getMessage());
+                return response;
+            }
+        }
+
         try {
             logger.info("Processing chat query with Claude: {}", query);
 
+            // No MCP tools are passed on this path, so answers do not depend on a tool catalog.
+            // Answers depend on the conversation history, so only stateless queries are cached.
+            boolean cacheable = session == null && chatResponseCache.isEnabled();
+            Optional<ChatResponseCache.Hit> cached = cacheable
+                    ? chatResponseCache.lookup(query, "none")
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                ChatResponseCache.Hit hit = cached.get();
+                logger.info("Answered from the chat response cache ({} match)", hit.match());
+                response.put("query", query);
+                response.put("response", hit.response());
+                response.put("model", "Anthropic Claude 3.5 Sonnet");
+                response.put("cache", hit.match());
+                response.put("cachedAt", hit.cachedAt().toString());
+                response.put("timestamp", System.currentTimeMillis());
+                return response;
+            }
+
             // Call Claude ChatModel
-            Prompt prompt = new Prompt(query);
+            List<Message> messages = session != null ? chatSessionStore.messages(session, query) : null;
+            Prompt prompt = messages != null ? new Prompt(messages) : new Prompt(query);
             ChatResponse chatResponse = chatModel.call(prompt);
 
             String aiResponse = chatResponse.getResult().getOutput().getText();
+            if (session != null) {
+                chatSessionStore.record(session, query, aiResponse);
+                response.put("sessionId", session.id());
+                response.put("historyTokens", chatSessionStore.historyTokens(session));
+            } else if (cacheable) {
+                chatResponseCache.put(query, "none", aiResponse, List.of());
+            }
 
             response.put("query", query);
             response.put("response", aiResponse);
             response.put("model", "Anthropic Claude 3.5 Sonnet");
+            response.put("cache", cacheable ? "miss" : "off");
             response.put("note", "MCP tools will be auto-configured when available");
             response.put("timestamp", System.currentTimeMillis());
 
@@ -148,6 +324,20 @@ public class ClaudeChatController {
         return response;
     }
 
+    /**
+     * Chat response cache statistics; DELETE empties the cache.
+     */
+    @GetMapping("/chat/cache")
+    public Map<String, Object> chatCacheStats() {
+        return chatResponseCache.stats();
+    }
+
+    @DeleteMapping("/chat/cache")
+    public Map<String, Object> clearChatCache() {
+        chatResponseCache.clear();
+        return chatResponseCache.stats();
+    }
+
     /**
      * Information about model-agnostic MCP design.
      */
@@ -1,13 +1,18 @@
 package com.example.mcphostclaude;
 
+import com.example.mcphost.common.ChatResponseCache;
+import com.example.mcphost.common.ChatSessionStore;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 /**
  * MCP Host using Claude (Anthropic).
  * Demonstrates that MCP is model-agnostic - same MCP server tools work with different AI models.
+ * Code shared with mcp-host comes from mcp-host-common.
  */
 @SpringBootApplication
+@Import({ChatResponseCache.class, ChatSessionStore.class})
 public class McpHostClaudeApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,571 @@
+package com.example.mcphost.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Cache of chat model answers, checked before the model is called.
+ *
+ * Entries are keyed by the normalized query, the model (chat.cache.model)
+ * and the tool catalog version. With chat.cache.semantic.enabled, a query that
+ * is close enough to a cached one (cosine similarity of hashed n-gram vectors, computed locally)
+ * and mentions the same numbers is also a hit.
+ *
+ * An entry lives for chat.cache.ttl, shortened to the TTL of any tool the model
+ * called while answering (chat.cache.tool-ttl.&lt;toolName&gt;). Answers that
+ * called a tool with a zero TTL, a write tool or a failing tool are not cached.
+ * The memory tier is bounded by size. Every entry is also written to a disk
+ * tier, trimmed least recently used first, which is reloaded on startup.
+ */
+@Component
+public class ChatResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatResponseCache.class);
+
+    private static final String TOOL_TTL_PROPERTY_PREFIX = "chat.cache.tool-ttl.";
+
+    /**
+     * Tools with side effects - replaying a cached answer would skip them
+     */
+    private static final Set<String> WRITE_TOOLS = Set.of(
+            "writeFile", "appendToFile", "writeFileChunk", "deleteFile",
+            "store", "storeMany", "compareAndSet", "increment", "delete", "deleteMany", "clear");
+
+    private static final int VECTOR_DIMENSIONS = 256;
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(?:\\.\\d+)?");
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${chat.cache.model:default}")
+    private String model;
+
+    @Value("${chat.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.cache.ttl:1h}")
+    private Duration defaultTtl;
+
+    @Value("${chat.cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${chat.cache.semantic.enabled:false}")
+    private boolean semanticEnabled;
+
+    @Value("${chat.cache.semantic.threshold:0.9}")
+    private double semanticThreshold;
+
+    @Value("${chat.cache.disk.enabled:true}")
+    private boolean diskEnabled;
+
+    @Value("${chat.cache.disk.directory:./chat-cache}")
+    private String diskDirectory;
+
+    @Value("${chat.cache.disk.max-bytes:268435456}")
+    private long diskMaxBytes;
+
+    private final Map<String, Optional<Duration>> toolTtls = new ConcurrentHashMap<>();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private Cache<String, CachedChat> cache;
+    private Path diskPath;
+    private ExecutorService diskWriter;
+    private Counter exactHits;
+    private Counter semanticHits;
+    private Counter diskHits;
+    private Counter misses;
+
+    /**
+     * A cached answer and how it matched: "exact", "semantic" or "disk"
+     */
+    public record Hit(String response, String match, String cachedQuery, List<String> tools, Instant cachedAt) {
+    }
+
+    /**
+     * On-disk form of an entry; the vector is recomputed when it is loaded
+     */
+    private record DiskEntry(String key, String model, String catalogVersion, String query, String response,
+                             List<String> tools, long createdAt, long expiresAt) {
+    }
+
+    private record CachedChat(DiskEntry entry, float[] vector, List<String> numbers) {
+
+        int weight() {
+            return 128 + (entry.key().length() + entry.response().length()) * 2 + vector.length * 4;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedChat value) -> value.weight())
+                .expireAfter(new Expiry<String, CachedChat>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedChat value, long currentTime) {
+                        return remainingNanos(value.entry());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedChat value, long currentTime, long currentDuration) {
+                        return remainingNanos(value.entry());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedChat value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.responses");
+        exactHits = lookupCounter("exact");
+        semanticHits = lookupCounter("semantic");
+        diskHits = lookupCounter("disk");
+        misses = lookupCounter("miss");
+
+        diskWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-cache-disk");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled && diskEnabled) {
+            diskPath = Paths.get(diskDirectory).toAbsolutePath().normalize();
+            diskWriter.execute(this::loadFromDisk);
+        }
+        logger.info("Chat response cache {} (max {} bytes, semantic {}, disk {})", enabled ? "enabled" : "disabled",
+                maxBytes, semanticEnabled ? "threshold " + semanticThreshold : "off", diskPath != null ? diskPath : "off");
+    }
+
+    @PreDestroy
+    public void stop() {
+        diskWriter.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Find a cached answer for the query, made with the same model and tool catalog
+     */
+    public Optional<Hit> lookup(String query, String catalogVersion) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String normalized = normalize(query);
+        String key = key(normalized, catalogVersion);
+
+        CachedChat cached = cache.getIfPresent(key);
+        if (cached != null) {
+            exactHits.increment();
+            return Optional.of(hit(cached, "exact"));
+        }
+
+        if (diskPath != null) {
+            cached = readFromDisk(key);
+            if (cached != null) {
+                cache.put(key, cached);
+                diskHits.increment();
+                return Optional.of(hit(cached, "disk"));
+            }
+        }
+
+        if (semanticEnabled) {
+            cached = findSimilar(normalized, catalogVersion);
+            if (cached != null) {
+                semanticHits.increment();
+                return Optional.of(hit(cached, "semantic"));
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Cache an answer, with a TTL limited by the tools the model called to produce it
+     */
+    public void put(String query, String catalogVersion, String response, Collection<String> toolsUsed) {
+        if (!enabled || response == null || response.isBlank()) {
+            return;
+        }
+        Duration ttl = ttlFor(toolsUsed);
+        if (ttl.isZero() || ttl.isNegative()) {
+            logger.debug("Not caching answer to '{}', it used volatile or write tools {}", query, toolsUsed);
+            return;
+        }
+
+        String normalized = normalize(query);
+        long now = System.currentTimeMillis();
+        DiskEntry entry = new DiskEntry(key(normalized, catalogVersion), model, catalogVersion, normalized, response,
+                List.copyOf(toolsUsed), now, now + ttl.toMillis());
+        cache.put(entry.key(), cachedChat(entry));
+        if (diskPath != null) {
+            diskWriter.execute(() -> writeToDisk(entry));
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters of both tiers
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", enabled);
+        response.put("model", model);
+        response.put("entries", cache.estimatedSize());
+        response.put("maxBytes", maxBytes);
+        response.put("exactHits", (long) exactHits.count());
+        response.put("diskHits", (long) diskHits.count());
+        response.put("semanticHits", (long) semanticHits.count());
+        response.put("misses", (long) misses.count());
+        response.put("evictions", stats.evictionCount());
+        response.put("semanticThreshold", semanticEnabled ? semanticThreshold : null);
+        response.put("diskDirectory", diskPath != null ? diskPath.toString() : null);
+        response.put("diskBytes", diskBytes.get());
+        response.put("diskMaxBytes", diskMaxBytes);
+        return response;
+    }
+
+    /**
+     * Drop every cached answer from memory and disk
+     */
+    public void clear() {
+        cache.invalidateAll();
+        if (diskPath != null) {
+            diskWriter.execute(() -> {
+                for (Path file : diskFiles()) {
+                    deleteQuietly(file);
+                }
+                diskBytes.set(0);
+            });
+        }
+    }
+
+    /**
+     * Lower case, single spaces, no trailing punctuation: "What time is it?" matches "what time is it"
+     */
+    static String normalize(String query) {
+        String normalized = query.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        int end = normalized.length();
+        while (end > 0 && "?!.".indexOf(normalized.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        return normalized.substring(0, end).trim();
+    }
+
+    private String key(String normalizedQuery, String catalogVersion) {
+        return model + '\n' + catalogVersion + '\n' + normalizedQuery;
+    }
+
+    private Duration ttlFor(Collection<String> toolsUsed) {
+        Duration ttl = defaultTtl;
+        for (String tool : toolsUsed) {
+            if (WRITE_TOOLS.contains(tool)) {
+                return Duration.ZERO;
+            }
+            Optional<Duration> toolTtl = toolTtls.computeIfAbsent(tool,
+                    name -> Optional.ofNullable(environment.getProperty(TOOL_TTL_PROPERTY_PREFIX + name, Duration.class)));
+            if (toolTtl.isPresent() && toolTtl.get().compareTo(ttl) < 0) {
+                ttl = toolTtl.get();
+            }
+        }
+        return ttl;
+    }
+
+    private static long remainingNanos(DiskEntry entry) {
+        return Math.max(0, entry.expiresAt() - System.currentTimeMillis()) * 1_000_000;
+    }
+
+    private static Hit hit(CachedChat cached, String match) {
+        DiskEntry entry = cached.entry();
+        return new Hit(entry.response(), match, entry.query(), entry.tools(), Instant.ofEpochMilli(entry.createdAt()));
+    }
+
+    /**
+     * Most similar cached query for the same model and catalog, if it passes the threshold.
+     * Queries with different numbers never match, so "25 times 4" is not served for "25 times 5".
+     */
+    private CachedChat findSimilar(String normalizedQuery, String catalogVersion) {
+        float[] vector = embed(normalizedQuery);
+        List<String> numbers = numbers(normalizedQuery);
+        long now = System.currentTimeMillis();
+
+        CachedChat best = null;
+        double bestSimilarity = semanticThreshold;
+        for (CachedChat candidate : cache.asMap().values()) {
+            DiskEntry entry = candidate.entry();
+            if (!entry.model().equals(model) || !entry.catalogVersion().equals(catalogVersion)
+                    || entry.expiresAt() <= now || !candidate.numbers().equals(numbers)) {
+                continue;
+            }
+            double similarity = cosine(vector, candidate.vector());
+            if (similarity >= bestSimilarity) {
+                bestSimilarity = similarity;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private static CachedChat cachedChat(DiskEntry entry) {
+        return new CachedChat(entry, embed(entry.query()), numbers(entry.query()));
+    }
+
+    /**
+     * Local embedding: word and character trigram features hashed into a unit vector
+     */
+    private static float[] embed(String text) {
+        float[] vector = new float[VECTOR_DIMENSIONS];
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                vector[Math.floorMod(word.hashCode(), VECTOR_DIMENSIONS)] += 2;
+            }
+        }
+        String padded = " " + text + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            vector[Math.floorMod(padded.substring(i, i + 3).hashCode() * 31 + 7, VECTOR_DIMENSIONS)] += 1;
+        }
+
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    private static List<String> numbers(String text) {
+        List<String> numbers = new ArrayList<>();
+        Matcher matcher = NUMBER.matcher(text);
+        while (matcher.find()) {
+            numbers.add(matcher.group());
+        }
+        return numbers;
+    }
+
+    private Path diskFile(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return diskPath.resolve(HexFormat.of().formatHex(digest) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CachedChat readFromDisk(String key) {
+        Path file = diskFile(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            DiskEntry entry = objectMapper.readValue(file.toFile(), DiskEntry.class);
+            if (!entry.key().equals(key) || entry.expiresAt() <= System.currentTimeMillis()) {
+                diskWriter.execute(() -> removeFromDisk(file));
+                return null;
+            }
+            // Touch the file so disk trimming keeps recently used entries
+            diskWriter.execute(() -> touch(file));
+            return cachedChat(entry);
+        } catch (IOException e) {
+            logger.warn("Unreadable chat cache file {}: {}", file, e.getMessage());
+            diskWriter.execute(() -> removeFromDisk(file));
+            return null;
+        }
+    }
+
+    private void writeToDisk(DiskEntry entry) {
+        Path file = diskFile(entry.key());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(diskPath);
+            long previousSize = Files.exists(file) ? Files.size(file) : 0;
+            objectMapper.writeValue(temp.toFile(), entry);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(Files.size(file) - previousSize) > diskMaxBytes) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write chat cache file {}: {}", file, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Delete least recently used files until the disk tier is back under 90% of its limit
+     */
+    private void trimDisk() {
+        List<Path> files = new ArrayList<>(diskFiles());
+        files.sort(Comparator.comparing(ChatResponseCache::lastModified));
+        long target = diskMaxBytes * 9 / 10;
+        int removed = 0;
+        for (Path file : files) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            removeFromDisk(file);
+            removed++;
+        }
+        logger.debug("Trimmed {} chat cache files, {} bytes on disk", removed, diskBytes.get());
+    }
+
+    /**
+     * Recompute the disk size, drop expired and unreadable files, and warm the
+     * memory tier with the most recent entries
+     */
+    private void loadFromDisk() {
+        long now = System.currentTimeMillis();
+        List<DiskEntry> entries = new ArrayList<>();
+        long bytes = 0;
+        for (Path file : diskFiles()) {
+            try {
+                DiskEntry entry = objectMapper.readValue(file.toFile(), DiskEntry.class);
+                if (entry.expiresAt() <= now) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                bytes += Files.size(file);
+                if (entry.model().equals(model)) {
+                    entries.add(entry);
+                }
+            } catch (IOException e) {
+                deleteQuietly(file);
+            }
+        }
+        diskBytes.set(bytes);
+
+        entries.sort(Comparator.comparingLong(DiskEntry::createdAt).reversed());
+        long loadedBytes = 0;
+        int loaded = 0;
+        for (DiskEntry entry : entries) {
+            CachedChat cached = cachedChat(entry);
+            loadedBytes += cached.weight();
+            if (loadedBytes > maxBytes) {
+                break;
+            }
+            cache.asMap().putIfAbsent(entry.key(), cached);
+            loaded++;
+        }
+        logger.info("Chat cache loaded {} of {} entries from {} ({} bytes on disk)",
+                loaded, entries.size(), diskPath, bytes);
+        if (bytes > diskMaxBytes) {
+            trimDisk();
+        }
+    }
+
+    private List<Path> diskFiles() {
+        if (!Files.isDirectory(diskPath)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(diskPath)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".json")).toList();
+        } catch (IOException e) {
+            logger.warn("Failed to list chat cache directory {}: {}", diskPath, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void removeFromDisk(Path file) {
+        try {
+            long size = Files.size(file);
+            if (Files.deleteIfExists(file)) {
+                diskBytes.addAndGet(-size);
+            }
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // Trimmed in the meantime
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+
+    private Counter lookupCounter(String result) {
+        return Counter.builder("chat.cache.lookups")
+                .description("Chat response cache lookups by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
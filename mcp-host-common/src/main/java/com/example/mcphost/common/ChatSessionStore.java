@@ -0,0 +1,507 @@
+package com.example.mcphost.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Conversation history for /api/chat requests that carry a session ID.
+ *
+ * Sessions are kept in memory up to chat.sessions.max-sessions, evicting the
+ * least recently used one; with chat.sessions.spill.enabled an evicted session
+ * is written to disk and loaded back when its ID is used again.
+ *
+ * History is held to chat.sessions.max-history-tokens: once it grows past the
+ * budget, all but the last chat.sessions.keep-recent-turns turns are folded
+ * into a running summary (by the chat model, or by truncating each turn), so
+ * the prompt stays about the same size however long the conversation gets.
+ * Compaction runs in the background after the answer has been returned.
+ */
+@Component
+public class ChatSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatSessionStore.class);
+
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    /**
+     * Characters of a turn kept by the fallback summary
+     */
+    private static final int EXTRACT_CHARS = 200;
+
+    @Autowired(required = false)
+    private ChatModel chatModel;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${chat.sessions.max-sessions:1000}")
+    private int maxSessions;
+
+    @Value("${chat.sessions.max-history-tokens:2000}")
+    private int maxHistoryTokens;
+
+    @Value("${chat.sessions.keep-recent-turns:4}")
+    private int keepRecentTurns;
+
+    @Value("${chat.sessions.summarize-with-model:true}")
+    private boolean summarizeWithModel;
+
+    @Value("${chat.sessions.spill.enabled:false}")
+    private boolean spillEnabled;
+
+    @Value("${chat.sessions.spill.directory:./chat-sessions}")
+    private String spillDirectory;
+
+    @Value("${chat.sessions.spill.max-age:24h}")
+    private Duration spillMaxAge;
+
+    private Map<String, ChatSession> sessions;
+    private Path spillPath;
+    private ExecutorService compactor;
+    private Counter evictions;
+    private Counter spills;
+    private Counter reloads;
+    private Counter compactions;
+    private DistributionSummary historyTokens;
+
+    /**
+     * One question and the model's answer
+     */
+    public record Turn(String user, String assistant, long timestamp) {
+    }
+
+    /**
+     * On-disk form of a session
+     */
+    private record SpilledSession(String id, String summary, List<Turn> turns, long createdAt, long compactions) {
+    }
+
+    /**
+     * A conversation. Its fields are guarded by its lock.
+     */
+    public static class ChatSession {
+
+        private final String id;
+        private final long createdAt;
+        private final List<Turn> turns = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private String summary;
+        private long compactions;
+        private boolean compacting;
+
+        ChatSession(String id, long createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+
+        public String id() {
+            return id;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ChatSession> eldest) {
+                if (size() <= maxSessions) {
+                    return false;
+                }
+                evictions.increment();
+                if (spillPath != null) {
+                    spill(eldest.getValue());
+                }
+                return true;
+            }
+        };
+        compactor = Executors.newVirtualThreadPerTaskExecutor();
+
+        evictions = Counter.builder("chat.sessions.evictions")
+                .description("Chat sessions evicted from memory")
+                .register(meterRegistry);
+        spills = Counter.builder("chat.sessions.spills")
+                .description("Evicted chat sessions written to disk")
+                .register(meterRegistry);
+        reloads = Counter.builder("chat.sessions.reloads")
+                .description("Chat sessions loaded back from disk")
+                .register(meterRegistry);
+        compactions = Counter.builder("chat.sessions.compactions")
+                .description("History compactions of chat sessions")
+                .register(meterRegistry);
+        historyTokens = DistributionSummary.builder("chat.sessions.history.tokens")
+                .description("Estimated tokens of conversation history sent with each prompt")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("chat.sessions.active", this, store -> store.size())
+                .description("Chat sessions held in memory")
+                .register(meterRegistry);
+
+        if (spillEnabled) {
+            spillPath = Paths.get(spillDirectory).toAbsolutePath().normalize();
+            removeExpiredSpills();
+        }
+        logger.info("Chat session store: max {} sessions, {} history tokens, spill {}",
+                maxSessions, maxHistoryTokens, spillPath != null ? spillPath : "off");
+    }
+
+    @PreDestroy
+    public void stop() {
+        compactor.shutdown();
+    }
+
+    /**
+     * Get the session with this ID, loading it from disk or starting a new one
+     */
+    public ChatSession open(String sessionId) {
+        if (sessionId == null || !SESSION_ID.matcher(sessionId).matches()) {
+            throw new IllegalArgumentException("sessionId must be 1-64 letters, digits, '-' or '_'");
+        }
+        synchronized (sessions) {
+            ChatSession session = sessions.get(sessionId);
+            if (session == null) {
+                session = spillPath != null ? unspill(sessionId) : null;
+                if (session == null) {
+                    session = new ChatSession(sessionId, System.currentTimeMillis());
+                }
+                sessions.put(sessionId, session);
+            }
+            return session;
+        }
+    }
+
+    /**
+     * Prompt messages for the next question: the summary of older turns, the
+     * recent turns verbatim, then the question itself
+     */
+    public List<Message> messages(ChatSession session, String query) {
+        List<Message> messages = new ArrayList<>();
+        session.lock.lock();
+        try {
+            if (session.summary != null) {
+                messages.add(new SystemMessage("Summary of the earlier conversation:\n" + session.summary));
+            }
+            for (Turn turn : session.turns) {
+                messages.add(new UserMessage(turn.user()));
+                messages.add(new AssistantMessage(turn.assistant()));
+            }
+            historyTokens.record(historyTokens(session));
+        } finally {
+            session.lock.unlock();
+        }
+        messages.add(new UserMessage(query));
+        return messages;
+    }
+
+    /**
+     * Append a completed turn and compact the history if it is over budget
+     */
+    public void record(ChatSession session, String query, String answer) {
+        session.lock.lock();
+        try {
+            session.turns.add(new Turn(query, answer != null ? answer : "", System.currentTimeMillis()));
+            if (!session.compacting && session.turns.size() > keepRecentTurns
+                    && historyTokens(session) > maxHistoryTokens) {
+                session.compacting = true;
+                compactor.execute(() -> compact(session));
+            }
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Summary, turns and token estimate of a session, or null if it does not exist
+     */
+    public Map<String, Object> describe(String sessionId) {
+        ChatSession session;
+        synchronized (sessions) {
+            session = sessions.get(sessionId);
+        }
+        if (session == null) {
+            return null;
+        }
+        session.lock.lock();
+        try {
+            Map<String, Object> description = new HashMap<>();
+            description.put("sessionId", session.id);
+            description.put("createdAt", Instant.ofEpochMilli(session.createdAt).toString());
+            description.put("summary", session.summary);
+            description.put("turns", List.copyOf(session.turns));
+            description.put("historyTokens", historyTokens(session));
+            description.put("maxHistoryTokens", maxHistoryTokens);
+            description.put("compactions", session.compactions);
+            return description;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Estimated history tokens of a session, for responses
+     */
+    public int historyTokens(ChatSession session) {
+        session.lock.lock();
+        try {
+            int tokens = session.summary != null ? estimateTokens(session.summary) : 0;
+            for (Turn turn : session.turns) {
+                tokens += estimateTokens(turn.user()) + estimateTokens(turn.assistant());
+            }
+            return tokens;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    /**
+     * Forget a session, in memory and on disk
+     */
+    public boolean delete(String sessionId) {
+        ChatSession removed;
+        synchronized (sessions) {
+            removed = sessions.remove(sessionId);
+        }
+        boolean spilled = false;
+        if (spillPath != null && SESSION_ID.matcher(sessionId).matches()) {
+            try {
+                spilled = Files.deleteIfExists(spillFile(sessionId));
+            } catch (IOException e) {
+                logger.warn("Failed to delete spilled session {}: {}", sessionId, e.getMessage());
+            }
+        }
+        return removed != null || spilled;
+    }
+
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", size());
+        stats.put("maxSessions", maxSessions);
+        stats.put("maxHistoryTokens", maxHistoryTokens);
+        stats.put("keepRecentTurns", keepRecentTurns);
+        stats.put("summarizeWithModel", summarizeWithModel && chatModel != null);
+        stats.put("evictions", (long) evictions.count());
+        stats.put("spills", (long) spills.count());
+        stats.put("reloads", (long) reloads.count());
+        stats.put("compactions", (long) compactions.count());
+        stats.put("spillDirectory", spillPath != null ? spillPath.toString() : null);
+        return stats;
+    }
+
+    /**
+     * Fold all but the most recent turns into the summary. The model call runs
+     * without holding the session lock; new turns are only ever appended, so
+     * the folded turns are still at the head of the list afterwards.
+     */
+    private void compact(ChatSession session) {
+        try {
+            String previousSummary;
+            List<Turn> folded;
+            session.lock.lock();
+            try {
+                int foldCount = session.turns.size() - keepRecentTurns;
+                if (foldCount <= 0) {
+                    return;
+                }
+                previousSummary = session.summary;
+                folded = List.copyOf(session.turns.subList(0, foldCount));
+            } finally {
+                session.lock.unlock();
+            }
+
+            String summary = summarize(previousSummary, folded);
+
+            session.lock.lock();
+            try {
+                session.turns.subList(0, folded.size()).clear();
+                session.summary = summary;
+                session.compactions++;
+            } finally {
+                session.lock.unlock();
+            }
+            compactions.increment();
+            logger.debug("Compacted {} turns of session {} into a {} token summary",
+                    folded.size(), session.id, estimateTokens(summary));
+        } catch (RuntimeException e) {
+            logger.warn("Compaction of session {} failed: {}", session.id, e.getMessage());
+        } finally {
+            session.lock.lock();
+            try {
+                session.compacting = false;
+            } finally {
+                session.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * New summary covering the previous one and the folded turns, within a
+     * quarter of the history budget
+     */
+    private String summarize(String previousSummary, List<Turn> folded) {
+        int summaryTokens = Math.max(64, maxHistoryTokens / 4);
+        if (summarizeWithModel && chatModel != null) {
+            try {
+                StringBuilder request = new StringBuilder();
+                request.append("Summarize this conversation in at most ").append(summaryTokens * 3 / 4)
+                        .append(" words. Keep names, numbers, file names, storage keys and decisions.\n\n");
+                if (previousSummary != null) {
+                    request.append("Earlier summary:\n").append(previousSummary).append("\n\n");
+                }
+                for (Turn turn : folded) {
+                    request.append("User: ").append(turn.user()).append('\n')
+                            .append("Assistant: ").append(turn.assistant()).append('\n');
+                }
+                String summary = chatModel.call(new Prompt(request.toString())).getResult().getOutput().getText();
+                if (summary != null && !summary.isBlank()) {
+                    return truncateToTokens(summary.trim(), summaryTokens);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Model summary failed, truncating turns instead: {}", e.getMessage());
+            }
+        }
+
+        StringBuilder summary = new StringBuilder();
+        if (previousSummary != null) {
+            summary.append(previousSummary).append('\n');
+        }
+        for (Turn turn : folded) {
+            summary.append("User asked: ").append(abbreviate(turn.user())).append('\n')
+                    .append("Assistant answered: ").append(abbreviate(turn.assistant())).append('\n');
+        }
+        // Over budget: drop the oldest lines first
+        String text = summary.toString().trim();
+        int maxChars = summaryTokens * 4;
+        if (text.length() > maxChars) {
+            text = text.substring(text.length() - maxChars);
+            int lineStart = text.indexOf('\n');
+            text = lineStart >= 0 ? text.substring(lineStart + 1) : text;
+        }
+        return text;
+    }
+
+    /**
+     * Rough token count: about four characters per token, plus message overhead
+     */
+    static int estimateTokens(String text) {
+        return text == null ? 0 : 4 + (text.length() + 3) / 4;
+    }
+
+    private static String truncateToTokens(String text, int tokens) {
+        int maxChars = tokens * 4;
+        return text.length() <= maxChars ? text : text.substring(0, maxChars);
+    }
+
+    private static String abbreviate(String text) {
+        String singleLine = text.replaceAll("\\s+", " ").trim();
+        return singleLine.length() <= EXTRACT_CHARS ? singleLine : singleLine.substring(0, EXTRACT_CHARS) + "...";
+    }
+
+    private Path spillFile(String sessionId) {
+        return spillPath.resolve(sessionId + ".json");
+    }
+
+    /**
+     * Write an evicted session to disk. Called with the session map locked.
+     */
+    private void spill(ChatSession session) {
+        SpilledSession spilled;
+        session.lock.lock();
+        try {
+            spilled = new SpilledSession(session.id, session.summary, List.copyOf(session.turns),
+                    session.createdAt, session.compactions);
+        } finally {
+            session.lock.unlock();
+        }
+        Path file = spillFile(session.id);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(spillPath);
+            objectMapper.writeValue(temp.toFile(), spilled);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            spills.increment();
+        } catch (IOException e) {
+            logger.warn("Failed to spill chat session {}: {}", session.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Load a spilled session and remove its file, or null if there is none
+     */
+    private ChatSession unspill(String sessionId) {
+        Path file = spillFile(sessionId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            SpilledSession spilled = objectMapper.readValue(file.toFile(), SpilledSession.class);
+            Files.deleteIfExists(file);
+            ChatSession session = new ChatSession(sessionId, spilled.createdAt());
+            session.summary = spilled.summary();
+            session.turns.addAll(spilled.turns());
+            session.compactions = spilled.compactions();
+            reloads.increment();
+            return session;
+        } catch (IOException e) {
+            logger.warn("Unreadable spilled chat session {}: {}", sessionId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void removeExpiredSpills() {
+        if (!Files.isDirectory(spillPath)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(spillMaxAge);
+        try (Stream<Path> files = Files.list(spillPath)) {
+            for (Path file : files.toList()) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to clean up spilled chat sessions in {}: {}", spillPath, e.getMessage());
+        }
+    }
+}
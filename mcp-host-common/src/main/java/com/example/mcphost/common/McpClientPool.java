@@ -0,0 +1,390 @@
+package com.example.mcphost.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Pool of MCP client sessions.
+ *
+ * Holds sessions-per-server sessions for every server the
+ * {@link McpSessionFactory} names and routes each call to the healthy session
+ * with the fewest in-flight requests on the server that offers the tool.
+ *
+ * All sessions are started in parallel at startup and warmed up with a few
+ * requests before they take traffic; the warm-up also records which tools
+ * each server offers. A background task pings every session and replaces the
+ * ones that stop responding; a failed call triggers an immediate check, so a
+ * broken session is replaced without waiting for the next round. Reconnects
+ * that keep failing back off exponentially.
+ */
+@Component
+public class McpClientPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpClientPool.class);
+
+    private static final long MAX_RESTART_BACKOFF_MILLIS = 60_000;
+
+    @Autowired
+    private McpSessionFactory sessionFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mcp.client.pool.sessions-per-server:4}")
+    private int sessionsPerServer;
+
+    @Value("${mcp.client.pool.health-check-interval-seconds:15}")
+    private long healthCheckIntervalSeconds;
+
+    @Value("${mcp.client.pool.warmup-requests:10}")
+    private int warmupRequests;
+
+    @Value("${mcp.client.pool.restart-backoff-millis:1000}")
+    private long restartBackoffMillis;
+
+    private final Map<String, List<PooledSession>> sessionsByServer = new LinkedHashMap<>();
+    private final List<PooledSession> sessions = new ArrayList<>();
+    private final Map<String, String> toolServers = new ConcurrentHashMap<>();
+    private final AtomicInteger nextStart = new AtomicInteger();
+    private ScheduledExecutorService healthChecker;
+    private Timer connectTimer;
+
+    @PostConstruct
+    public void start() {
+        connectTimer = Timer.builder("mcp.client.pool.connect")
+                .description("Time to start, initialize and warm up a pooled MCP session")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        for (String serverName : sessionFactory.serverNames()) {
+            List<PooledSession> serverSessions = new ArrayList<>();
+            for (int i = 0; i < sessionsPerServer; i++) {
+                serverSessions.add(new PooledSession(serverName, serverName + "-" + i, meterRegistry));
+            }
+            sessionsByServer.put(serverName, List.copyOf(serverSessions));
+            sessions.addAll(serverSessions);
+            Gauge.builder("mcp.client.pool.sessions.healthy", serverSessions,
+                            list -> list.stream().filter(session -> session.healthy).count())
+                    .description("Pooled MCP sessions that are connected and healthy")
+                    .tag("server", serverName)
+                    .register(meterRegistry);
+        }
+
+        healthChecker = Executors.newScheduledThreadPool(Math.max(2, sessions.size()), runnable -> {
+            Thread thread = new Thread(runnable, "mcp-pool-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Sessions start in parallel in the background so startup is not blocked
+        checkHealth();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalSeconds,
+                healthCheckIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("MCP client pool started with {} sessions for each of {}", sessionsPerServer, sessionsByServer.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        healthChecker.shutdownNow();
+        sessions.forEach(PooledSession::close);
+    }
+
+    /**
+     * Call an MCP tool on the least loaded session of the server that offers it
+     */
+    public McpSchema.CallToolResult callTool(String toolName, Map<String, Object> arguments) {
+        return execute(serverFor(toolName), client -> client.callTool(new McpSchema.CallToolRequest(toolName, arguments)));
+    }
+
+    /**
+     * Tools of every configured server, listed through the pool
+     */
+    public List<McpSchema.Tool> listTools() {
+        List<McpSchema.Tool> tools = new ArrayList<>();
+        for (String serverName : sessionsByServer.keySet()) {
+            McpSchema.ListToolsResult result = execute(serverName, McpSyncClient::listTools);
+            result.tools().forEach(tool -> toolServers.put(tool.name(), serverName));
+            tools.addAll(result.tools());
+        }
+        return tools;
+    }
+
+    /**
+     * Run an operation on the least loaded healthy session of a server.
+     * A session replaced by a health check between being picked and used is
+     * retried once on another session.
+     */
+    public <T> T execute(String serverName, Function<McpSyncClient, T> operation) {
+        PooledSession session = acquire(serverName, null);
+        McpSyncClient client = session.client;
+        if (client == null) {
+            session = acquire(serverName, session);
+            client = session.client;
+            if (client == null) {
+                throw new IllegalStateException("No healthy MCP sessions available for '" + serverName + "'");
+            }
+        }
+
+        session.inFlight.incrementAndGet();
+        try {
+            T result = operation.apply(client);
+            session.completed.incrementAndGet();
+            return result;
+        } catch (RuntimeException e) {
+            session.failures.incrementAndGet();
+            // The session may have dropped; check it now rather than at the next health round
+            scheduleCheck(session);
+            throw e;
+        } finally {
+            session.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Names of the servers the pool holds sessions for
+     */
+    public List<String> serverNames() {
+        return List.copyOf(sessionsByServer.keySet());
+    }
+
+    /**
+     * Whether at least one session is connected and healthy
+     */
+    public boolean isAvailable() {
+        return sessions.stream().anyMatch(session -> session.healthy);
+    }
+
+    /**
+     * Per-session statistics, including in-flight request counts
+     */
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (PooledSession session : sessions) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("session", session.id);
+            entry.put("server", session.serverName);
+            entry.put("healthy", session.healthy);
+            entry.put("inFlight", session.inFlight.get());
+            entry.put("completed", session.completed.get());
+            entry.put("failures", session.failures.get());
+            entry.put("reconnects", (long) session.reconnects.count());
+            entry.put("lastConnectMillis", session.lastConnectMillis);
+            stats.add(entry);
+        }
+        return stats;
+    }
+
+    /**
+     * Server offering the tool, as learned when sessions warm up.
+     * With a single server every tool goes to it.
+     */
+    private String serverFor(String toolName) {
+        String serverName = toolServers.get(toolName);
+        if (serverName != null) {
+            return serverName;
+        }
+        if (sessionsByServer.size() == 1) {
+            return sessionsByServer.keySet().iterator().next();
+        }
+        if (!isAvailable()) {
+            throw new IllegalStateException("No healthy MCP sessions available. Check the MCP server configuration.");
+        }
+        throw new IllegalArgumentException("No configured MCP server offers tool '" + toolName + "'");
+    }
+
+    /**
+     * Pick the healthy session of a server with the fewest outstanding requests.
+     * The scan starts at a rotating offset so ties are spread evenly.
+     */
+    private PooledSession acquire(String serverName, PooledSession exclude) {
+        List<PooledSession> candidates = sessionsByServer.get(serverName);
+        if (candidates == null) {
+            throw new IllegalArgumentException("Unknown MCP server '" + serverName + "'");
+        }
+        int size = candidates.size();
+        int start = Math.floorMod(nextStart.getAndIncrement(), Math.max(size, 1));
+
+        PooledSession best = null;
+        for (int i = 0; i < size; i++) {
+            PooledSession candidate = candidates.get((start + i) % size);
+            if (candidate != exclude && candidate.healthy
+                    && (best == null || candidate.inFlight.get() < best.inFlight.get())) {
+                best = candidate;
+            }
+        }
+
+        if (best == null) {
+            throw new IllegalStateException("No healthy MCP sessions available for '" + serverName
+                    + "'. Check the MCP server configuration.");
+        }
+        return best;
+    }
+
+    private void checkHealth() {
+        for (PooledSession session : sessions) {
+            scheduleCheck(session);
+        }
+    }
+
+    /**
+     * Check a session on the health executor, unless a check of it is already
+     * pending, so a session is never restarted twice at once
+     */
+    private void scheduleCheck(PooledSession session) {
+        if (!session.checking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            healthChecker.execute(() -> {
+                try {
+                    check(session);
+                } finally {
+                    session.checking.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Pool is shutting down
+            session.checking.set(false);
+        }
+    }
+
+    private void check(PooledSession session) {
+        try {
+            if (session.client == null) {
+                connect(session);
+                return;
+            }
+            session.client.ping();
+            session.healthy = true;
+        } catch (Exception e) {
+            logger.warn("MCP session '{}' failed health check: {}", session.id, e.getMessage());
+            session.close();
+            session.reconnects.increment();
+            connect(session);
+        }
+    }
+
+    /**
+     * Start and warm up a session. Sessions that keep failing to start are
+     * retried with exponential backoff instead of on every check.
+     */
+    private void connect(PooledSession session) {
+        if (System.currentTimeMillis() < session.nextConnectAttempt) {
+            return;
+        }
+        long start = System.nanoTime();
+        McpSyncClient client = null;
+        try {
+            client = sessionFactory.create(session.serverName, session.id);
+            warmUp(session.serverName, client);
+            session.client = client;
+            session.healthy = true;
+            session.consecutiveConnectFailures = 0;
+            session.lastConnectMillis = (System.nanoTime() - start) / 1_000_000;
+            connectTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("MCP session '{}' connected and warmed up in {} ms", session.id, session.lastConnectMillis);
+        } catch (Exception e) {
+            if (client != null) {
+                closeQuietly(session.id, client);
+            }
+            session.healthy = false;
+            int failures = ++session.consecutiveConnectFailures;
+            long backoff = Math.min(MAX_RESTART_BACKOFF_MILLIS, restartBackoffMillis << Math.min(failures - 1, 16));
+            session.nextConnectAttempt = System.currentTimeMillis() + backoff;
+            logger.warn("Could not connect MCP session '{}' (attempt {}), retrying in {} ms: {}",
+                    session.id, failures, backoff, e.getMessage());
+        }
+    }
+
+    /**
+     * Exercise the request path of a new session so its first real calls do not
+     * pay for class loading and JIT warm-up, and learn which tools the server offers
+     */
+    private void warmUp(String serverName, McpSyncClient client) {
+        McpSchema.ListToolsResult tools = client.listTools();
+        tools.tools().forEach(tool -> toolServers.put(tool.name(), serverName));
+        for (int i = 1; i < warmupRequests; i++) {
+            client.listTools();
+            client.ping();
+        }
+    }
+
+    private static void closeQuietly(String sessionId, McpSyncClient client) {
+        try {
+            client.closeGracefully();
+        } catch (Exception e) {
+            logger.debug("Error closing MCP session '{}': {}", sessionId, e.getMessage());
+        }
+    }
+
+    /**
+     * A single MCP session together with its load counters
+     */
+    private static class PooledSession {
+
+        private final String serverName;
+        private final String id;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicBoolean checking = new AtomicBoolean();
+        private final Counter reconnects;
+        private volatile McpSyncClient client;
+        private volatile boolean healthy;
+        private volatile long lastConnectMillis;
+        private volatile long nextConnectAttempt;
+        // Only touched by the check that holds the checking flag
+        private int consecutiveConnectFailures;
+
+        PooledSession(String serverName, String id, MeterRegistry meterRegistry) {
+            this.serverName = serverName;
+            this.id = id;
+            this.reconnects = Counter.builder("mcp.client.pool.restarts")
+                    .description("Pooled MCP sessions replaced after failing a health check")
+                    .tags("server", serverName, "session", id)
+                    .register(meterRegistry);
+            Gauge.builder("mcp.client.pool.in.flight", inFlight, AtomicInteger::get)
+                    .description("Requests in flight on a pooled MCP session")
+                    .tags("server", serverName, "session", id)
+                    .register(meterRegistry);
+            FunctionCounter.builder("mcp.client.pool.completed", completed, AtomicLong::get)
+                    .description("Requests completed by a pooled MCP session")
+                    .tags("server", serverName, "session", id)
+                    .register(meterRegistry);
+        }
+
+        void close() {
+            healthy = false;
+            McpSyncClient current = client;
+            client = null;
+            if (current != null) {
+                closeQuietly(id, current);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.mcphost.common;
+
+import io.modelcontextprotocol.client.McpSyncClient;
+
+import java.util.List;
+
+/**
+ * Opens the sessions held by {@link McpClientPool}.
+ * Each application implements it for the transports it supports.
+ */
+public interface McpSessionFactory {
+
+    /**
+     * Names of the MCP servers the pool holds sessions for
+     */
+    List<String> serverNames();
+
+    /**
+     * Open and initialize a new session to the named MCP server
+     */
+    McpSyncClient create(String serverName, String sessionId);
+}
@@ -0,0 +1,68 @@
+package com.example.mcphost.common;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tool callback that reports when the model starts and finishes a tool call,
+ * so streaming chat endpoints can show tool progress between tokens.
+ */
+public class ToolProgressCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    private final Consumer<Map<String, Object>> progress;
+
+    public ToolProgressCallback(ToolCallback delegate, Consumer<Map<String, Object>> progress) {
+        this.delegate = delegate;
+        this.progress = progress;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String toolName = delegate.getToolDefinition().name();
+        Map<String, Object> started = new HashMap<>();
+        started.put("phase", "start");
+        started.put("tool", toolName);
+        started.put("arguments", toolInput);
+        progress.accept(started);
+
+        long start = System.nanoTime();
+        Map<String, Object> finished = new HashMap<>();
+        finished.put("phase", "end");
+        finished.put("tool", toolName);
+        try {
+            String result = toolContext != null ? delegate.call(toolInput, toolContext) : delegate.call(toolInput);
+            finished.put("status", "success");
+            finished.put("resultLength", result != null ? result.length() : 0);
+            return result;
+        } catch (RuntimeException e) {
+            finished.put("status", "failed");
+            finished.put("message", e.getMessage());
+            throw e;
+        } finally {
+            finished.put("millis", (System.nanoTime() - start) / 1_000_000);
+            progress.accept(finished);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.mcphost.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatResponseCacheTest {
+
+    private AnnotationConfigApplicationContext context;
+    private ChatResponseCache cache;
+
+    @BeforeEach
+    void start() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("chat.cache.disk.enabled", "false")
+                .withProperty("chat.cache.tool-ttl.currentTime", "0s");
+        // Boot's converters, so "1h" binds to a Duration as it does in the apps
+        ApplicationConversionService conversionService = new ApplicationConversionService();
+        environment.setConversionService(conversionService);
+        context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment);
+        context.getBeanFactory().setConversionService(conversionService);
+        context.registerBean(ObjectMapper.class);
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(ChatResponseCache.class);
+        context.refresh();
+        cache = context.getBean(ChatResponseCache.class);
+    }
+
+    @AfterEach
+    void stop() {
+        context.close();
+    }
+
+    @Test
+    void hitFollowsMiss() {
+        assertTrue(cache.lookup("What is 25 times 4?", "v1").isEmpty());
+
+        cache.put("What is 25 times 4?", "v1", "100", List.of("multiply"));
+        Optional<ChatResponseCache.Hit> hit = cache.lookup("What is 25 times 4?", "v1");
+
+        assertTrue(hit.isPresent());
+        assertEquals("100", hit.get().response());
+        assertEquals("exact", hit.get().match());
+        assertEquals(List.of("multiply"), hit.get().tools());
+        Map<String, Object> stats = cache.stats();
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(1L, stats.get("exactHits"));
+    }
+
+    @Test
+    void keyIsNormalizedQueryAndCatalogVersion() {
+        cache.put("What is 25 times 4?", "v1", "100", List.of());
+
+        // Case, spacing and trailing punctuation do not change the key
+        assertEquals("what is 25 times 4", ChatResponseCache.normalize("  What IS 25   times 4?! "));
+        assertTrue(cache.lookup("  what IS 25   times 4 ", "v1").isPresent());
+        // A different tool catalog or question does
+        assertTrue(cache.lookup("What is 25 times 4?", "v2").isEmpty());
+        assertTrue(cache.lookup("What is 25 times 5?", "v1").isEmpty());
+    }
+
+    @Test
+    void answersFromWriteOrZeroTtlToolsAreNotCached() {
+        cache.put("Store 5 under k", "v1", "Stored", List.of("store"));
+        cache.put("What time is it?", "v1", "Noon", List.of("currentTime"));
+
+        assertTrue(cache.lookup("Store 5 under k", "v1").isEmpty());
+        assertTrue(cache.lookup("What time is it?", "v1").isEmpty());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mcphost.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatSessionStoreTest {
+
+    private static final int MAX_HISTORY_TOKENS = 400;
+    private static final int KEEP_RECENT_TURNS = 2;
+
+    private AnnotationConfigApplicationContext context;
+    private ChatSessionStore store;
+
+    @BeforeEach
+    void start() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("chat.sessions.max-history-tokens", String.valueOf(MAX_HISTORY_TOKENS))
+                .withProperty("chat.sessions.keep-recent-turns", String.valueOf(KEEP_RECENT_TURNS));
+        // Boot's converters, so "1h" binds to a Duration as it does in the apps
+        ApplicationConversionService conversionService = new ApplicationConversionService();
+        environment.setConversionService(conversionService);
+        context = new AnnotationConfigApplicationContext();
+        context.setEnvironment(environment);
+        context.getBeanFactory().setConversionService(conversionService);
+        context.registerBean(ObjectMapper.class);
+        context.registerBean(SimpleMeterRegistry.class);
+        context.register(ChatSessionStore.class);
+        context.refresh();
+        store = context.getBean(ChatSessionStore.class);
+    }
+
+    @AfterEach
+    void stop() {
+        context.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactionKeepsNewestTurnsWithinBudget() throws InterruptedException {
+        ChatSessionStore.ChatSession session = store.open("s1");
+        for (int i = 0; i < 20; i++) {
+            store.record(session, "Question " + i + " " + "x".repeat(60), "Answer " + i + " " + "y".repeat(60));
+            awaitCompaction("s1");
+        }
+
+        Map<String, Object> description = store.describe("s1");
+        List<ChatSessionStore.Turn> turns = (List<ChatSessionStore.Turn>) description.get("turns");
+        // Older turns were folded away; the rest are the newest ones, in order
+        assertTrue(turns.size() >= KEEP_RECENT_TURNS && turns.size() < 20);
+        for (int i = 0; i < turns.size(); i++) {
+            assertTrue(turns.get(i).user().startsWith("Question " + (20 - turns.size() + i) + " "));
+        }
+        assertNotNull(description.get("summary"));
+        assertTrue((long) description.get("compactions") > 0);
+        assertTrue((int) description.get("historyTokens") <= MAX_HISTORY_TOKENS);
+
+        // The summary goes first and the new question last
+        List<Message> messages = store.messages(session, "Next question");
+        assertEquals(2 + 2 * turns.size(), messages.size());
+        assertInstanceOf(SystemMessage.class, messages.get(0));
+        assertInstanceOf(UserMessage.class, messages.get(messages.size() - 1));
+        assertEquals("Next question", messages.get(messages.size() - 1).getText());
+    }
+
+    @Test
+    void rejectsInvalidSessionIds() {
+        assertThrows(IllegalArgumentException.class, () -> store.open("../etc"));
+    }
+
+    /**
+     * Wait until a compaction started by the last turn has folded the history
+     */
+    @SuppressWarnings("unchecked")
+    private void awaitCompaction(String sessionId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> description = store.describe(sessionId);
+            if ((int) description.get("historyTokens") <= MAX_HISTORY_TOKENS
+                    || ((List<ChatSessionStore.Turn>) description.get("turns")).size() <= KEEP_RECENT_TURNS) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,17 +1,35 @@
 package com.example.mcphost;
 
+import com.example.mcphost.common.ChatResponseCache;
+import com.example.mcphost.common.McpClientPool;
+import com.example.mcphost.common.ChatSessionStore;
+import com.example.mcphost.common.ToolProgressCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.tool.ToolCallback;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Chat controller for MCP Host with OpenAI integration.
@@ -31,10 +49,19 @@ public class ChatController {
     private List<String> mcpFunctionNames;
 
     @Autowired(required = false)
-    private List<io.modelcontextprotocol.client.McpSyncClient> mcpSyncClients;
+    private McpClientPool mcpClientPool;
 
     @Autowired(required = false)
-    private org.springframework.ai.mcp.SyncMcpToolCallbackProvider mcpToolCallbacks;
+    private McpToolResultCache mcpToolResultCache;
+
+    @Autowired
+    private McpToolCatalog mcpToolCatalog;
+
+    @Autowired
+    private ChatResponseCache chatResponseCache;
+
+    @Autowired
+    private ChatSessionStore chatSessionStore;
 
     /**
      * Get host status.
@@ -52,16 +79,149 @@ public class ChatController {
     /**
      * Chat endpoint that processes queries using OpenAI with MCP tools.
      * Supports both GET with query parameter and POST with JSON body.
+     * With a sessionId the conversation history of that session is sent along.
      */
     @GetMapping("/chat")
-    public Map<String, Object> chatGet(@RequestParam(required = false) String query) {
-        return processChat(query);
+    public Map<String, Object> chatGet(@RequestParam(required = false) String query,
+                                       @RequestParam(required = false) String sessionId) {
+        return processChat(query, sessionId);
     }
 
     @PostMapping("/chat")
     public Map<String, Object> chatPost(@RequestBody(required = false) Map<String, String> request) {
         String query = request != null ? request.get("query") : null;
-        return processChat(query);
+        String sessionId = request != null ? request.get("sessionId") : null;
+        return processChat(query, sessionId);
+    }
+
+    /**
+     * History of a chat session; DELETE ends the session.
+     */
+    @GetMapping("/chat/sessions/{sessionId}")
+    public Map<String, Object> chatSession(@PathVariable String sessionId) {
+        Map<String, Object> session = chatSessionStore.describe(sessionId);
+        if (session == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Session not found");
+            response.put("sessionId", sessionId);
+            return response;
+        }
+        return session;
+    }
+
+    @DeleteMapping("/chat/sessions/{sessionId}")
+    public Map<String, Object> deleteChatSession(@PathVariable String sessionId) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("sessionId", sessionId);
+        response.put("deleted", chatSessionStore.delete(sessionId));
+        return response;
+    }
+
+    @GetMapping("/chat/sessions")
+    public Map<String, Object> chatSessionStats() {
+        return chatSessionStore.stats();
+    }
+
+    /**
+     * Streaming chat endpoint. Emits server-sent events as the model produces them:
+     * "token" events with text chunks, "tool" events when an MCP tool call starts
+     * and ends, then "done" (or "error"). The model call is cancelled if the client disconnects.
+     */
+    @GetMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> chatStreamGet(@RequestParam(required = false) String query) {
+        return streamChat(query);
+    }
+
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Map<String, Object>>> chatStreamPost(@RequestBody(required = false) Map<String, String> request) {
+        String query = request != null ? request.get("query") : null;
+        return streamChat(query);
+    }
+
+    /**
+     * Stream a chat completion, interleaving tool progress with the model's tokens.
+     */
+    private Flux<ServerSentEvent<Map<String, Object>>> streamChat(String query) {
+        if (chatModel == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "ChatModel not configured");
+            error.put("message", "OpenAI API key may be missing. Set SPRING_AI_OPENAI_API_KEY environment variable.");
+            return Flux.just(sseEvent("error", error));
+        }
+        if (query == null || query.trim().isEmpty()) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Query parameter is required");
+            error.put("example", "/api/chat/stream?query=What+is+25+times+4");
+            return Flux.just(sseEvent("error", error));
+        }
+
+        logger.info("Streaming chat query: {}", query);
+
+        // Tool calls run inside the model's stream; their progress is merged into the same event stream
+        Sinks.Many<ServerSentEvent<Map<String, Object>>> toolEvents = Sinks.many().unicast().onBackpressureBuffer();
+        Consumer<Map<String, Object>> toolProgress = progress ->
+                toolEvents.emitNext(sseEvent("tool", progress), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+
+        Prompt prompt;
+        if (mcpToolCatalog.isAvailable()) {
+            McpToolCatalog.Snapshot catalog;
+            try {
+                catalog = mcpToolCatalog.snapshot();
+            } catch (Exception e) {
+                logger.error("MCP tool catalog unavailable", e);
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", "Failed to load MCP tools");
+                error.put("message", e.getMessage());
+                return Flux.just(sseEvent("error", error));
+            }
+            prompt = new Prompt(query, withProgress(catalog, toolProgress));
+        } else {
+            prompt = new Prompt(query);
+        }
+
+        long start = System.currentTimeMillis();
+        AtomicInteger chunks = new AtomicInteger();
+        Flux<ServerSentEvent<Map<String, Object>>> tokens = chatModel.stream(prompt)
+                .mapNotNull(chatResponse -> chatResponse.getResult() != null && chatResponse.getResult().getOutput() != null
+                        ? chatResponse.getResult().getOutput().getText()
+                        : null)
+                .filter(text -> !text.isEmpty())
+                .map(text -> {
+                    chunks.incrementAndGet();
+                    return sseEvent("token", Map.of("text", text));
+                })
+                .concatWith(Mono.fromSupplier(() -> sseEvent("done", Map.of(
+                        "query", query,
+                        "model", "OpenAI GPT",
+                        "chunks", chunks.get(),
+                        "elapsedMillis", System.currentTimeMillis() - start))))
+                .onErrorResume(e -> {
+                    logger.error("Error streaming chat query", e);
+                    Map<String, Object> error = new HashMap<>();
+                    error.put("error", "Failed to process query");
+                    error.put("message", e.getMessage());
+                    return Flux.just(sseEvent("error", error));
+                })
+                .doFinally(signal -> toolEvents.tryEmitComplete());
+
+        return Flux.merge(tokens, toolEvents.asFlux())
+                .doOnCancel(() -> logger.info("Client disconnected, cancelled chat stream for: {}", query));
+    }
+
+    /**
+     * Copy of the catalog's prebuilt options whose tool callbacks report their progress
+     */
+    private static OpenAiChatOptions withProgress(McpToolCatalog.Snapshot catalog,
+                                                  Consumer<Map<String, Object>> progress) {
+        OpenAiChatOptions chatOptions = catalog.chatOptions().copy();
+        chatOptions.setToolCallbacks(catalog.toolCallbacks().stream()
+                .map(callback -> (ToolCallback) new ToolProgressCallback(callback, progress))
+                .toList());
+        return chatOptions;
+    }
+
+    private static ServerSentEvent<Map<String, Object>> sseEvent(String name, Map<String, Object> data) {
+        return ServerSentEvent.<Map<String, Object>>builder(data).event(name).build();
     }
 
     /**
@@ -72,7 +232,7 @@ public class ChatController {
     public Map<String, Object> demo(@RequestParam(required = false) String query) {
         if (query != null && !query.isEmpty()) {
             // If query parameter provided, process it with AI
-            return processChat(query);
+            return processChat(query, null);
         }
 
         // Otherwise return demo information
@@ -98,7 +258,7 @@ public class ChatController {
     /**
      * Process chat query using OpenAI with MCP tools.
      */
-    private Map<String, Object> processChat(String query) {
+    private Map<String, Object> processChat(String query, String sessionId) {
         Map<String, Object> response = new HashMap<>();
 
         if (chatModel == null) {
@@ -114,33 +274,94 @@ public class ChatController {
             return response;
         }
 
+        ChatSessionStore.ChatSession session = null;
+        if (sessionId != null) {
+            try {
+                session = chatSessionStore.open(sessionId);
+            } catch (IllegalArgumentException e) {
+                response.put("error", "Invalid sessionId");
+                response.put("message", e.getMessage());
+                return response;
+            }
+        }
+
         try {
             logger.info("Processing chat query: {}", query);
 
+            McpToolCatalog.Snapshot catalog = mcpToolCatalog.isAvailable() ? mcpToolCatalog.snapshot() : null;
+            String catalogVersion = catalog != null ? "v" + catalog.version() : "none";
+
+            // Answers depend on the conversation history, so only stateless queries are cached
+            boolean cacheable = session == null && chatResponseCache.isEnabled();
+            Optional<ChatResponseCache.Hit> cached = cacheable
+                    ? chatResponseCache.lookup(query, catalogVersion)
+                    : Optional.empty();
+            if (cached.isPresent()) {
+                ChatResponseCache.Hit hit = cached.get();
+                logger.info("Answered from the chat response cache ({} match)", hit.match());
+                response.put("query", query);
+                response.put("response", hit.response());
+                response.put("model", "OpenAI GPT");
+                response.put("cache", hit.match());
+                response.put("cachedAt", hit.cachedAt().toString());
+                response.put("mcpToolsConfigured", catalog != null);
+                response.put("timestamp", System.currentTimeMillis());
+                return response;
+            }
+
+            // The tools the model calls decide how long its answer may be cached
+            Set<String> toolsUsed = ConcurrentHashMap.newKeySet();
+            AtomicBoolean toolFailed = new AtomicBoolean();
+
+            List<Message> messages = session != null ? chatSessionStore.messages(session, query) : null;
+
             // Configure OpenAI options with MCP tool callbacks
             ChatResponse chatResponse;
-            if (mcpToolCallbacks != null) {
-                logger.info("MCP tool callbacks available, configuring for function calling");
-                OpenAiChatOptions chatOptions = OpenAiChatOptions.builder().build();
-                chatOptions.setToolCallbacks(java.util.Arrays.asList(mcpToolCallbacks.getToolCallbacks()));
+            if (catalog != null) {
+                logger.info("Using MCP tool catalog version {} ({} tools) for function calling",
+                        catalog.version(), catalog.toolCallbacks().size());
+                OpenAiChatOptions chatOptions;
+                if (cacheable) {
+                    chatOptions = withProgress(catalog, progress -> {
+                        if ("start".equals(progress.get("phase"))) {
+                            toolsUsed.add((String) progress.get("tool"));
+                        } else if ("failed".equals(progress.get("status"))) {
+                            toolFailed.set(true);
+                        }
+                    });
+                } else {
+                    // Prebuilt options carrying the cached MCP tool callbacks
+                    chatOptions = catalog.chatOptions();
+                }
 
                 // Call OpenAI ChatModel with MCP tools
-                Prompt prompt = new Prompt(query, chatOptions);
+                Prompt prompt = messages != null ? new Prompt(messages, chatOptions) : new Prompt(query, chatOptions);
                 chatResponse = chatModel.call(prompt);
             } else {
                 logger.warn("No MCP tool callbacks available");
                 // Call OpenAI ChatModel without MCP tools
-                Prompt prompt = new Prompt(query);
+                Prompt prompt = messages != null ? new Prompt(messages) : new Prompt(query);
                 chatResponse = chatModel.call(prompt);
             }
 
             String aiResponse = chatResponse.getResult().getOutput().getText();
+            if (session != null) {
+                chatSessionStore.record(session, query, aiResponse);
+                response.put("sessionId", session.id());
+                response.put("historyTokens", chatSessionStore.historyTokens(session));
+            } else if (cacheable && !toolFailed.get()) {
+                chatResponseCache.put(query, catalogVersion, aiResponse, toolsUsed);
+            }
 
             response.put("query", query);
             response.put("response", aiResponse);
             response.put("model", "OpenAI GPT");
-            response.put("mcpToolsConfigured", mcpToolCallbacks != null);
-            response.put("mcpSyncClientsAvailable", mcpSyncClients != null && !mcpSyncClients.isEmpty());
+            response.put("cache", cacheable ? "miss" : "off");
+            if (cacheable) {
+                response.put("toolsUsed", toolsUsed);
+            }
+            response.put("mcpToolsConfigured", mcpToolCatalog.isAvailable());
+            response.put("mcpSyncClientsAvailable", mcpClientPool != null && mcpClientPool.isAvailable());
             response.put("timestamp", System.currentTimeMillis());
 
             logger.info("AI response generated successfully");
@@ -163,18 +384,17 @@ public class ChatController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            if (mcpSyncClients == null || mcpSyncClients.isEmpty()) {
+            if (mcpClientPool == null || !mcpClientPool.isAvailable()) {
                 response.put("error", "No MCP clients available");
                 response.put("status", "unavailable");
                 return response;
             }
 
-            io.modelcontextprotocol.client.McpSyncClient client = mcpSyncClients.get(0);
-            io.modelcontextprotocol.spec.McpSchema.ListToolsResult toolsResult = client.listTools();
+            List<io.modelcontextprotocol.spec.McpSchema.Tool> tools = mcpClientPool.listTools();
 
             response.put("status", "success");
-            response.put("toolCount", toolsResult.tools().size());
-            response.put("tools", toolsResult.tools().stream()
+            response.put("toolCount", tools.size());
+            response.put("tools", tools.stream()
                     .map(tool -> Map.of(
                             "name", tool.name(),
                             "description", tool.description() != null ? tool.description() : "No description"
@@ -192,6 +412,43 @@ public class ChatController {
         return response;
     }
 
+    /**
+     * Chat response cache statistics; DELETE empties the cache.
+     */
+    @GetMapping("/chat/cache")
+    public Map<String, Object> chatCacheStats() {
+        return chatResponseCache.stats();
+    }
+
+    @DeleteMapping("/chat/cache")
+    public Map<String, Object> clearChatCache() {
+        chatResponseCache.clear();
+        return chatResponseCache.stats();
+    }
+
+    /**
+     * Cached tool catalog used for chat requests: version, tools and staleness.
+     * POST refreshes it immediately.
+     */
+    @GetMapping("/tool-catalog")
+    public Map<String, Object> toolCatalog() {
+        return mcpToolCatalog.stats();
+    }
+
+    @PostMapping("/tool-catalog/refresh")
+    public Map<String, Object> refreshToolCatalog() {
+        try {
+            mcpToolCatalog.refresh();
+            return mcpToolCatalog.stats();
+        } catch (Exception e) {
+            logger.error("Error refreshing MCP tool catalog", e);
+            Map<String, Object> response = new HashMap<>(mcpToolCatalog.stats());
+            response.put("error", "Failed to refresh tool catalog");
+            response.put("message", e.getMessage());
+            return response;
+        }
+    }
+
     /**
      * Call an MCP tool directly.
      */
@@ -200,7 +457,7 @@ public class ChatController {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            if (mcpSyncClients == null || mcpSyncClients.isEmpty()) {
+            if (mcpClientPool == null || !mcpClientPool.isAvailable()) {
                 response.put("error", "No MCP clients available");
                 response.put("status", "unavailable");
                 return response;
@@ -217,10 +474,7 @@ public class ChatController {
 
             logger.info("Calling MCP tool: {} with arguments: {}", toolName, arguments);
 
-            io.modelcontextprotocol.client.McpSyncClient client = mcpSyncClients.get(0);
-            io.modelcontextprotocol.spec.McpSchema.CallToolResult result = client.callTool(
-                    new io.modelcontextprotocol.spec.McpSchema.CallToolRequest(toolName, arguments)
-            );
+            io.modelcontextprotocol.spec.McpSchema.CallToolResult result = mcpToolResultCache.callTool(toolName, arguments);
 
             response.put("status", "success");
             response.put("tool", toolName);
@@ -0,0 +1,160 @@
+package com.example.mcphost;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs a batch of MCP tool calls concurrently on virtual threads.
+ *
+ * The number of calls in flight is capped by a semaphore, results are
+ * returned in input order, and a failing call only fails its own entry.
+ */
+@Component
+public class McpBatchExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpBatchExecutor.class);
+
+    @Autowired
+    private McpToolResultCache mcpToolResultCache;
+
+    @Value("${mcp.batch.default-parallelism:16}")
+    private int defaultParallelism;
+
+    @Value("${mcp.batch.max-parallelism:64}")
+    private int maxParallelism;
+
+    @Value("${mcp.batch.max-items:1000}")
+    private int maxItems;
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    /**
+     * Resolve the requested parallelism against the configured default and cap
+     */
+    public int resolveParallelism(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return Math.min(defaultParallelism, maxParallelism);
+        }
+        return Math.min(requested, maxParallelism);
+    }
+
+    /**
+     * Execute every call and return one result entry per call, in input order
+     */
+    public List<Map<String, Object>> execute(List<Map<String, Object>> calls, int parallelism) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(calls.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < calls.size(); i++) {
+                int index = i;
+                Map<String, Object> call = calls.get(i);
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return executeOne(index, call);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>(calls.size());
+            for (int i = 0; i < futures.size(); i++) {
+                results.add(await(i, futures.get(i)));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Overall status of a batch: success, failed when every call failed, partial otherwise
+     */
+    public String status(List<Map<String, Object>> results) {
+        long failed = failedCount(results);
+        return failed == 0 ? "success" : (failed == results.size() ? "failed" : "partial");
+    }
+
+    public long failedCount(List<Map<String, Object>> results) {
+        return results.stream().filter(result -> "failed".equals(result.get("status"))).count();
+    }
+
+    private Map<String, Object> await(int index, Future<Map<String, Object>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure(index, null, "Interrupted", 0);
+        } catch (ExecutionException e) {
+            return failure(index, null, e.getCause().getMessage(), 0);
+        }
+    }
+
+    private Map<String, Object> executeOne(int index, Map<String, Object> call) {
+        String toolName = call != null ? (String) call.get("toolName") : null;
+        if (toolName == null) {
+            return failure(index, null, "toolName is required", 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> arguments = (Map<String, Object>) call.getOrDefault("arguments", new HashMap<>());
+
+        long start = System.nanoTime();
+        try {
+            McpSchema.CallToolResult result = mcpToolResultCache.callTool(toolName, arguments);
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+
+            List<String> content = result.content().stream()
+                    .map(item -> {
+                        if (item instanceof McpSchema.TextContent textContent) {
+                            return textContent.text();
+                        }
+                        return item.toString();
+                    })
+                    .toList();
+
+            if (Boolean.TRUE.equals(result.isError())) {
+                return failure(index, toolName, String.join("\n", content), latencyMs);
+            }
+
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("index", index);
+            entry.put("tool", toolName);
+            entry.put("status", "success");
+            entry.put("result", content);
+            entry.put("latencyMs", latencyMs);
+            return entry;
+
+        } catch (Exception e) {
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+            logger.warn("Batch item {} ('{}') failed: {}", index, toolName, e.getMessage());
+            return failure(index, toolName, e.getMessage(), latencyMs);
+        }
+    }
+
+    private Map<String, Object> failure(int index, String toolName, String message, long latencyMs) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("index", index);
+        entry.put("tool", toolName);
+        entry.put("status", "failed");
+        entry.put("error", message);
+        entry.put("latencyMs", latencyMs);
+        return entry;
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.mcphost;
 
+import com.example.mcphost.common.McpClientPool;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -12,7 +25,7 @@ import java.util.Map;
  * Controller that demonstrates direct MCP Server tool calls.
  *
  * This controller provides REST endpoints that call MCP Server tools directly
- * via the McpSyncClient. These endpoints demonstrate:
+ * via the pooled McpSyncClient sessions. These endpoints demonstrate:
  * - File operations (read, write, list, delete, etc.)
  * - Data storage operations (store, retrieve, delete, etc.)
  * - Calculator operations
@@ -24,17 +37,34 @@ public class McpServicesController {
 
     private static final Logger logger = LoggerFactory.getLogger(McpServicesController.class);
 
+    /**
+     * Largest range the readFileRange and writeFileChunk tools transfer per call
+     */
+    private static final int MAX_CHUNK_BYTES = 1 << 20;
+
+    @Autowired(required = false)
+    private McpClientPool mcpClientPool;
+
+    @Autowired
+    private McpToolMetrics mcpToolMetrics;
+
     @Autowired(required = false)
-    private java.util.List<io.modelcontextprotocol.client.McpSyncClient> mcpSyncClients;
+    private McpBatchExecutor mcpBatchExecutor;
+
+    @Autowired(required = false)
+    private McpToolResultCache mcpToolResultCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     /**
      * Get the MCP client, or return error if not available
      */
     private Map<String, Object> getMcpClient() {
         Map<String, Object> response = new HashMap<>();
-        if (mcpSyncClients == null || mcpSyncClients.isEmpty()) {
+        if (mcpClientPool == null || !mcpClientPool.isAvailable()) {
             response.put("error", "No MCP clients available");
-            response.put("message", "MCP clients are not initialized. Spring AI 1.1.0-M2 creates MCP clients on-demand for ChatModel function calling, not as standalone beans.");
+            response.put("message", "No pooled MCP session is connected yet. Check that the MCP Server is running.");
             response.put("status", "unavailable");
         }
         return response;
@@ -52,10 +82,7 @@ public class McpServicesController {
         try {
             logger.info("Calling MCP tool: {} with arguments: {}", toolName, arguments);
 
-            io.modelcontextprotocol.client.McpSyncClient client = mcpSyncClients.get(0);
-            io.modelcontextprotocol.spec.McpSchema.CallToolResult result = client.callTool(
-                    new io.modelcontextprotocol.spec.McpSchema.CallToolRequest(toolName, arguments)
-            );
+            io.modelcontextprotocol.spec.McpSchema.CallToolResult result = mcpToolResultCache.callTool(toolName, arguments);
 
             response.put("status", "success");
             response.put("tool", toolName);
@@ -81,6 +108,55 @@ public class McpServicesController {
         }
     }
 
+    /**
+     * Arguments for the paginated listing tools, leaving out unset values
+     */
+    private Map<String, Object> pageArguments(String prefix, Integer limit, String cursor) {
+        Map<String, Object> args = new HashMap<>();
+        if (prefix != null) {
+            args.put("prefix", prefix);
+        }
+        if (limit != null) {
+            args.put("limit", limit);
+        }
+        if (cursor != null) {
+            args.put("cursor", cursor);
+        }
+        return args;
+    }
+
+    /**
+     * Read one range of a file through the readFileRange tool
+     */
+    private JsonNode readChunk(String filename, long offset, int length) throws IOException {
+        Map<String, Object> args = new HashMap<>();
+        args.put("filename", filename);
+        args.put("offset", offset);
+        args.put("length", length);
+        io.modelcontextprotocol.spec.McpSchema.CallToolResult result = mcpToolMetrics.record("readFileRange", args,
+                () -> mcpClientPool.callTool("readFileRange", args));
+        String text = result.content().stream()
+                .filter(content -> content instanceof io.modelcontextprotocol.spec.McpSchema.TextContent)
+                .map(content -> ((io.modelcontextprotocol.spec.McpSchema.TextContent) content).text())
+                .findFirst()
+                .orElse("");
+        if (Boolean.TRUE.equals(result.isError())) {
+            throw new IllegalArgumentException(text);
+        }
+        return objectMapper.readTree(text);
+    }
+
+    private Map<String, Object> chunkArguments(String filename, byte[] bytes, Long offset, boolean last) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("filename", filename);
+        args.put("data", Base64.getEncoder().encodeToString(bytes));
+        if (offset != null) {
+            args.put("offset", offset);
+        }
+        args.put("last", last);
+        return args;
+    }
+
     // ========== File Service Endpoints ==========
 
     @GetMapping("/files")
@@ -88,6 +164,13 @@ public class McpServicesController {
         return callMcpTool("listFiles", new HashMap<>());
     }
 
+    @GetMapping("/files/page")
+    public Map<String, Object> listFilesPage(@RequestParam(required = false) String prefix,
+                                             @RequestParam(required = false) Integer limit,
+                                             @RequestParam(required = false) String cursor) {
+        return callMcpTool("listFilesPage", pageArguments(prefix, limit, cursor));
+    }
+
     @GetMapping("/files/{filename}")
     public Map<String, Object> readFile(@PathVariable String filename) {
         Map<String, Object> args = new HashMap<>();
@@ -125,6 +208,101 @@ public class McpServicesController {
         return callMcpTool("getFileInfo", args);
     }
 
+    @GetMapping("/files/{filename}/range")
+    public Map<String, Object> readFileRange(@PathVariable String filename,
+                                             @RequestParam(defaultValue = "0") long offset,
+                                             @RequestParam(defaultValue = "65536") int length,
+                                             @RequestParam(required = false) String encoding) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("filename", filename);
+        args.put("offset", offset);
+        args.put("length", length);
+        if (encoding != null) {
+            args.put("encoding", encoding);
+        }
+        return callMcpTool("readFileRange", args);
+    }
+
+    /**
+     * Stream a file of any size to the caller, fetching one range at a time
+     * so memory use does not depend on the file size
+     */
+    @GetMapping("/files/{filename}/download")
+    public ResponseEntity<StreamingResponseBody> downloadFile(@PathVariable String filename,
+                                                              @RequestParam(defaultValue = "262144") int chunkSize) {
+        if (getMcpClient().containsKey("error")) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        int length = Math.max(1, Math.min(chunkSize, MAX_CHUNK_BYTES));
+
+        // Fetch the first range up front so a missing file is a 404 rather than a broken stream
+        JsonNode first;
+        try {
+            first = readChunk(filename, 0, length);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("Cannot download '{}': {}", filename, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            JsonNode chunk = first;
+            while (true) {
+                out.write(Base64.getDecoder().decode(chunk.get("data").asText()));
+                int read = chunk.get("length").asInt();
+                if (chunk.get("eof").asBoolean() || read == 0) {
+                    break;
+                }
+                chunk = readChunk(filename, chunk.get("offset").asLong() + read, length);
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    /**
+     * Upload one chunk of a resumable upload. After a failure, resume from the
+     * nextOffset of the last successful chunk.
+     */
+    @PutMapping(value = "/files/{filename}/chunks", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> writeFileChunk(@PathVariable String filename,
+                                              @RequestParam(required = false) Long offset,
+                                              @RequestParam(defaultValue = "false") boolean last,
+                                              @RequestBody byte[] chunk) {
+        if (chunk.length > MAX_CHUNK_BYTES) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Chunk too large");
+            response.put("message", String.format("Chunks are limited to %d bytes", MAX_CHUNK_BYTES));
+            response.put("status", "failed");
+            return response;
+        }
+        return callMcpTool("writeFileChunk", chunkArguments(filename, chunk, offset, last));
+    }
+
+    /**
+     * Stream a request body of any size into a file, forwarding it one chunk at a time
+     */
+    @PutMapping(value = "/files/{filename}/upload", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Map<String, Object> uploadFile(@PathVariable String filename,
+                                          @RequestParam(defaultValue = "262144") int chunkSize,
+                                          InputStream body) throws IOException {
+        byte[] buffer = new byte[Math.max(1, Math.min(chunkSize, MAX_CHUNK_BYTES))];
+        long offset = 0;
+        while (true) {
+            int read = body.readNBytes(buffer, 0, buffer.length);
+            boolean last = read < buffer.length;
+            byte[] chunk = read == buffer.length ? buffer : Arrays.copyOf(buffer, read);
+            Map<String, Object> response = callMcpTool("writeFileChunk", chunkArguments(filename, chunk, offset, last));
+            if (response.containsKey("error") || last) {
+                return response;
+            }
+            offset += read;
+        }
+    }
+
     @GetMapping("/workspace")
     public Map<String, Object> getWorkspacePath() {
         return callMcpTool("getWorkspacePath", new HashMap<>());
@@ -132,6 +310,35 @@ public class McpServicesController {
 
     // ========== Data Storage Service Endpoints ==========
 
+    @GetMapping("/storage/page")
+    public Map<String, Object> listKeysPage(@RequestParam(required = false) String prefix,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor) {
+        return callMcpTool("listKeysPage", pageArguments(prefix, limit, cursor));
+    }
+
+    @GetMapping("/storage/scan/prefix")
+    public Map<String, Object> scanPrefix(@RequestParam String prefix,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String cursor) {
+        return callMcpTool("scanPrefix", pageArguments(prefix, limit, cursor));
+    }
+
+    @GetMapping("/storage/scan/range")
+    public Map<String, Object> scanRange(@RequestParam(required = false) String from,
+                                         @RequestParam(required = false) String to,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) String cursor) {
+        Map<String, Object> args = pageArguments(null, limit, cursor);
+        if (from != null) {
+            args.put("from", from);
+        }
+        if (to != null) {
+            args.put("to", to);
+        }
+        return callMcpTool("scanRange", args);
+    }
+
     @PostMapping("/storage/{key}")
     public Map<String, Object> store(@PathVariable String key, @RequestBody Map<String, String> body) {
         Map<String, Object> args = new HashMap<>();
@@ -210,6 +417,68 @@ public class McpServicesController {
         return callMcpTool("getCurrentTime", new HashMap<>());
     }
 
+    // ========== Batch Endpoint ==========
+
+    /**
+     * Run many tool calls concurrently and return per-item results in input order.
+     * Body: [{"toolName": "...", "arguments": {...}}, ...]
+     */
+    @PostMapping("/batch")
+    public Map<String, Object> batch(@RequestBody java.util.List<Map<String, Object>> calls,
+                                     @RequestParam(required = false) Integer parallelism) {
+        Map<String, Object> response = getMcpClient();
+        if (response.containsKey("error")) {
+            return response;
+        }
+
+        if (calls.size() > mcpBatchExecutor.getMaxItems()) {
+            response.put("error", "Batch too large");
+            response.put("message", "At most " + mcpBatchExecutor.getMaxItems() + " calls are allowed per batch");
+            response.put("status", "failed");
+            return response;
+        }
+
+        int effectiveParallelism = mcpBatchExecutor.resolveParallelism(parallelism);
+        logger.info("Running batch of {} MCP tool calls with parallelism {}", calls.size(), effectiveParallelism);
+
+        long start = System.nanoTime();
+        java.util.List<Map<String, Object>> results = mcpBatchExecutor.execute(calls, effectiveParallelism);
+        long failed = mcpBatchExecutor.failedCount(results);
+
+        response.put("status", mcpBatchExecutor.status(results));
+        response.put("total", results.size());
+        response.put("succeeded", results.size() - failed);
+        response.put("failed", failed);
+        response.put("parallelism", effectiveParallelism);
+        response.put("latencyMs", (System.nanoTime() - start) / 1_000_000);
+        response.put("results", results);
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    // ========== Pool Endpoint ==========
+
+    @GetMapping("/pool")
+    public Map<String, Object> poolStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("available", mcpClientPool != null && mcpClientPool.isAvailable());
+        response.put("sessions", mcpClientPool != null ? mcpClientPool.stats() : java.util.List.of());
+        return response;
+    }
+
+    // ========== Cache Endpoints ==========
+
+    @GetMapping("/cache")
+    public Map<String, Object> cacheStats() {
+        return mcpToolResultCache.stats();
+    }
+
+    @DeleteMapping("/cache")
+    public Map<String, Object> clearCache() {
+        mcpToolResultCache.clear();
+        return mcpToolResultCache.stats();
+    }
+
     // ========== Information Endpoint ==========
 
     @GetMapping("/info")
@@ -217,17 +486,22 @@ public class McpServicesController {
         Map<String, Object> response = new HashMap<>();
         response.put("service", "MCP Services Controller");
         response.put("description", "REST endpoints for MCP Server tools");
-        response.put("mcpClientsAvailable", mcpSyncClients != null && !mcpSyncClients.isEmpty());
+        response.put("mcpClientsAvailable", mcpClientPool != null && mcpClientPool.isAvailable());
         response.put("note", "In Spring AI 1.1.0-M2, MCP clients are created on-demand for ChatModel function calling");
 
         Map<String, String[]> endpoints = new HashMap<>();
         endpoints.put("files", new String[]{
                 "GET /api/mcp/files - List all files",
+                "GET /api/mcp/files/page?prefix=&limit=100&cursor= - List files one sorted page at a time",
                 "GET /api/mcp/files/{filename} - Read a file",
                 "POST /api/mcp/files/{filename} - Write to a file",
                 "PUT /api/mcp/files/{filename}/append - Append to a file",
                 "DELETE /api/mcp/files/{filename} - Delete a file",
                 "GET /api/mcp/files/{filename}/info - Get file info",
+                "GET /api/mcp/files/{filename}/range?offset=0&length=65536 - Read a byte range",
+                "GET /api/mcp/files/{filename}/download - Stream a file of any size",
+                "PUT /api/mcp/files/{filename}/chunks?offset=&last=false - Upload one chunk of a resumable upload",
+                "PUT /api/mcp/files/{filename}/upload - Stream a request body into a file",
                 "GET /api/mcp/workspace - Get workspace path"
         });
         endpoints.put("storage", new String[]{
@@ -235,6 +509,9 @@ public class McpServicesController {
                 "GET /api/mcp/storage/{key} - Retrieve a value",
                 "DELETE /api/mcp/storage/{key} - Delete a value",
                 "GET /api/mcp/storage - List all keys",
+                "GET /api/mcp/storage/page?prefix=&limit=100&cursor= - List keys one sorted page at a time",
+                "GET /api/mcp/storage/scan/prefix?prefix=&limit=100&cursor= - Sorted keys under a prefix",
+                "GET /api/mcp/storage/scan/range?from=&to=&limit=100&cursor= - Sorted keys in [from, to)",
                 "DELETE /api/mcp/storage - Clear all storage",
                 "GET /api/mcp/storage/count - Count entries"
         });
@@ -247,6 +524,16 @@ public class McpServicesController {
         endpoints.put("time", new String[]{
                 "GET /api/mcp/time - Get current time"
         });
+        endpoints.put("batch", new String[]{
+                "POST /api/mcp/batch?parallelism=16 - Run many tool calls concurrently"
+        });
+        endpoints.put("cache", new String[]{
+                "GET /api/mcp/cache - Tool result cache statistics",
+                "DELETE /api/mcp/cache - Clear the tool result cache"
+        });
+        endpoints.put("pool", new String[]{
+                "GET /api/mcp/pool - Per-session MCP pool statistics"
+        });
 
         response.put("endpoints", endpoints);
         return response;
@@ -0,0 +1,257 @@
+package com.example.mcphost;
+
+import com.example.mcphost.common.McpClientPool;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.openai.OpenAiChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cached catalog of the MCP tool callbacks offered to the chat model.
+ * The callbacks call their tools through the {@link McpToolResultCache} and
+ * the {@link McpClientPool}, so chat tool calls share cached results and
+ * invalidate them like direct tool calls.
+ *
+ * The catalog is loaded once at startup and then shared as an immutable
+ * snapshot, together with a prebuilt OpenAiChatOptions template, so chat
+ * requests no longer list the server's tools and build new options each time.
+ * It is reloaded when an MCP session receives a tools/list_changed
+ * notification and on a fixed interval as a fallback.
+ */
+@Component
+public class McpToolCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolCatalog.class);
+
+    private static final long INITIAL_LOAD_RETRY_SECONDS = 5;
+
+    @Autowired
+    private McpClientPool mcpClientPool;
+
+    @Autowired
+    private McpToolResultCache mcpToolResultCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mcp.tool-catalog.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private ScheduledExecutorService refresher;
+    private Timer refreshTimer;
+    private Timer refreshFailedTimer;
+
+    /**
+     * Immutable view of the tool catalog. The version only changes when the
+     * tool definitions do, so it can be used as part of a cache key.
+     */
+    public record Snapshot(List<ToolCallback> toolCallbacks, OpenAiChatOptions chatOptions,
+                           long version, String fingerprint, Instant refreshedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), null, 0, "", Instant.EPOCH);
+
+        public boolean isLoaded() {
+            return version > 0;
+        }
+    }
+
+    /**
+     * Published when an MCP server reports that its tool list has changed
+     */
+    public record ToolsChangedEvent(String serverName) {
+    }
+
+    @PostConstruct
+    public void start() {
+        refreshTimer = refreshTimer("success");
+        refreshFailedTimer = refreshTimer("failure");
+        Gauge.builder("mcp.tool.catalog.staleness", this, catalog -> catalog.staleness().toMillis() / 1000.0)
+                .description("Time since the MCP tool catalog was last refreshed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("mcp.tool.catalog.tools", this, catalog -> catalog.snapshot.toolCallbacks().size())
+                .description("Tools in the current MCP tool catalog")
+                .register(meterRegistry);
+        Gauge.builder("mcp.tool.catalog.version", this, catalog -> catalog.snapshot.version())
+                .description("Version of the current MCP tool catalog")
+                .register(meterRegistry);
+
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-tool-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // First load in the background so startup does not wait on the MCP server
+        long intervalMillis = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("MCP tool catalog started, refresh interval {}", refreshInterval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Current catalog. Loads it on the calling thread if the background load has not succeeded yet.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (!current.isLoaded() && isAvailable()) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Whether any MCP server is configured at all
+     */
+    public boolean isAvailable() {
+        return !mcpClientPool.serverNames().isEmpty();
+    }
+
+    /**
+     * Time since the last successful refresh
+     */
+    public Duration staleness() {
+        Snapshot current = snapshot;
+        return current.isLoaded() ? Duration.between(current.refreshedAt(), Instant.now()) : Duration.ZERO;
+    }
+
+    /**
+     * Reload the tool callbacks and publish a new snapshot.
+     * The version is bumped only when the tool definitions changed.
+     */
+    public synchronized Snapshot refresh() {
+        if (!isAvailable()) {
+            return snapshot;
+        }
+        long start = System.nanoTime();
+        try {
+            List<ToolCallback> toolCallbacks = mcpClientPool.listTools().stream()
+                    .map(tool -> (ToolCallback) new PooledToolCallback(tool, mcpToolResultCache::callTool))
+                    .toList();
+            String fingerprint = fingerprint(toolCallbacks);
+            Snapshot previous = snapshot;
+            Snapshot next;
+            if (previous.isLoaded() && previous.fingerprint().equals(fingerprint)) {
+                next = new Snapshot(previous.toolCallbacks(), previous.chatOptions(),
+                        previous.version(), fingerprint, Instant.now());
+            } else {
+                next = new Snapshot(toolCallbacks, chatOptions(toolCallbacks),
+                        previous.version() + 1, fingerprint, Instant.now());
+                logger.info("MCP tool catalog version {} loaded with {} tools", next.version(), toolCallbacks.size());
+            }
+            snapshot = next;
+            refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return next;
+        } catch (RuntimeException e) {
+            refreshFailedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Schedule a refresh; notifications arriving while one is pending are coalesced
+     */
+    @EventListener
+    public void onToolsChanged(ToolsChangedEvent event) {
+        logger.info("Tool list of MCP server '{}' changed, refreshing catalog", event.serverName());
+        if (refreshPending.compareAndSet(false, true)) {
+            refresher.execute(() -> {
+                refreshPending.set(false);
+                refreshQuietly();
+            });
+        }
+    }
+
+    /**
+     * Catalog details for the status endpoints
+     */
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", current.isLoaded());
+        stats.put("version", current.version());
+        stats.put("toolCount", current.toolCallbacks().size());
+        stats.put("tools", current.toolCallbacks().stream()
+                .map(callback -> callback.getToolDefinition().name())
+                .toList());
+        stats.put("refreshedAt", current.isLoaded() ? current.refreshedAt().toString() : null);
+        stats.put("stalenessSeconds", staleness().toSeconds());
+        stats.put("refreshInterval", refreshInterval.toString());
+        return stats;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("MCP tool catalog refresh failed, keeping version {}: {}",
+                    snapshot.version(), e.getMessage());
+            // Pooled sessions connect in the background, so the first load can run before any is ready
+            if (!snapshot.isLoaded() && refreshPending.compareAndSet(false, true)) {
+                refresher.schedule(() -> {
+                    refreshPending.set(false);
+                    refreshQuietly();
+                }, INITIAL_LOAD_RETRY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Options template shared by all chat requests. The chat model merges it into
+     * a new request object, so the template itself is never modified.
+     */
+    private static OpenAiChatOptions chatOptions(List<ToolCallback> toolCallbacks) {
+        OpenAiChatOptions chatOptions = OpenAiChatOptions.builder().build();
+        chatOptions.setToolCallbacks(toolCallbacks);
+        return chatOptions;
+    }
+
+    /**
+     * Identity of the tool definitions: names, descriptions and input schemas
+     */
+    private static String fingerprint(List<ToolCallback> toolCallbacks) {
+        StringBuilder definitions = new StringBuilder();
+        for (ToolCallback callback : toolCallbacks) {
+            ToolDefinition definition = callback.getToolDefinition();
+            definitions.append(definition.name()).append('\0')
+                    .append(definition.description()).append('\0')
+                    .append(definition.inputSchema()).append('\n');
+        }
+        return toolCallbacks.size() + ":" + Integer.toHexString(definitions.toString().hashCode());
+    }
+
+    private Timer refreshTimer(String outcome) {
+        return Timer.builder("mcp.tool.catalog.refresh")
+                .description("Time to reload the MCP tool catalog")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+}
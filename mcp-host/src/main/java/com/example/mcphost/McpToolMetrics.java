@@ -0,0 +1,136 @@
+package com.example.mcphost;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of MCP tool calls made by this client.
+ *
+ * Per tool: mcp.client.tool.calls (timer with percentiles, tagged by outcome
+ * success, error or exception), mcp.client.tool.argument.bytes,
+ * mcp.client.tool.response.bytes and the mcp.client.tool.in.flight gauge.
+ */
+@Component
+public class McpToolMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ToolMeters> meters = new ConcurrentHashMap<>();
+
+    public McpToolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run a blocking tool call and record it
+     */
+    public McpSchema.CallToolResult record(String toolName, Map<String, Object> arguments,
+                                           Supplier<McpSchema.CallToolResult> call) {
+        ToolMeters toolMeters = meters.computeIfAbsent(toolName, this::createMeters);
+        toolMeters.argumentBytes.record(estimateBytes(arguments));
+        toolMeters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            McpSchema.CallToolResult result = call.get();
+            toolMeters.recordResult(result, System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            toolMeters.exception.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            toolMeters.inFlight.decrementAndGet();
+        }
+    }
+
+    private ToolMeters createMeters(String toolName) {
+        AtomicInteger inFlight = meterRegistry.gauge("mcp.client.tool.in.flight", Tags.of("tool", toolName), new AtomicInteger());
+        return new ToolMeters(
+                callTimer(toolName, "success"),
+                callTimer(toolName, "error"),
+                callTimer(toolName, "exception"),
+                sizeSummary("mcp.client.tool.argument.bytes", "Approximate size of MCP tool arguments", toolName),
+                sizeSummary("mcp.client.tool.response.bytes", "Size of MCP tool result content", toolName),
+                inFlight);
+    }
+
+    private Timer callTimer(String toolName, String outcome) {
+        return Timer.builder("mcp.client.tool.calls")
+                .description("MCP tool calls made by this client")
+                .tags("tool", toolName, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary sizeSummary(String name, String description, String toolName) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("tool", toolName)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rough JSON size of the arguments, without serializing them
+     */
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() + 2;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 2;
+            for (Object element : collection) {
+                bytes += estimateBytes(element) + 1;
+            }
+            return bytes;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 2;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimateBytes(String.valueOf(entry.getKey())) + estimateBytes(entry.getValue()) + 2;
+            }
+            return bytes;
+        }
+        return String.valueOf(value).length();
+    }
+
+    private static long contentBytes(McpSchema.CallToolResult result) {
+        long bytes = 0;
+        if (result.content() != null) {
+            for (McpSchema.Content content : result.content()) {
+                bytes += content instanceof McpSchema.TextContent textContent ? textContent.text().length() : 256;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Meters of a single tool
+     */
+    private record ToolMeters(Timer success, Timer error, Timer exception,
+                              DistributionSummary argumentBytes, DistributionSummary responseBytes,
+                              AtomicInteger inFlight) {
+
+        void recordResult(McpSchema.CallToolResult result, long nanos) {
+            (Boolean.TRUE.equals(result.isError()) ? error : success).record(nanos, TimeUnit.NANOSECONDS);
+            responseBytes.record(contentBytes(result));
+        }
+    }
+}
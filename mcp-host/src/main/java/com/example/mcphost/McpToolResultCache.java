@@ -0,0 +1,351 @@
+package com.example.mcphost;
+
+import com.example.mcphost.common.McpClientPool;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side cache for results of pure and read-mostly MCP tools.
+ *
+ * A tool is cacheable when a TTL is configured for it under
+ * mcp.client.cache.ttl.&lt;toolName&gt;. Keys are canonicalized from the tool name
+ * and its arguments. Eviction is Caffeine's W-TinyLFU, bounded by the
+ * approximate size of the cached results. Successful calls to write tools
+ * invalidate the cached reads of the same file or key: a write stamps the file
+ * or key with a new generation, and a cached read fetched before that stamp is
+ * dropped the next time it is looked up, so writes never scan the cache.
+ */
+@Component
+public class McpToolResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(McpToolResultCache.class);
+
+    private static final String TTL_PROPERTY_PREFIX = "mcp.client.cache.ttl.";
+
+    private static final String FILES = "files";
+    private static final String STORAGE = "storage";
+
+    /**
+     * Read tools and the resources their results depend on
+     */
+    private static final Map<String, String> READS = Map.ofEntries(
+            Map.entry("readFile", FILES),
+            Map.entry("readFileRange", FILES),
+            Map.entry("getFileInfo", FILES),
+            Map.entry("listFiles", FILES),
+            Map.entry("listFilesPage", FILES),
+            Map.entry("retrieve", STORAGE),
+            Map.entry("retrieveMany", STORAGE),
+            Map.entry("listKeys", STORAGE),
+            Map.entry("listKeysPage", STORAGE),
+            Map.entry("scanPrefix", STORAGE),
+            Map.entry("scanRange", STORAGE),
+            Map.entry("count", STORAGE)
+    );
+
+    /**
+     * Write tools and the resources they change
+     */
+    private static final Map<String, String> WRITES = Map.ofEntries(
+            Map.entry("writeFile", FILES),
+            Map.entry("appendToFile", FILES),
+            Map.entry("writeFileChunk", FILES),
+            Map.entry("deleteFile", FILES),
+            Map.entry("store", STORAGE),
+            Map.entry("storeMany", STORAGE),
+            Map.entry("compareAndSet", STORAGE),
+            Map.entry("increment", STORAGE),
+            Map.entry("delete", STORAGE),
+            Map.entry("deleteMany", STORAGE),
+            Map.entry("clear", STORAGE)
+    );
+
+    /**
+     * Write stamp keys: "*" for clear(), "files" for any file write, "files*" for
+     * a write to no single file, "files/&lt;name&gt;" for a write to one file
+     */
+    private static final String EVERYTHING = "*";
+
+    /**
+     * Write stamps kept before the ones older than the longest TTL are dropped;
+     * the threshold doubles when most stamps are still recent
+     */
+    private static final int MAX_TRACKED_WRITES = 10_000;
+
+    @Autowired
+    private McpClientPool mcpClientPool;
+
+    @Autowired
+    private McpToolMetrics mcpToolMetrics;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mcp.client.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mcp.client.cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN, true);
+    private final Map<String, Optional<Duration>> ttls = new ConcurrentHashMap<>();
+    private final AtomicLong writeGeneration = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Map<String, Write> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicLong longestTtlNanos = new AtomicLong();
+    private volatile int pruneWritesAt = MAX_TRACKED_WRITES;
+    private Cache<CacheKey, CachedResult> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((CacheKey key, CachedResult value) -> key.weight() + value.weight())
+                .expireAfter(new Expiry<CacheKey, CachedResult>() {
+                    @Override
+                    public long expireAfterCreate(CacheKey key, CachedResult value, long currentTime) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(CacheKey key, CachedResult value, long currentTime, long currentDuration) {
+                        return value.ttl().toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(CacheKey key, CachedResult value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "mcp.tool.results");
+        logger.info("MCP tool result cache {} (max {} bytes)", enabled ? "enabled" : "disabled", maxBytes);
+    }
+
+    /**
+     * Call an MCP tool, serving cacheable tools from the cache when possible
+     */
+    public McpSchema.CallToolResult callTool(String toolName, Map<String, Object> arguments) {
+        Optional<Duration> ttl = enabled ? ttlFor(toolName) : Optional.empty();
+        if (ttl.isEmpty()) {
+            McpSchema.CallToolResult result = callPool(toolName, arguments);
+            afterWrite(toolName, arguments, result);
+            return result;
+        }
+
+        CacheKey key = new CacheKey(toolName, canonicalize(arguments), resourceOf(arguments));
+        CachedResult cached = lookup(key);
+        if (cached != null) {
+            return cached.result();
+        }
+
+        long generation = writeGeneration.get();
+        McpSchema.CallToolResult result = callPool(toolName, arguments);
+        cacheIfCurrent(key, result, ttl.get(), generation);
+        return result;
+    }
+
+    /**
+     * Hit, miss, eviction and invalidation counters
+     */
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", enabled);
+        response.put("entries", cache.estimatedSize());
+        response.put("maxBytes", maxBytes);
+        response.put("hits", stats.hitCount());
+        response.put("misses", stats.missCount());
+        response.put("hitRate", stats.hitRate());
+        response.put("evictions", stats.evictionCount());
+        response.put("invalidations", invalidations.get());
+        return response;
+    }
+
+    /**
+     * Drop every cached result
+     */
+    public void clear() {
+        stamp(EVERYTHING, new Write(writeGeneration.incrementAndGet(), System.nanoTime()));
+        cache.invalidateAll();
+    }
+
+    /**
+     * Invalidate the reads a successful write tool call may have changed
+     */
+    private void afterWrite(String toolName, Map<String, Object> arguments, McpSchema.CallToolResult result) {
+        String group = WRITES.get(toolName);
+        if (!enabled || group == null || Boolean.TRUE.equals(result.isError())) {
+            return;
+        }
+        String resource = resourceOf(arguments);
+        Write write = new Write(writeGeneration.incrementAndGet(), System.nanoTime());
+        stamp(group, write);
+        stamp(resource != null ? group + "/" + resource : group + "*", write);
+        if (lastWrites.size() > pruneWritesAt) {
+            // A result fetched before a dropped stamp has expired by now
+            long cutoff = System.nanoTime() - longestTtlNanos.get();
+            lastWrites.values().removeIf(stamped -> stamped.nanos() < cutoff);
+            pruneWritesAt = Math.max(MAX_TRACKED_WRITES, lastWrites.size() * 2);
+        }
+    }
+
+    /**
+     * Cache a read result, unless it failed or a write to what it read landed while the call was in flight
+     */
+    private void cacheIfCurrent(CacheKey key, McpSchema.CallToolResult result, Duration ttl, long generation) {
+        if (!Boolean.TRUE.equals(result.isError()) && isCurrent(key, generation)) {
+            cache.put(key, new CachedResult(result, ttl, weightOf(result), generation));
+        }
+    }
+
+    /**
+     * Cached result, dropping it if a write to its file or key landed after it was fetched
+     */
+    private CachedResult lookup(CacheKey key) {
+        CachedResult cached = cache.getIfPresent(key);
+        if (cached == null || isCurrent(key, cached.generation())) {
+            return cached;
+        }
+        if (cache.asMap().remove(key, cached)) {
+            invalidations.incrementAndGet();
+        }
+        return null;
+    }
+
+    /**
+     * Whether no write that can change the read was stamped after the given generation.
+     * Reads of one file or key depend on writes to it and on writes to no single
+     * file or key; other reads (listings, counts) depend on every write.
+     */
+    private boolean isCurrent(CacheKey key, long generation) {
+        if (lastWrite(EVERYTHING) > generation) {
+            return false;
+        }
+        String group = READS.get(key.toolName());
+        if (group == null) {
+            return true;
+        }
+        if (key.resource() == null) {
+            return lastWrite(group) <= generation;
+        }
+        return lastWrite(group + "*") <= generation && lastWrite(group + "/" + key.resource()) <= generation;
+    }
+
+    private long lastWrite(String stampKey) {
+        Write write = lastWrites.get(stampKey);
+        return write != null ? write.generation() : 0;
+    }
+
+    private void stamp(String stampKey, Write write) {
+        lastWrites.merge(stampKey, write, (current, next) -> next.generation() > current.generation() ? next : current);
+    }
+
+    private McpSchema.CallToolResult callPool(String toolName, Map<String, Object> arguments) {
+        return mcpToolMetrics.record(toolName, arguments, () -> mcpClientPool.callTool(toolName, arguments));
+    }
+
+    private Optional<Duration> ttlFor(String toolName) {
+        return ttls.computeIfAbsent(toolName, name -> {
+            Optional<Duration> ttl = Optional.ofNullable(environment.getProperty(TTL_PROPERTY_PREFIX + name, Duration.class));
+            ttl.ifPresent(value -> longestTtlNanos.accumulateAndGet(value.toNanos(), Math::max));
+            return ttl;
+        });
+    }
+
+    /**
+     * The file or storage key a call reads or writes, if any
+     */
+    private static String resourceOf(Map<String, Object> arguments) {
+        Object resource = arguments.containsKey("filename") ? arguments.get("filename") : arguments.get("key");
+        return resource != null ? resource.toString() : null;
+    }
+
+    /**
+     * Canonical form of the arguments: keys sorted, numbers normalized so 4 and 4.0 match
+     */
+    private String canonicalize(Map<String, Object> arguments) {
+        try {
+            return canonicalMapper.writeValueAsString(normalize(arguments));
+        } catch (JsonProcessingException e) {
+            return String.valueOf(new TreeMap<>(arguments));
+        }
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> normalized = new TreeMap<>();
+            map.forEach((k, v) -> normalized.put(String.valueOf(k), normalize(v)));
+            return normalized;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(McpToolResultCache::normalize).toList();
+        }
+        if (value instanceof Number number) {
+            try {
+                return new BigDecimal(number.toString()).stripTrailingZeros();
+            } catch (NumberFormatException e) {
+                return number.toString();
+            }
+        }
+        return value;
+    }
+
+    private static int weightOf(McpSchema.CallToolResult result) {
+        int chars = 0;
+        if (result.content() != null) {
+            for (McpSchema.Content content : result.content()) {
+                chars += content instanceof McpSchema.TextContent textContent ? textContent.text().length() : 256;
+            }
+        }
+        return 64 + chars * 2;
+    }
+
+    private record CacheKey(String toolName, String arguments, String resource) {
+
+        int weight() {
+            return 64 + (toolName.length() + arguments.length()) * 2;
+        }
+    }
+
+    private record CachedResult(McpSchema.CallToolResult result, Duration ttl, int weight, long generation) {
+    }
+
+    /**
+     * Generation and time of the latest write to a file, key or group of them
+     */
+    private record Write(long generation, long nanos) {
+    }
+}
@@ -0,0 +1,282 @@
+package com.example.mcphost;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tool calling manager that runs the tool calls of one assistant message concurrently.
+ *
+ * When the model asks for several tools in a single turn, every call is
+ * started on a virtual thread (at most mcp.tool-execution.max-concurrency
+ * at once per turn, each bounded by call-timeout). The results are then
+ * handed to Spring AI's DefaultToolCallingManager, which builds the tool
+ * response message in the order the model asked for the calls and applies
+ * its usual returnDirect and error handling. The turn therefore takes as long
+ * as its slowest tool rather than the sum of all of them. Tools the options
+ * only name are looked up with the ToolCallbackResolver first, as the default
+ * manager would; a call whose tool cannot be found is left to the default
+ * manager, which runs it in order after the others.
+ */
+@Component
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelToolCallingManager.class);
+
+    private final ToolCallingManager delegate;
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final boolean enabled;
+    private final int maxConcurrency;
+    private final Duration callTimeout;
+    private final Timer turnTimer;
+    private final DistributionSummary callsPerTurn;
+    private final Counter timeouts;
+    private final Counter unresolved;
+
+    public ParallelToolCallingManager(ObjectProvider<ObservationRegistry> observationRegistry,
+                                      ObjectProvider<ToolCallbackResolver> toolCallbackResolver,
+                                      ObjectProvider<ToolExecutionExceptionProcessor> exceptionProcessor,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${mcp.tool-execution.parallel:true}") boolean enabled,
+                                      @Value("${mcp.tool-execution.max-concurrency:8}") int maxConcurrency,
+                                      @Value("${mcp.tool-execution.call-timeout:30s}") Duration callTimeout) {
+        DefaultToolCallingManager.Builder builder = DefaultToolCallingManager.builder()
+                .observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP));
+        toolCallbackResolver.ifUnique(builder::toolCallbackResolver);
+        exceptionProcessor.ifUnique(builder::toolExecutionExceptionProcessor);
+        this.delegate = builder.build();
+        this.toolCallbackResolver = toolCallbackResolver.getIfUnique();
+        this.enabled = enabled;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.callTimeout = callTimeout;
+
+        this.turnTimer = Timer.builder("mcp.tool.parallel.turns")
+                .description("Wall time of the tool calls of one assistant message run concurrently")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.callsPerTurn = DistributionSummary.builder("mcp.tool.parallel.calls")
+                .description("Tool calls requested in one assistant message")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("mcp.tool.parallel.timeouts")
+                .description("Tool calls abandoned after the per-call timeout")
+                .register(meterRegistry);
+        this.unresolved = Counter.builder("mcp.tool.parallel.unresolved")
+                .description("Tool calls left to the default manager because no callback was found for them")
+                .register(meterRegistry);
+        logger.info("Parallel tool execution {} (max {} concurrent calls per turn, {} timeout)",
+                enabled ? "enabled" : "disabled", this.maxConcurrency, callTimeout);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        List<AssistantMessage.ToolCall> toolCalls = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(AssistantMessage::hasToolCalls)
+                .findFirst()
+                .map(AssistantMessage::getToolCalls)
+                .orElse(List.of());
+        if (!enabled || toolCalls.size() < 2
+                || !(prompt.getOptions() instanceof ToolCallingChatOptions options)) {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+
+        Map<String, ToolCallback> callbacks = callbacks(options, toolCalls);
+        if (callbacks.isEmpty()) {
+            return delegate.executeToolCalls(prompt, chatResponse);
+        }
+        ToolContext toolContext = options.getToolContext() != null && !options.getToolContext().isEmpty()
+                ? new ToolContext(options.getToolContext())
+                : null;
+
+        // Start every call, then collect the outcomes in request order
+        long start = System.nanoTime();
+        callsPerTurn.record(toolCalls.size());
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<String>> futures = new ArrayList<>();
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            ToolCallback callback = callbacks.get(toolCall.name());
+            futures.add(callback == null ? null : executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return toolContext != null
+                            ? callback.call(toolCall.arguments(), toolContext)
+                            : callback.call(toolCall.arguments());
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+
+        Map<String, Deque<Outcome>> outcomes = new HashMap<>();
+        long deadline = System.nanoTime() + callTimeout.toNanos() * ((toolCalls.size() + maxConcurrency - 1) / maxConcurrency);
+        for (int i = 0; i < toolCalls.size(); i++) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+            Future<String> future = futures.get(i);
+            if (future != null) {
+                outcomes.computeIfAbsent(callKey(toolCall.name(), toolCall.arguments()), key -> new ArrayDeque<>())
+                        .add(await(future, callbacks.get(toolCall.name()), deadline));
+            }
+        }
+        turnTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.debug("Ran {} tool calls concurrently in {} ms", toolCalls.size(), (System.nanoTime() - start) / 1_000_000);
+
+        // Replay the outcomes through the default manager, which assembles the tool response message
+        List<ToolCallback> prefetched = callbacks.values().stream()
+                .map(callback -> (ToolCallback) new PrefetchedToolCallback(callback, outcomes))
+                .toList();
+        ToolCallingChatOptions replayOptions = options.copy();
+        replayOptions.setToolCallbacks(prefetched);
+        return delegate.executeToolCalls(new Prompt(prompt.getInstructions(), replayOptions), chatResponse);
+    }
+
+    /**
+     * Callbacks for the requested tools: those passed in the options, then those
+     * the resolver finds by name, like DefaultToolCallingManager looks them up
+     */
+    private Map<String, ToolCallback> callbacks(ToolCallingChatOptions options, List<AssistantMessage.ToolCall> toolCalls) {
+        Map<String, ToolCallback> callbacks = new LinkedHashMap<>();
+        for (ToolCallback callback : options.getToolCallbacks()) {
+            callbacks.put(callback.getToolDefinition().name(), callback);
+        }
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            if (callbacks.containsKey(toolCall.name())) {
+                continue;
+            }
+            ToolCallback resolved = toolCallbackResolver != null ? toolCallbackResolver.resolve(toolCall.name()) : null;
+            if (resolved != null) {
+                callbacks.put(toolCall.name(), resolved);
+            } else {
+                unresolved.increment();
+                logger.debug("No callback found for tool {}, leaving it to the default manager", toolCall.name());
+            }
+        }
+        return callbacks;
+    }
+
+    /**
+     * Wait for one call. Every call gets at least call-timeout; calls queued behind
+     * the concurrency cap share a deadline sized for the number of waves.
+     */
+    private Outcome await(Future<String> future, ToolCallback callback, long deadline) {
+        try {
+            long remaining = Math.max(deadline - System.nanoTime(), callTimeout.toNanos());
+            return new Outcome(future.get(remaining, TimeUnit.NANOSECONDS), null);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.increment();
+            return new Outcome(null, new ToolExecutionException(callback.getToolDefinition(),
+                    new TimeoutException("Tool call timed out after " + callTimeout)));
+        } catch (ExecutionException e) {
+            return new Outcome(null, e.getCause() instanceof RuntimeException runtime
+                    ? runtime
+                    : new ToolExecutionException(callback.getToolDefinition(), e.getCause()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return new Outcome(null, new ToolExecutionException(callback.getToolDefinition(), e));
+        }
+    }
+
+    private static String callKey(String toolName, String arguments) {
+        return toolName + '\0' + arguments;
+    }
+
+    /**
+     * Result or failure of a call that has already run
+     */
+    private record Outcome(String result, RuntimeException failure) {
+    }
+
+    /**
+     * Serves calls from the outcomes collected up front; calls that were not
+     * prefetched go to the real callback
+     */
+    private static final class PrefetchedToolCallback implements ToolCallback {
+
+        private final ToolCallback delegate;
+        private final Map<String, Deque<Outcome>> outcomes;
+
+        PrefetchedToolCallback(ToolCallback delegate, Map<String, Deque<Outcome>> outcomes) {
+            this.delegate = delegate;
+            this.outcomes = outcomes;
+        }
+
+        @Override
+        public ToolDefinition getToolDefinition() {
+            return delegate.getToolDefinition();
+        }
+
+        @Override
+        public ToolMetadata getToolMetadata() {
+            return delegate.getToolMetadata();
+        }
+
+        @Override
+        public String call(String toolInput) {
+            return call(toolInput, null);
+        }
+
+        @Override
+        public String call(String toolInput, ToolContext toolContext) {
+            Deque<Outcome> pending = outcomes.get(callKey(delegate.getToolDefinition().name(), toolInput));
+            Outcome outcome = pending != null ? pending.poll() : null;
+            if (outcome == null) {
+                return toolContext != null ? delegate.call(toolInput, toolContext) : delegate.call(toolInput);
+            }
+            if (outcome.failure() != null) {
+                throw outcome.failure();
+            }
+            return outcome.result();
+        }
+    }
+}
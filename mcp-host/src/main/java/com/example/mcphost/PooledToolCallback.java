@@ -0,0 +1,59 @@
+package com.example.mcphost;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Tool callback for the chat model that calls an MCP tool through the client
+ * pool instead of a single fixed session. Behaves like Spring AI's
+ * SyncMcpToolCallback: error results and failed calls are reported as
+ * {@link ToolExecutionException}, results are returned as JSON content.
+ */
+public class PooledToolCallback implements ToolCallback {
+
+    private final McpSchema.Tool tool;
+    private final ToolDefinition toolDefinition;
+    private final BiFunction<String, Map<String, Object>, McpSchema.CallToolResult> caller;
+
+    public PooledToolCallback(McpSchema.Tool tool,
+                              BiFunction<String, Map<String, Object>, McpSchema.CallToolResult> caller) {
+        this.tool = tool;
+        this.toolDefinition = McpToolUtils.createToolDefinition(tool.name(), tool);
+        this.caller = caller;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return toolDefinition;
+    }
+
+    @Override
+    public String call(String toolInput) {
+        Map<String, Object> arguments = ModelOptionsUtils.jsonToMap(StringUtils.hasText(toolInput) ? toolInput : "{}");
+        McpSchema.CallToolResult result;
+        try {
+            result = caller.apply(tool.name(), arguments);
+        } catch (RuntimeException e) {
+            throw new ToolExecutionException(toolDefinition, e);
+        }
+        if (Boolean.TRUE.equals(result.isError())) {
+            throw new ToolExecutionException(toolDefinition,
+                    new IllegalStateException("Error calling tool: " + result.content()));
+        }
+        return ModelOptionsUtils.toJsonString(result.content());
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return call(toolInput);
+    }
+}
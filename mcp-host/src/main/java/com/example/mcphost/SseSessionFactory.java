@@ -0,0 +1,82 @@
+package com.example.mcphost;
+
+import com.example.mcphost.common.McpSessionFactory;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.McpSyncClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpSchema;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates new MCP client sessions for the client pool.
+ * Connects over SSE to every server under spring.ai.mcp.client.sse.connections
+ * in application.yaml. tools/list_changed notifications are republished as
+ * {@link McpToolCatalog.ToolsChangedEvent} so the tool catalog is reloaded.
+ */
+@Component
+public class SseSessionFactory implements McpSessionFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseSessionFactory.class);
+
+    @Value("${mcp.client.pool.request-timeout-seconds:30}")
+    private long requestTimeoutSeconds;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Map<String, Connection> connections;
+
+    /**
+     * SSE connection settings of one MCP server
+     */
+    public record Connection(String url, String sseEndpoint) {
+    }
+
+    @PostConstruct
+    public void loadConnections() {
+        connections = new LinkedHashMap<>(Binder.get(environment)
+                .bind("spring.ai.mcp.client.sse.connections", Bindable.mapOf(String.class, Connection.class))
+                .orElseGet(() -> Map.of("demo-server", new Connection("http://localhost:8080", "/sse"))));
+    }
+
+    @Override
+    public List<String> serverNames() {
+        return List.copyOf(connections.keySet());
+    }
+
+    @Override
+    public McpSyncClient create(String serverName, String sessionId) {
+        Connection connection = connections.get(serverName);
+        if (connection == null) {
+            throw new IllegalArgumentException("Unknown MCP server '" + serverName + "'");
+        }
+        logger.info("Opening MCP session '{}' to {}", sessionId, connection.url());
+
+        McpSyncClient client = McpClient.sync(HttpClientSseClientTransport.builder(connection.url())
+                        .sseEndpoint(connection.sseEndpoint() != null ? connection.sseEndpoint() : "/sse")
+                        .build())
+                .requestTimeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .clientInfo(new McpSchema.Implementation(sessionId, "1.0.0"))
+                .toolsChangeConsumer(tools -> eventPublisher.publishEvent(new McpToolCatalog.ToolsChangedEvent(serverName)))
+                .build();
+        client.initialize();
+        return client;
+    }
+}
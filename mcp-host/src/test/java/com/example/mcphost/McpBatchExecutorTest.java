@@ -0,0 +1,128 @@
+package com.example.mcphost;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class McpBatchExecutorTest {
+
+    @Test
+    void resultsKeepInputOrder() {
+        // Later items finish first
+        McpBatchExecutor executor = executor(arguments -> {
+            int n = (int) arguments.get("n");
+            sleep(5 * (10 - n));
+            return McpSchema.CallToolResult.builder().addTextContent("result " + n).isError(false).build();
+        });
+        List<Map<String, Object>> calls = IntStream.range(0, 10).mapToObj(n -> call("echo", n)).toList();
+
+        List<Map<String, Object>> results = executor.execute(calls, 10);
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get("index"));
+            assertEquals(List.of("result " + i), results.get(i).get("result"));
+        }
+        assertEquals("success", executor.status(results));
+    }
+
+    @Test
+    void failingItemMakesBatchPartial() {
+        McpBatchExecutor executor = executor(arguments -> switch ((int) arguments.get("n")) {
+            case 1 -> throw new IllegalStateException("server went away");
+            case 2 -> McpSchema.CallToolResult.builder().addTextContent("Cannot divide by zero").isError(true).build();
+            default -> McpSchema.CallToolResult.builder().addTextContent("ok").isError(false).build();
+        });
+
+        List<Map<String, Object>> results = executor.execute(List.of(call("t", 0), call("t", 1), call("t", 2), call("t", 3)), 4);
+
+        assertEquals(List.of("success", "failed", "failed", "success"),
+                results.stream().map(result -> result.get("status")).toList());
+        assertEquals("server went away", results.get(1).get("error"));
+        assertEquals("Cannot divide by zero", results.get(2).get("error"));
+        assertEquals("partial", executor.status(results));
+        assertEquals("failed", executor.status(results.subList(1, 3)));
+    }
+
+    @Test
+    void missingToolNameFailsOnlyThatItem() {
+        McpBatchExecutor executor = executor(arguments -> McpSchema.CallToolResult.builder().addTextContent("ok").isError(false).build());
+
+        List<Map<String, Object>> results = executor.execute(List.of(Map.of("arguments", Map.of()), call("t", 1)), 2);
+
+        assertEquals("toolName is required", results.get(0).get("error"));
+        assertEquals("success", results.get(1).get("status"));
+    }
+
+    @Test
+    void parallelismCapIsRespected() {
+        int parallelism = 3;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch filled = new CountDownLatch(parallelism);
+        McpBatchExecutor executor = executor(arguments -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // Hold every permit until the cap has been reached once
+            filled.countDown();
+            try {
+                assertTrue(filled.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sleep(5);
+            running.decrementAndGet();
+            return McpSchema.CallToolResult.builder().addTextContent("ok").isError(false).build();
+        });
+
+        List<Map<String, Object>> results = executor.execute(IntStream.range(0, 20).mapToObj(n -> call("t", n)).toList(), parallelism);
+
+        assertEquals(parallelism, peak.get());
+        assertEquals("success", executor.status(results));
+    }
+
+    @Test
+    void requestedParallelismIsCapped() {
+        McpBatchExecutor executor = executor(arguments -> null);
+
+        assertEquals(16, executor.resolveParallelism(null));
+        assertEquals(4, executor.resolveParallelism(4));
+        assertEquals(64, executor.resolveParallelism(1000));
+    }
+
+    private static McpBatchExecutor executor(Function<Map<String, Object>, McpSchema.CallToolResult> tool) {
+        McpToolResultCache cache = new McpToolResultCache() {
+            @Override
+            public McpSchema.CallToolResult callTool(String toolName, Map<String, Object> arguments) {
+                return tool.apply(arguments);
+            }
+        };
+        McpBatchExecutor executor = new McpBatchExecutor();
+        ReflectionTestUtils.setField(executor, "mcpToolResultCache", cache);
+        ReflectionTestUtils.setField(executor, "defaultParallelism", 16);
+        ReflectionTestUtils.setField(executor, "maxParallelism", 64);
+        ReflectionTestUtils.setField(executor, "maxItems", 1000);
+        return executor;
+    }
+
+    private static Map<String, Object> call(String toolName, int n) {
+        return Map.of("toolName", toolName, "arguments", Map.of("n", n));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.mcphost;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.StaticToolCallbackResolver;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelToolCallingManagerTest {
+
+    private ParallelToolCallingManager manager;
+
+    @AfterEach
+    void stop() {
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    @Test
+    void followUpKeepsModelCallOrder() {
+        manager = manager(new StaticListableBeanFactory(), Duration.ofSeconds(5));
+        // The first call can only finish once the second has started, so they must run concurrently
+        CountDownLatch fastStarted = new CountDownLatch(1);
+        ToolCallback slow = tool("slow", input -> {
+            await(fastStarted);
+            return "slow " + input;
+        });
+        ToolCallback fast = tool("fast", input -> {
+            fastStarted.countDown();
+            return "fast " + input;
+        });
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(slow, fast), response(
+                new AssistantMessage.ToolCall("1", "function", "slow", "{\"n\":1}"),
+                new AssistantMessage.ToolCall("2", "function", "fast", "{\"n\":2}"),
+                new AssistantMessage.ToolCall("3", "function", "slow", "{\"n\":3}")));
+
+        List<ToolResponseMessage.ToolResponse> responses = toolResponses(result);
+        assertEquals(List.of("1", "2", "3"), responses.stream().map(ToolResponseMessage.ToolResponse::id).toList());
+        assertEquals(List.of("slow {\"n\":1}", "fast {\"n\":2}", "slow {\"n\":3}"),
+                responses.stream().map(ToolResponseMessage.ToolResponse::responseData).toList());
+    }
+
+    @Test
+    void toolNamesAreResolvedBeforeFanningOut() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Function<String, String> concurrent = input -> {
+            bothStarted.countDown();
+            await(bothStarted);
+            return input;
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("toolCallbackResolver",
+                new StaticToolCallbackResolver(List.of(tool("a", concurrent), tool("b", concurrent))));
+        manager = manager(beanFactory, Duration.ofSeconds(5));
+
+        Prompt prompt = new Prompt(List.of(new UserMessage("both")),
+                ToolCallingChatOptions.builder().toolNames("a", "b").build());
+        ToolExecutionResult result = manager.executeToolCalls(prompt, response(
+                new AssistantMessage.ToolCall("1", "function", "a", "{}"),
+                new AssistantMessage.ToolCall("2", "function", "b", "{}")));
+
+        assertEquals(List.of("a", "b"), toolResponses(result).stream().map(ToolResponseMessage.ToolResponse::name).toList());
+    }
+
+    @Test
+    void timedOutCallIsReportedAsToolExecutionException() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("toolExecutionExceptionProcessor",
+                DefaultToolExecutionExceptionProcessor.builder().alwaysThrow(true).build());
+        manager = manager(beanFactory, Duration.ofMillis(100));
+        CountDownLatch never = new CountDownLatch(1);
+        ToolCallback hanging = tool("hanging", input -> {
+            await(never);
+            return "late";
+        });
+        ToolCallback quick = tool("quick", input -> "done");
+
+        ToolExecutionException failure = assertThrows(ToolExecutionException.class,
+                () -> manager.executeToolCalls(prompt(hanging, quick), response(
+                        new AssistantMessage.ToolCall("1", "function", "quick", "{}"),
+                        new AssistantMessage.ToolCall("2", "function", "hanging", "{}"))));
+
+        assertEquals("hanging", failure.getToolDefinition().name());
+        assertInstanceOf(TimeoutException.class, failure.getCause());
+    }
+
+    private static ParallelToolCallingManager manager(StaticListableBeanFactory beanFactory, Duration callTimeout) {
+        return new ParallelToolCallingManager(beanFactory.getBeanProvider(ObservationRegistry.class),
+                beanFactory.getBeanProvider(ToolCallbackResolver.class),
+                beanFactory.getBeanProvider(ToolExecutionExceptionProcessor.class),
+                new SimpleMeterRegistry(), true, 8, callTimeout);
+    }
+
+    private static ToolCallback tool(String name, Function<String, String> body) {
+        ToolDefinition definition = ToolDefinition.builder().name(name).description(name).inputSchema("{}").build();
+        return new ToolCallback() {
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return definition;
+            }
+
+            @Override
+            public String call(String toolInput) {
+                return body.apply(toolInput);
+            }
+        };
+    }
+
+    private static Prompt prompt(ToolCallback... callbacks) {
+        return new Prompt(List.of(new UserMessage("go")), ToolCallingChatOptions.builder().toolCallbacks(callbacks).build());
+    }
+
+    private static ChatResponse response(AssistantMessage.ToolCall... toolCalls) {
+        return new ChatResponse(List.of(new Generation(AssistantMessage.builder().content("").toolCalls(List.of(toolCalls)).build())));
+    }
+
+    private static List<ToolResponseMessage.ToolResponse> toolResponses(ToolExecutionResult result) {
+        Message last = result.conversationHistory().get(result.conversationHistory().size() - 1);
+        return assertInstanceOf(ToolResponseMessage.class, last).getResponses();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the other call");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
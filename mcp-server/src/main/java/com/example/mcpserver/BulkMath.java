@@ -0,0 +1,316 @@
+package com.example.mcpserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Array kernels behind the bulk calculator tools.
+ *
+ * The kernels use the Vector API (jdk.incubator.vector) when the JVM was started
+ * with --add-modules jdk.incubator.vector, and plain loops otherwise. Inputs of
+ * at least PARALLEL_THRESHOLD elements are cut into fixed CHUNK-sized ranges that
+ * run as fork-join tasks on the common pool. Partial sums are combined in chunk
+ * order, so a result does not depend on how the tasks were scheduled.
+ */
+public final class BulkMath {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkMath.class);
+
+    static final int PARALLEL_THRESHOLD = 1 << 18;
+    static final int CHUNK = 1 << 16;
+
+    private static final BulkMath PREFERRED = create(vectorApiAvailable());
+
+    /**
+     * Element-wise binary operations
+     */
+    public enum Op {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, MIN, MAX;
+
+        public static Op of(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("Operation cannot be empty");
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown operation '" + name + "', expected one of add, subtract, multiply, divide, min, max");
+            }
+        }
+    }
+
+    /**
+     * Summary statistics of an array; variance and stdDev are population values
+     */
+    public record Statistics(int count, double sum, double mean, double min, double max,
+                             double variance, double stdDev) {
+    }
+
+    /**
+     * Kernels over the range [from, to) of their arrays
+     */
+    interface Kernels {
+
+        double sum(double[] values, int from, int to);
+
+        double dot(double[] a, double[] b, int from, int to);
+
+        void elementwise(Op op, double[] a, double[] b, double[] out, int from, int to);
+
+        /**
+         * Writes min and max of the range into minMax[0] and minMax[1]
+         */
+        void minMax(double[] values, int from, int to, double[] minMax);
+
+        double squaredDeviations(double[] values, double mean, int from, int to);
+
+        /**
+         * Horner evaluation of the polynomial with the given coefficients
+         * (constant term first) at every x in the range
+         */
+        void polyEval(double[] coefficients, double[] x, double[] out, int from, int to);
+    }
+
+    private final Kernels kernels;
+
+    BulkMath(Kernels kernels) {
+        this.kernels = kernels;
+    }
+
+    /**
+     * Vector API kernels when available, plain loops otherwise
+     */
+    public static BulkMath preferred() {
+        return PREFERRED;
+    }
+
+    /**
+     * Plain loop kernels, e.g. as a benchmark baseline
+     */
+    public static BulkMath scalar() {
+        return new BulkMath(new ScalarKernels());
+    }
+
+    /**
+     * Vector API kernels if the module is present, scalar kernels otherwise
+     */
+    public static BulkMath create(boolean vectorized) {
+        if (vectorized && vectorApiAvailable()) {
+            try {
+                return new BulkMath(new VectorKernels());
+            } catch (LinkageError e) {
+                logger.warn("Vector API kernels unavailable, using scalar kernels: {}", e.toString());
+            }
+        }
+        return scalar();
+    }
+
+    public static boolean vectorApiAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    public boolean isVectorized() {
+        return !(kernels instanceof ScalarKernels);
+    }
+
+    public double sum(double[] values) {
+        double[] partials = new double[chunks(values.length)];
+        forEachChunk(values.length, (chunk, from, to) -> partials[chunk] = kernels.sum(values, from, to));
+        return sumInOrder(partials);
+    }
+
+    public double dot(double[] a, double[] b) {
+        double[] partials = new double[chunks(a.length)];
+        forEachChunk(a.length, (chunk, from, to) -> partials[chunk] = kernels.dot(a, b, from, to));
+        return sumInOrder(partials);
+    }
+
+    public double[] elementwise(Op op, double[] a, double[] b) {
+        double[] out = new double[a.length];
+        forEachChunk(a.length, (chunk, from, to) -> kernels.elementwise(op, a, b, out, from, to));
+        return out;
+    }
+
+    public Statistics statistics(double[] values) {
+        int chunks = chunks(values.length);
+        double[] sums = new double[chunks];
+        double[][] minMax = new double[chunks][2];
+        forEachChunk(values.length, (chunk, from, to) -> {
+            sums[chunk] = kernels.sum(values, from, to);
+            kernels.minMax(values, from, to, minMax[chunk]);
+        });
+        double sum = sumInOrder(sums);
+        double mean = sum / values.length;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double[] range : minMax) {
+            min = Math.min(min, range[0]);
+            max = Math.max(max, range[1]);
+        }
+
+        // Second pass over the deviations, which stays accurate when the values are large and close together
+        double[] deviations = new double[chunks];
+        forEachChunk(values.length, (chunk, from, to) -> deviations[chunk] = kernels.squaredDeviations(values, mean, from, to));
+        double variance = sumInOrder(deviations) / values.length;
+        return new Statistics(values.length, sum, mean, min, max, variance, Math.sqrt(variance));
+    }
+
+    public double[] polyEval(double[] coefficients, double[] x) {
+        double[] out = new double[x.length];
+        forEachChunk(x.length, (chunk, from, to) -> kernels.polyEval(coefficients, x, out, from, to));
+        return out;
+    }
+
+    private static int chunks(int length) {
+        return length < PARALLEL_THRESHOLD ? 1 : (length + CHUNK - 1) / CHUNK;
+    }
+
+    private static double sumInOrder(double[] partials) {
+        double sum = 0;
+        for (double partial : partials) {
+            sum += partial;
+        }
+        return sum;
+    }
+
+    /**
+     * Run the body over the whole range, or over every chunk as fork-join tasks for large inputs
+     */
+    private static void forEachChunk(int length, ChunkBody body) {
+        int chunks = chunks(length);
+        if (chunks == 1) {
+            body.run(0, 0, length);
+        } else {
+            ForkJoinPool.commonPool().invoke(new ChunkTask(body, length, 0, chunks));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkBody {
+        void run(int chunk, int from, int to);
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+
+        private final ChunkBody body;
+        private final int length;
+        private final int firstChunk;
+        private final int endChunk;
+
+        ChunkTask(ChunkBody body, int length, int firstChunk, int endChunk) {
+            this.body = body;
+            this.length = length;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk == 1) {
+                int from = firstChunk * CHUNK;
+                body.run(firstChunk, from, Math.min(from + CHUNK, length));
+                return;
+            }
+            int middle = (firstChunk + endChunk) >>> 1;
+            invokeAll(new ChunkTask(body, length, firstChunk, middle), new ChunkTask(body, length, middle, endChunk));
+        }
+    }
+
+    /**
+     * Plain loop kernels
+     */
+    static final class ScalarKernels implements Kernels {
+
+        @Override
+        public double sum(double[] values, int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += values[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public double dot(double[] a, double[] b, int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += a[i] * b[i];
+            }
+            return sum;
+        }
+
+        @Override
+        public void elementwise(Op op, double[] a, double[] b, double[] out, int from, int to) {
+            switch (op) {
+                case ADD -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] + b[i];
+                    }
+                }
+                case SUBTRACT -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] - b[i];
+                    }
+                }
+                case MULTIPLY -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] * b[i];
+                    }
+                }
+                case DIVIDE -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = a[i] / b[i];
+                    }
+                }
+                case MIN -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = Math.min(a[i], b[i]);
+                    }
+                }
+                case MAX -> {
+                    for (int i = from; i < to; i++) {
+                        out[i] = Math.max(a[i], b[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void minMax(double[] values, int from, int to, double[] minMax) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            minMax[0] = min;
+            minMax[1] = max;
+        }
+
+        @Override
+        public double squaredDeviations(double[] values, double mean, int from, int to) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                double deviation = values[i] - mean;
+                sum += deviation * deviation;
+            }
+            return sum;
+        }
+
+        @Override
+        public void polyEval(double[] coefficients, double[] x, double[] out, int from, int to) {
+            int last = coefficients.length - 1;
+            for (int i = from; i < to; i++) {
+                double result = coefficients[last];
+                for (int k = last - 1; k >= 0; k--) {
+                    result = result * x[i] + coefficients[k];
+                }
+                out[i] = result;
+            }
+        }
+    }
+}
@@ -1,15 +1,44 @@
 package com.example.mcpserver;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springaicommunity.mcp.annotation.McpTool;
+import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
+
 /**
  * Calculator service providing basic mathematical operations.
  * Methods annotated with @McpTool are automatically exposed as MCP tools.
+ *
+ * The bulk tools (sumArray, dotProduct, elementwise, statistics, polyEval) work
+ * on whole arrays in one call, using the BulkMath kernels. The evaluate tool
+ * computes a whole expression in one call, compiled and cached by ExpressionEngine.
  */
 @Service
 public class CalculatorService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CalculatorService.class);
+
+    private final ExpressionEngine expressionEngine;
+
+    private final BulkMath bulkMath = BulkMath.preferred();
+
+    /**
+     * Calculator with a default expression cache, used outside of Spring (e.g. benchmarks)
+     */
+    public CalculatorService() {
+        this(new ExpressionEngine(1024));
+    }
+
+    @Autowired
+    public CalculatorService(ExpressionEngine expressionEngine) {
+        this.expressionEngine = expressionEngine;
+        logger.debug("Bulk math tools use {} kernels", bulkMath.isVectorized() ? "Vector API" : "scalar");
+    }
+
     @McpTool(name = "add", description = "Add two numbers together")
     public double add(double a, double b) {
         return a + b;
@@ -45,4 +74,68 @@ public class CalculatorService {
         }
         return Math.sqrt(number);
     }
+
+    @McpTool(name = "evaluate", description = "Evaluate an arithmetic expression such as (3+4)*sqrt(16)/2 in one call. "
+            + "Supports + - * / % ^, parentheses, variables, the constants pi and e, and the functions "
+            + "sqrt, abs, exp, ln, log10, sin, cos, tan, asin, acos, atan, floor, ceil, round, pow, atan2, min and max")
+    public double evaluate(@McpToolParam(description = "Expression to evaluate") String expression,
+                           @McpToolParam(description = "Values of the variables used in the expression, e.g. {\"x\": 2}", required = false) Map<String, Double> variables) {
+        return expressionEngine.evaluate(expression, variables);
+    }
+
+    // ==================== BULK OPERATIONS ====================
+
+    @McpTool(name = "sumArray", description = "Sum an array of numbers in one call")
+    public double sumArray(@McpToolParam(description = "Numbers to add up") double[] values) {
+        return bulkMath.sum(requireValues(values, "values"));
+    }
+
+    @McpTool(name = "dotProduct", description = "Dot product of two arrays of equal length")
+    public double dotProduct(@McpToolParam(description = "First vector") double[] a,
+                             @McpToolParam(description = "Second vector, same length as a") double[] b) {
+        return bulkMath.dot(requireValues(a, "a"), requireSameLength(a, b));
+    }
+
+    @McpTool(name = "elementwise", description = "Apply add, subtract, multiply, divide, min or max to each pair a[i], b[i] and return the resulting array")
+    public double[] elementwise(@McpToolParam(description = "Operation: add, subtract, multiply, divide, min or max") String op,
+                                @McpToolParam(description = "Left operands") double[] a,
+                                @McpToolParam(description = "Right operands, same length as a") double[] b) {
+        BulkMath.Op operation = BulkMath.Op.of(op);
+        requireValues(a, "a");
+        requireSameLength(a, b);
+        if (operation == BulkMath.Op.DIVIDE) {
+            for (int i = 0; i < b.length; i++) {
+                if (b[i] == 0) {
+                    throw new IllegalArgumentException("Cannot divide by zero (b[" + i + "] is 0)");
+                }
+            }
+        }
+        return bulkMath.elementwise(operation, a, b);
+    }
+
+    @McpTool(name = "statistics", description = "Count, sum, mean, min, max, population variance and standard deviation of an array of numbers")
+    public BulkMath.Statistics statistics(@McpToolParam(description = "Numbers to summarize") double[] values) {
+        return bulkMath.statistics(requireValues(values, "values"));
+    }
+
+    @McpTool(name = "polyEval", description = "Evaluate the polynomial c0 + c1*x + c2*x^2 + ... at every x and return the results")
+    public double[] polyEval(@McpToolParam(description = "Coefficients, constant term first") double[] coefficients,
+                             @McpToolParam(description = "Points to evaluate the polynomial at") double[] x) {
+        return bulkMath.polyEval(requireValues(coefficients, "coefficients"), requireValues(x, "x"));
+    }
+
+    private static double[] requireValues(double[] values, String name) {
+        if (values == null || values.length == 0) {
+            throw new IllegalArgumentException(name + " cannot be empty");
+        }
+        return values;
+    }
+
+    private static double[] requireSameLength(double[] a, double[] b) {
+        requireValues(b, "b");
+        if (a.length != b.length) {
+            throw new IllegalArgumentException(String.format("a and b must have the same length (%d vs %d)", a.length, b.length));
+        }
+        return b;
+    }
 }
@@ -0,0 +1,356 @@
+package com.example.mcpserver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Memory-efficient storage backend for millions of keys.
+ *
+ * Keys and values are stored as UTF-8 bytes in off-heap arena chunks
+ * (direct ByteBuffers), so the heap holds only the open-addressing index:
+ * one long address and one int hash per slot. Overwritten and deleted
+ * records become garbage in the arena and are reclaimed by compaction once
+ * they outweigh the live data.
+ *
+ * Record layout: [key length][value length][key bytes][value bytes]
+ */
+public class CompactKeyValueStore implements KeyValueStore {
+
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+    private static final int RECORD_HEADER = 8;
+    private static final double MAX_LOAD = 0.7;
+
+    private final int chunkSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private int chunkOffset;
+    private long[] addresses;
+    private int[] hashes;
+    private int size;
+    private int tombstones;
+    private long liveBytes;
+    private long garbageBytes;
+    private long compactions;
+
+    /**
+     * @param chunkSize       size of each off-heap arena chunk in bytes
+     * @param initialCapacity expected number of keys
+     */
+    public CompactKeyValueStore(int chunkSize, int initialCapacity) {
+        this.chunkSize = chunkSize;
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (initialCapacity / MAX_LOAD)) - 1) << 1;
+        this.addresses = new long[capacity];
+        this.hashes = new int[capacity];
+    }
+
+    @Override
+    public String get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            int slot = find(keyBytes, hash(key));
+            if (slot < 0) {
+                return null;
+            }
+            return readValue(addresses[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String put(String key, String value) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+
+        lock.writeLock().lock();
+        try {
+            long address = append(keyBytes, valueBytes);
+            long recordBytes = RECORD_HEADER + keyBytes.length + valueBytes.length;
+            liveBytes += recordBytes;
+
+            int slot = find(keyBytes, hash);
+            if (slot >= 0) {
+                String previous = readValue(addresses[slot]);
+                retire(addresses[slot]);
+                addresses[slot] = address;
+                compactIfNeeded();
+                return previous;
+            }
+
+            if (size + tombstones + 1 > addresses.length * MAX_LOAD) {
+                resize(size + 1 > addresses.length * MAX_LOAD / 2 ? addresses.length * 2 : addresses.length);
+            }
+            insert(address, hash);
+            size++;
+            compactIfNeeded();
+            return null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String remove(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int slot = find(keyBytes, hash(key));
+            if (slot < 0) {
+                return null;
+            }
+            String previous = readValue(addresses[slot]);
+            retire(addresses[slot]);
+            addresses[slot] = TOMBSTONE;
+            size--;
+            tombstones++;
+            compactIfNeeded();
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs under the write lock; get, put and remove re-enter it
+     */
+    @Override
+    public String compute(String key, UnaryOperator<String> update) {
+        lock.writeLock().lock();
+        try {
+            String current = get(key);
+            String next = update.apply(current);
+            if (next == null) {
+                if (current != null) {
+                    remove(key);
+                }
+            } else if (!next.equals(current)) {
+                put(key, next);
+            }
+            return next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> keys() {
+        lock.readLock().lock();
+        try {
+            Set<String> keys = new HashSet<>(size * 2);
+            for (long address : addresses) {
+                if (address != EMPTY && address != TOMBSTONE) {
+                    keys.add(readKey(address));
+                }
+            }
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            chunks = new ArrayList<>();
+            chunkOffset = 0;
+            Arrays.fill(addresses, EMPTY);
+            size = 0;
+            tombstones = 0;
+            liveBytes = 0;
+            garbageBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            long arenaBytes = chunks.stream().mapToLong(ByteBuffer::capacity).sum();
+            long indexBytes = (long) addresses.length * (Long.BYTES + Integer.BYTES);
+
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("backend", "compact");
+            stats.put("entries", size);
+            stats.put("offHeapBytes", arenaBytes);
+            stats.put("heapIndexBytes", indexBytes);
+            stats.put("footprintBytes", arenaBytes + indexBytes);
+            stats.put("liveBytes", liveBytes);
+            stats.put("garbageBytes", garbageBytes);
+            stats.put("indexCapacity", addresses.length);
+            stats.put("chunks", chunks.size());
+            stats.put("compactions", compactions);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Find the slot holding the key, or -1
+     */
+    private int find(byte[] keyBytes, int hash) {
+        int mask = addresses.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long address = addresses[slot];
+            if (address == EMPTY) {
+                return -1;
+            }
+            if (address != TOMBSTONE && hashes[slot] == hash && keyEquals(address, keyBytes)) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long address, int hash) {
+        int mask = addresses.length - 1;
+        int slot = hash & mask;
+        while (addresses[slot] != EMPTY && addresses[slot] != TOMBSTONE) {
+            slot = (slot + 1) & mask;
+        }
+        if (addresses[slot] == TOMBSTONE) {
+            tombstones--;
+        }
+        addresses[slot] = address;
+        hashes[slot] = hash;
+    }
+
+    /**
+     * Rebuild the index at the given capacity, dropping tombstones
+     */
+    private void resize(int capacity) {
+        long[] oldAddresses = addresses;
+        int[] oldHashes = hashes;
+        addresses = new long[capacity];
+        hashes = new int[capacity];
+        tombstones = 0;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (oldAddresses[i] != EMPTY && oldAddresses[i] != TOMBSTONE) {
+                insert(oldAddresses[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Copy live records into fresh chunks once garbage outweighs live data
+     */
+    private void compactIfNeeded() {
+        if (garbageBytes < chunkSize || garbageBytes < liveBytes) {
+            return;
+        }
+        List<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        chunkOffset = 0;
+        for (int slot = 0; slot < addresses.length; slot++) {
+            long address = addresses[slot];
+            if (address != EMPTY && address != TOMBSTONE) {
+                ByteBuffer chunk = oldChunks.get(chunkIndex(address));
+                int offset = offset(address);
+                byte[] keyBytes = new byte[chunk.getInt(offset)];
+                byte[] valueBytes = new byte[chunk.getInt(offset + 4)];
+                chunk.get(offset + RECORD_HEADER, keyBytes);
+                chunk.get(offset + RECORD_HEADER + keyBytes.length, valueBytes);
+                addresses[slot] = append(keyBytes, valueBytes);
+            }
+        }
+        garbageBytes = 0;
+        compactions++;
+    }
+
+    private long append(byte[] keyBytes, byte[] valueBytes) {
+        int recordBytes = RECORD_HEADER + keyBytes.length + valueBytes.length;
+        if (chunks.isEmpty() || chunkOffset + recordBytes > chunks.get(chunks.size() - 1).capacity()) {
+            chunks.add(ByteBuffer.allocateDirect(Math.max(chunkSize, recordBytes)));
+            chunkOffset = 0;
+        }
+        ByteBuffer chunk = chunks.get(chunks.size() - 1);
+        chunk.putInt(chunkOffset, keyBytes.length);
+        chunk.putInt(chunkOffset + 4, valueBytes.length);
+        chunk.put(chunkOffset + RECORD_HEADER, keyBytes);
+        chunk.put(chunkOffset + RECORD_HEADER + keyBytes.length, valueBytes);
+
+        long address = ((long) chunks.size() << 32) | chunkOffset;
+        chunkOffset += recordBytes;
+        return address;
+    }
+
+    private void retire(long address) {
+        ByteBuffer chunk = chunks.get(chunkIndex(address));
+        int offset = offset(address);
+        long recordBytes = RECORD_HEADER + chunk.getInt(offset) + chunk.getInt(offset + 4);
+        liveBytes -= recordBytes;
+        garbageBytes += recordBytes;
+    }
+
+    private boolean keyEquals(long address, byte[] keyBytes) {
+        ByteBuffer chunk = chunks.get(chunkIndex(address));
+        int offset = offset(address);
+        if (chunk.getInt(offset) != keyBytes.length) {
+            return false;
+        }
+        return chunk.slice(offset + RECORD_HEADER, keyBytes.length).equals(ByteBuffer.wrap(keyBytes));
+    }
+
+    private String readKey(long address) {
+        ByteBuffer chunk = chunks.get(chunkIndex(address));
+        int offset = offset(address);
+        byte[] keyBytes = new byte[chunk.getInt(offset)];
+        chunk.get(offset + RECORD_HEADER, keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    private String readValue(long address) {
+        ByteBuffer chunk = chunks.get(chunkIndex(address));
+        int offset = offset(address);
+        int keyLength = chunk.getInt(offset);
+        byte[] valueBytes = new byte[chunk.getInt(offset + 4)];
+        chunk.get(offset + RECORD_HEADER + keyLength, valueBytes);
+        return new String(valueBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Chunk numbers are stored 1-based so that no valid address equals EMPTY
+     */
+    private static int chunkIndex(long address) {
+        return (int) (address >>> 32) - 1;
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
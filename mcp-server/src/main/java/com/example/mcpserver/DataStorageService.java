@@ -1,31 +1,90 @@
 package com.example.mcpserver;
 
 import org.springaicommunity.mcp.annotation.McpTool;
+import org.springaicommunity.mcp.annotation.McpToolParam;
 import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Objects;
 import java.util.Set;
 
 /**
- * In-memory key-value storage service.
+ * Key-value storage service.
  * Methods annotated with @McpTool are automatically exposed as MCP tools.
+ *
+ * Data is kept in the KeyValueStore selected by StorageConfig (in memory by default).
+ * The batch tools (storeMany, retrieveMany, deleteMany) handle up to MAX_BATCH_KEYS
+ * keys per call. compareAndSet and increment are atomic per key, so agents can
+ * coordinate through shared counters without read-modify-write races.
+ * A value stored with ttlSeconds is removed once its TTL passes, and the store
+ * can be given a size budget with LRU or LFU eviction (see StorageConfig), so it
+ * also serves as a cache for agent scratch data.
+ * scanPrefix and scanRange walk the sorted key index when mcp.server.storage.key-index
+ * is on, so they only visit the keys they return; otherwise they scan all keys.
  */
 @Service
 public class DataStorageService {
 
-    private final Map<String, String> storage = new ConcurrentHashMap<>();
+    public static final int MAX_BATCH_KEYS = 1000;
+    public static final long MAX_TTL_SECONDS = 365L * 24 * 60 * 60;
+
+    /**
+     * Keys affected by a batch call, and requested keys that were not present
+     */
+    public record BatchResult(int count, List<String> keys, List<String> missing) {
+    }
+
+    /**
+     * Values found by retrieveMany, in request order, and the keys that were not present
+     */
+    public record ValuesResult(Map<String, String> values, List<String> missing) {
+    }
+
+    /**
+     * Whether the swap happened, and the value the key holds afterwards (null if absent)
+     */
+    public record CompareAndSetResult(boolean success, String value) {
+    }
+
+    private final KeyValueStore storage;
+
+    public DataStorageService(KeyValueStore storage) {
+        this.storage = storage;
+    }
 
-    @McpTool(name = "store", description = "Store a value with the given key in memory")
     public String store(String key, String value) {
+        return store(key, value, null);
+    }
+
+    @McpTool(name = "store", description = "Store a value with the given key in memory, optionally expiring after ttlSeconds")
+    public String store(
+            @McpToolParam(description = "Key to store the value under") String key,
+            @McpToolParam(description = "Value to store") String value,
+            @McpToolParam(description = "Remove the value after this many seconds; omit to keep it until deleted or evicted", required = false) Long ttlSeconds) {
         if (key == null || key.trim().isEmpty()) {
             throw new IllegalArgumentException("Key cannot be empty");
         }
         if (value == null) {
             throw new IllegalArgumentException("Value cannot be null");
         }
-        
-        storage.put(key, value);
-        return String.format("Stored value under key '%s'", key);
+        if (ttlSeconds == null) {
+            storage.put(key, value);
+            return String.format("Stored value under key '%s'", key);
+        }
+        if (ttlSeconds <= 0 || ttlSeconds > MAX_TTL_SECONDS) {
+            throw new IllegalArgumentException(String.format("TTL must be between 1 and %d seconds", MAX_TTL_SECONDS));
+        }
+
+        try {
+            storage.put(key, value, Duration.ofSeconds(ttlSeconds));
+        } catch (UnsupportedOperationException e) {
+            throw new IllegalArgumentException("TTLs are disabled on this server (mcp.server.storage.ttl.enabled=false)");
+        }
+        return String.format("Stored value under key '%s' for %d seconds", key, ttlSeconds);
     }
 
     @McpTool(name = "retrieve", description = "Retrieve a value by key from memory storage")
@@ -56,13 +115,48 @@ public class DataStorageService {
 
     @McpTool(name = "listKeys", description = "List all stored keys in memory")
     public String listKeys() {
-        Set<String> keys = storage.keySet();
+        Set<String> keys = storage.keys();
         if (keys.isEmpty()) {
             return "No keys stored";
         }
         return "Stored keys: " + String.join(", ", keys);
     }
 
+    @McpTool(name = "listKeysPage", description = "List stored keys in sorted pages. Pass nextCursor from the previous page as cursor to continue")
+    public Page listKeysPage(
+            @McpToolParam(description = "Only return keys starting with this prefix", required = false) String prefix,
+            @McpToolParam(description = "Maximum keys per page (default 100, max 1000)", required = false) Integer limit,
+            @McpToolParam(description = "nextCursor returned by the previous page", required = false) String cursor) {
+        return storage.scanKeys(emptyToNull(prefix), emptyToNull(cursor), Page.limit(limit));
+    }
+
+    @McpTool(name = "scanPrefix", description = "List keys starting with a prefix in sorted order, e.g. all keys under 'session:123:'. "
+            + "Pass nextCursor from the previous page as cursor to continue")
+    public Page scanPrefix(
+            @McpToolParam(description = "Key prefix to match") String prefix,
+            @McpToolParam(description = "Maximum keys per page (default 100, max 1000)", required = false) Integer limit,
+            @McpToolParam(description = "nextCursor returned by the previous page", required = false) String cursor) {
+        if (prefix == null || prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix cannot be empty");
+        }
+        return storage.scanKeys(prefix, emptyToNull(cursor), Page.limit(limit));
+    }
+
+    @McpTool(name = "scanRange", description = "List keys from 'from' (inclusive) up to 'to' (exclusive) in sorted order. "
+            + "Omit either bound to leave that end open. Pass nextCursor from the previous page as cursor to continue")
+    public Page scanRange(
+            @McpToolParam(description = "First key of the range, inclusive", required = false) String from,
+            @McpToolParam(description = "End of the range, exclusive", required = false) String to,
+            @McpToolParam(description = "Maximum keys per page (default 100, max 1000)", required = false) Integer limit,
+            @McpToolParam(description = "nextCursor returned by the previous page", required = false) String cursor) {
+        String lower = emptyToNull(from);
+        String upper = emptyToNull(to);
+        if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+            throw new IllegalArgumentException(String.format("Range start '%s' is after its end '%s'", lower, upper));
+        }
+        return storage.scanRange(lower, upper, emptyToNull(cursor), Page.limit(limit));
+    }
+
     @McpTool(name = "clear", description = "Clear all stored data from memory")
     public String clear() {
         int size = storage.size();
@@ -74,4 +168,125 @@ public class DataStorageService {
     public String count() {
         return String.format("Storage contains %d entries", storage.size());
     }
+
+    // ==================== BATCH AND ATOMIC OPERATIONS ====================
+
+    @McpTool(name = "storeMany", description = "Store several key-value pairs in one call")
+    public BatchResult storeMany(@McpToolParam(description = "Keys and the values to store under them") Map<String, String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("Entries cannot be empty");
+        }
+        requireBatchSize(entries.size());
+        Map<String, String> validated = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            requireKey(key);
+            if (value == null) {
+                throw new IllegalArgumentException(String.format("Value for key '%s' cannot be null", key));
+            }
+            validated.put(key, value);
+        });
+
+        storage.putAll(validated);
+        return new BatchResult(validated.size(), List.copyOf(validated.keySet()), List.of());
+    }
+
+    @McpTool(name = "retrieveMany", description = "Retrieve the values of several keys in one call")
+    public ValuesResult retrieveMany(@McpToolParam(description = "Keys to look up") List<String> keys) {
+        requireKeys(keys);
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            String value = storage.get(key);
+            if (value != null) {
+                values.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new ValuesResult(values, missing);
+    }
+
+    @McpTool(name = "deleteMany", description = "Delete several keys in one call")
+    public BatchResult deleteMany(@McpToolParam(description = "Keys to delete") List<String> keys) {
+        requireKeys(keys);
+        Set<String> removed = storage.removeAll(keys);
+        List<String> deleted = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String key : keys) {
+            if (removed.contains(key)) {
+                deleted.add(key);
+            } else {
+                missing.add(key);
+            }
+        }
+        return new BatchResult(deleted.size(), deleted, missing);
+    }
+
+    @McpTool(name = "compareAndSet", description = "Atomically set a key to newValue only if it currently holds expected. "
+            + "Omit expected to set the key only if it does not exist yet")
+    public CompareAndSetResult compareAndSet(
+            @McpToolParam(description = "Key to update") String key,
+            @McpToolParam(description = "Value the key must currently hold; omit to require that the key is absent", required = false) String expected,
+            @McpToolParam(description = "Value to store when the current value matches") String newValue) {
+        requireKey(key);
+        if (newValue == null) {
+            throw new IllegalArgumentException("New value cannot be null");
+        }
+        boolean[] swapped = new boolean[1];
+        String value = storage.compute(key, current -> {
+            if (Objects.equals(current, expected)) {
+                swapped[0] = true;
+                return newValue;
+            }
+            return current;
+        });
+        return new CompareAndSetResult(swapped[0], value);
+    }
+
+    @McpTool(name = "increment", description = "Atomically add delta to the integer stored under a key and return the new value. "
+            + "A missing key counts as 0")
+    public long increment(
+            @McpToolParam(description = "Key holding the counter") String key,
+            @McpToolParam(description = "Amount to add, may be negative (default 1)", required = false) Long delta) {
+        requireKey(key);
+        long step = delta != null ? delta : 1;
+        String value = storage.compute(key, current -> {
+            long base;
+            try {
+                base = current == null ? 0 : Long.parseLong(current.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("Value of key '%s' is not an integer: %s", key, current));
+            }
+            try {
+                return Long.toString(Math.addExact(base, step));
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(String.format("Incrementing key '%s' by %d would overflow", key, step));
+            }
+        });
+        return Long.parseLong(value);
+    }
+
+    private static void requireKey(String key) {
+        if (key == null || key.trim().isEmpty()) {
+            throw new IllegalArgumentException("Key cannot be empty");
+        }
+    }
+
+    private static void requireKeys(List<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("Keys cannot be empty");
+        }
+        requireBatchSize(keys.size());
+        keys.forEach(DataStorageService::requireKey);
+    }
+
+    private static void requireBatchSize(int size) {
+        if (size > MAX_BATCH_KEYS) {
+            throw new IllegalArgumentException(String.format("At most %d keys per call, got %d", MAX_BATCH_KEYS, size));
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
 }
@@ -0,0 +1,675 @@
+package com.example.mcpserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-key time to live and a size budget on top of any storage backend.
+ *
+ * Keys stored with a TTL are scheduled on a TimingWheel that a daemon thread
+ * advances every tick, removing whatever has become due; no pass over all keys
+ * is made. A read of a key past its deadline already returns null before that.
+ *
+ * Without a budget only keys that have a TTL get an on-heap entry, so a compact
+ * backend stays compact for everything else. With maxEntries or maxBytes set,
+ * every key is tracked and a write that takes the store over budget evicts keys
+ * in LRU or LFU order until it fits again. Sizes are estimated from the UTF-16
+ * length of key and value plus a fixed overhead per entry.
+ *
+ * The metadata of a key is updated inside the backend's computeWithExpiry, so
+ * it always matches the stored value. Expiry and eviction remove a key only if
+ * it still holds the entry they picked; a key rewritten in the meantime is kept.
+ * Deadlines are wall-clock times handed to the backend with each write, so the
+ * wal backend persists them and they are scheduled again after a restart.
+ *
+ * With keyIndex set, the keys are also kept in a ConcurrentSkipListSet next to
+ * the backend's hash map, so prefix and range scans cost O(log n + k) instead of
+ * a pass over all keys. Each write then pays one more O(log n) insert or remove,
+ * done inside the backend's compute so the index matches the stored keys.
+ */
+public class ExpiringKeyValueStore implements KeyValueStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiringKeyValueStore.class);
+
+    static final long ENTRY_OVERHEAD_BYTES = 64;
+    private static final int MAX_EVICTION_RETRIES = 64;
+
+    /**
+     * Order in which keys are evicted once the store is over budget
+     */
+    public enum EvictionPolicy {
+        LRU, LFU;
+
+        public static EvictionPolicy of(String name) {
+            if (name == null) {
+                throw new IllegalArgumentException("Eviction policy cannot be empty");
+            }
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown eviction policy '" + name + "', expected lru or lfu");
+            }
+        }
+    }
+
+    /**
+     * Metadata of one stored value. A new entry is created whenever the key is
+     * put, so identity tells whether the key was rewritten.
+     */
+    private static final class Entry {
+        final long expiresAt;
+        long bytes;
+        long frequency;
+
+        Entry(long bytes, long expiresAt) {
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean expired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+
+    private record Candidate(String key, Entry entry) {
+    }
+
+    private final KeyValueStore delegate;
+    private final long maxEntries;
+    private final long maxBytes;
+    private final EvictionPolicy policy;
+    private final boolean trackAll;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final EvictionOrder order;
+    private final TimingWheel<Candidate> wheel;
+    private final NavigableSet<String> index;
+    private final ScheduledExecutorService expirer;
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long bytes;
+    private long expiringEntries;
+
+    /**
+     * @param delegate   backend holding the values
+     * @param maxEntries evict once more keys are stored, 0 for no limit
+     * @param maxBytes   evict once the estimated size is larger, 0 for no limit
+     * @param policy     which keys to evict first
+     * @param tickMillis expiry resolution; keys are removed up to one tick after their deadline
+     * @param keyIndex   keep a sorted index of the keys for scanKeys and scanRange
+     */
+    public ExpiringKeyValueStore(KeyValueStore delegate, long maxEntries, long maxBytes,
+                                 EvictionPolicy policy, long tickMillis, boolean keyIndex) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+        this.order = maxEntries > 0 || maxBytes > 0
+                ? (policy == EvictionPolicy.LFU ? new LfuOrder() : new LruOrder())
+                : null;
+        this.trackAll = order != null;
+        this.wheel = new TimingWheel<>(tickMillis, now());
+        this.index = keyIndex ? new ConcurrentSkipListSet<>() : null;
+
+        Map<String, Long> expiries = delegate.expiries();
+        lock.lock();
+        try {
+            for (String key : trackAll || index != null ? delegate.keys() : expiries.keySet()) {
+                String value = delegate.get(key);
+                if (value == null) {
+                    continue;
+                }
+                long expiresAt = expiries.getOrDefault(key, 0L);
+                if (trackAll || expiresAt != 0) {
+                    replace(key, new Entry(trackAll ? estimate(key, value) : 0, expiresAt));
+                }
+                if (index != null) {
+                    index.add(key);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        evictWhileOverBudget(null);
+
+        expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expirer.scheduleWithFixedDelay(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String get(String key) {
+        String value = delegate.get(key);
+        if (value == null || entries.isEmpty()) {
+            return value;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return value;
+        }
+        if (entry.expired(now())) {
+            if (removeIfCurrent(key, entry)) {
+                expirations.incrementAndGet();
+            }
+            return null;
+        }
+        if (order != null) {
+            lock.lock();
+            try {
+                if (entries.get(key) == entry) {
+                    order.touch(key, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return put(key, value, null);
+    }
+
+    /**
+     * Store a value that expires after ttl, or never if ttl is null.
+     * A put without ttl clears the expiry of an existing key.
+     */
+    @Override
+    public String put(String key, String value, Duration ttl) {
+        if (ttl != null && (ttl.isNegative() || ttl.isZero())) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        long size = trackAll ? estimate(key, value) : 0;
+        if (maxBytes > 0 && size > maxBytes) {
+            throw new IllegalArgumentException(String.format(
+                    "Value for key '%s' needs about %d bytes, more than the storage budget of %d bytes", key, size, maxBytes));
+        }
+        long expiresAt = ttl == null ? 0 : now() + ttl.toMillis();
+        Entry entry = trackAll || expiresAt != 0 ? new Entry(size, expiresAt) : null;
+        String[] previous = new String[1];
+        delegate.computeWithExpiry(key, current -> {
+            Entry old = entries.get(key);
+            previous[0] = old != null && old.expired(now()) ? null : current;
+            if (entry != null || old != null) {
+                lock.lock();
+                try {
+                    replace(key, entry);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (index != null) {
+                index.add(key);
+            }
+            return new ExpiringValue(value, expiresAt);
+        });
+        evictWhileOverBudget(key);
+        return previous[0];
+    }
+
+    @Override
+    public String remove(String key) {
+        String[] removed = new String[1];
+        delegate.computeWithExpiry(key, current -> {
+            Entry old = entries.get(key);
+            removed[0] = old != null && old.expired(now()) ? null : current;
+            if (old != null) {
+                lock.lock();
+                try {
+                    replace(key, null);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (index != null) {
+                index.remove(key);
+            }
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * An expired value is passed to the update as absent. The key keeps its
+     * expiry when updated in place, like the counter behind increment.
+     */
+    @Override
+    public String compute(String key, UnaryOperator<String> update) {
+        String result = delegate.computeWithExpiry(key, current -> {
+            Entry entry = entries.get(key);
+            boolean expired = entry != null && entry.expired(now());
+            String next = update.apply(expired ? null : current);
+            boolean live = entry != null && !expired;
+            if (entry != null || trackAll) {
+                lock.lock();
+                try {
+                    if (next == null) {
+                        replace(key, null);
+                    } else if (live && entries.get(key) == entry) {
+                        if (trackAll) {
+                            long size = estimate(key, next);
+                            bytes += size - entry.bytes;
+                            entry.bytes = size;
+                            order.touch(key, entry);
+                        }
+                    } else {
+                        replace(key, trackAll ? new Entry(estimate(key, next), 0) : null);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (index != null) {
+                if (next == null) {
+                    index.remove(key);
+                } else {
+                    index.add(key);
+                }
+            }
+            return next == null ? null : new ExpiringValue(next, live ? entry.expiresAt : 0);
+        });
+        if (result != null) {
+            evictWhileOverBudget(key);
+        }
+        return result;
+    }
+
+    /**
+     * Keys past their deadline stay listed until the next tick removes them
+     */
+    @Override
+    public Set<String> keys() {
+        return delegate.keys();
+    }
+
+    @Override
+    public Page scanKeys(String prefix, String cursor, int limit) {
+        if (index == null) {
+            return delegate.scanKeys(prefix, cursor, limit);
+        }
+        return indexPage(prefix, cursor, null, prefix, limit);
+    }
+
+    @Override
+    public Page scanRange(String from, String to, String cursor, int limit) {
+        if (index == null) {
+            return delegate.scanRange(from, to, cursor, limit);
+        }
+        return indexPage(from, cursor, to, null, limit);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    /**
+     * A write racing with clear can leave its key out of the metadata and the
+     * index until the key is written again
+     */
+    @Override
+    public void clear() {
+        delegate.clear();
+        if (index != null) {
+            index.clear();
+        }
+        lock.lock();
+        try {
+            entries.clear();
+            if (order != null) {
+                order.clear();
+            }
+            bytes = 0;
+            expiringEntries = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>(delegate.stats());
+        lock.lock();
+        try {
+            if (trackAll) {
+                stats.put("estimatedBytes", bytes);
+            }
+            stats.put("trackedEntries", entries.size());
+            stats.put("expiringEntries", expiringEntries);
+            stats.put("pendingTimers", wheel.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxBytes", maxBytes);
+        stats.put("evictionPolicy", policy.name().toLowerCase(Locale.ROOT));
+        stats.put("expiryTickMillis", wheel.tickMillis());
+        stats.put("expirations", expirations.get());
+        stats.put("evictions", evictions.get());
+        stats.put("keyIndex", index != null);
+        return stats;
+    }
+
+    /**
+     * Keys removed because their TTL passed
+     */
+    public long expirations() {
+        return expirations.get();
+    }
+
+    /**
+     * Keys removed to stay within maxEntries and maxBytes
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Estimated size of the stored keys and values; only tracked with a budget set
+     */
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        expirer.shutdownNow();
+        delegate.close();
+    }
+
+    // ==================== KEY INDEX ====================
+
+    /**
+     * Up to limit keys from the index, starting at lower (inclusive) or after the
+     * cursor, whichever is later, and ending before upper or at the first key
+     * without the prefix. Only the keys returned are visited.
+     */
+    private Page indexPage(String lower, String cursor, String upper, String prefix, int limit) {
+        NavigableSet<String> view;
+        if (cursor != null && (lower == null || cursor.compareTo(lower) >= 0)) {
+            view = index.tailSet(cursor, false);
+        } else {
+            view = lower == null ? index : index.tailSet(lower, true);
+        }
+        List<String> keys = new ArrayList<>(Math.min(limit + 1, Page.DEFAULT_LIMIT + 1));
+        for (String key : view) {
+            if ((upper != null && key.compareTo(upper) >= 0) || (prefix != null && !key.startsWith(prefix))) {
+                break;
+            }
+            keys.add(key);
+            // One extra key tells whether another page follows
+            if (keys.size() > limit) {
+                break;
+            }
+        }
+        return Page.of(keys, limit);
+    }
+
+    // ==================== EXPIRY AND EVICTION ====================
+
+    private void expireDue() {
+        try {
+            List<Candidate> due = new ArrayList<>();
+            lock.lock();
+            try {
+                wheel.advance(now(), due::add);
+            } finally {
+                lock.unlock();
+            }
+            for (Candidate candidate : due) {
+                if (entries.get(candidate.key()) == candidate.entry() && removeIfCurrent(candidate.key(), candidate.entry())) {
+                    expirations.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to expire keys", e);
+        }
+    }
+
+    /**
+     * Evict until the store is within budget again. The key just written is only
+     * evicted if nothing else is left.
+     */
+    private void evictWhileOverBudget(String written) {
+        if (order == null) {
+            return;
+        }
+        int retries = 0;
+        while (retries < MAX_EVICTION_RETRIES) {
+            Candidate victim;
+            lock.lock();
+            try {
+                if (!overBudget()) {
+                    return;
+                }
+                String key = order.victim(written);
+                if (key == null) {
+                    return;
+                }
+                victim = new Candidate(key, entries.get(key));
+            } finally {
+                lock.unlock();
+            }
+            if (removeIfCurrent(victim.key(), victim.entry())) {
+                evictions.incrementAndGet();
+            } else {
+                retries++;
+            }
+        }
+    }
+
+    /**
+     * Remove the key if it still holds the given entry
+     */
+    private boolean removeIfCurrent(String key, Entry expected) {
+        boolean[] removed = new boolean[1];
+        delegate.computeWithExpiry(key, current -> {
+            lock.lock();
+            try {
+                Entry entry = entries.get(key);
+                if (entry != expected) {
+                    return current == null ? null : new ExpiringValue(current, entry != null ? entry.expiresAt : 0);
+                }
+                replace(key, null);
+                removed[0] = current != null;
+            } finally {
+                lock.unlock();
+            }
+            if (index != null) {
+                index.remove(key);
+            }
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Install the entry of a key, replacing its previous one, or drop it if the
+     * entry is null. Called under the lock.
+     */
+    private void replace(String key, Entry entry) {
+        Entry old = entry == null ? entries.remove(key) : entries.put(key, entry);
+        if (old != null) {
+            detach(key, old);
+        }
+        if (entry == null) {
+            return;
+        }
+        if (old != null) {
+            entry.frequency = old.frequency;
+        }
+        bytes += entry.bytes;
+        if (entry.expiresAt != 0) {
+            expiringEntries++;
+            wheel.schedule(new Candidate(key, entry), entry.expiresAt);
+        }
+        if (order != null) {
+            order.add(key, entry);
+            order.touch(key, entry);
+        }
+    }
+
+    /**
+     * Drop the accounting of an entry that is no longer current. Called under the lock.
+     * Its timer stays in the wheel and is ignored when it fires.
+     */
+    private void detach(String key, Entry entry) {
+        bytes -= entry.bytes;
+        if (entry.expiresAt != 0) {
+            expiringEntries--;
+        }
+        if (order != null) {
+            order.remove(key, entry);
+        }
+    }
+
+    private boolean overBudget() {
+        return (maxEntries > 0 && entries.size() > maxEntries) || (maxBytes > 0 && bytes > maxBytes);
+    }
+
+    /**
+     * Wall-clock time, since deadlines are persisted by the backend and compared
+     * again after a restart
+     */
+    private long now() {
+        return System.currentTimeMillis();
+    }
+
+    private static long estimate(String key, String value) {
+        return ENTRY_OVERHEAD_BYTES + 2L * (key.length() + value.length());
+    }
+
+    // ==================== EVICTION ORDER ====================
+
+    /**
+     * Eviction candidates in order. Only used under the lock.
+     */
+    private interface EvictionOrder {
+
+        void add(String key, Entry entry);
+
+        void touch(String key, Entry entry);
+
+        void remove(String key, Entry entry);
+
+        /**
+         * The key to evict first, other than the excluded one, or null if there is none
+         */
+        String victim(String excluded);
+
+        void clear();
+    }
+
+    /**
+     * Least recently used first, kept in an access-ordered LinkedHashMap
+     */
+    private static final class LruOrder implements EvictionOrder {
+
+        private final LinkedHashMap<String, Entry> recency = new LinkedHashMap<>(16, 0.75f, true);
+
+        @Override
+        public void add(String key, Entry entry) {
+            recency.put(key, entry);
+        }
+
+        @Override
+        public void touch(String key, Entry entry) {
+            recency.get(key);
+        }
+
+        @Override
+        public void remove(String key, Entry entry) {
+            recency.remove(key);
+        }
+
+        @Override
+        public String victim(String excluded) {
+            for (String key : recency.keySet()) {
+                if (!key.equals(excluded)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            recency.clear();
+        }
+    }
+
+    /**
+     * Least frequently used first, least recently used among equal counts.
+     * Keys are grouped in buckets by access count; counts are not aged.
+     */
+    private static final class LfuOrder implements EvictionOrder {
+
+        private final TreeMap<Long, LinkedHashSet<String>> buckets = new TreeMap<>();
+
+        @Override
+        public void add(String key, Entry entry) {
+            buckets.computeIfAbsent(entry.frequency, frequency -> new LinkedHashSet<>()).add(key);
+        }
+
+        @Override
+        public void touch(String key, Entry entry) {
+            remove(key, entry);
+            entry.frequency++;
+            add(key, entry);
+        }
+
+        @Override
+        public void remove(String key, Entry entry) {
+            LinkedHashSet<String> bucket = buckets.get(entry.frequency);
+            if (bucket != null && bucket.remove(key) && bucket.isEmpty()) {
+                buckets.remove(entry.frequency);
+            }
+        }
+
+        @Override
+        public String victim(String excluded) {
+            for (LinkedHashSet<String> bucket : buckets.values()) {
+                for (String key : bucket) {
+                    if (!key.equals(excluded)) {
+                        return key;
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void clear() {
+            buckets.clear();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.example.mcpserver;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compiles arithmetic expressions for the evaluate tool.
+ *
+ * An expression is parsed once into a tree of nodes. Variables become slot
+ * indexes and constant subtrees are folded. Compiled expressions are kept in
+ * an LRU cache keyed by the expression text, so repeated evaluations with
+ * different variable bindings skip the parser entirely.
+ *
+ * Grammar: + - * / % with the usual precedence, right-associative ^, unary
+ * minus, parentheses, numbers (with exponents), variables, the constants pi
+ * and e, and the functions listed in FUNCTIONS.
+ */
+@Component
+public class ExpressionEngine {
+
+    static final int MAX_LENGTH = 4096;
+    static final int MAX_DEPTH = 64;
+
+    private static final Map<String, DoubleUnaryOperator> FUNCTIONS = Map.ofEntries(
+            Map.entry("sqrt", x -> {
+                if (x < 0) {
+                    throw new IllegalArgumentException("Cannot calculate square root of negative number");
+                }
+                return Math.sqrt(x);
+            }),
+            Map.entry("abs", Math::abs),
+            Map.entry("exp", Math::exp),
+            Map.entry("ln", x -> log(x, Math::log)),
+            Map.entry("log", x -> log(x, Math::log)),
+            Map.entry("log10", x -> log(x, Math::log10)),
+            Map.entry("sin", Math::sin),
+            Map.entry("cos", Math::cos),
+            Map.entry("tan", Math::tan),
+            Map.entry("asin", Math::asin),
+            Map.entry("acos", Math::acos),
+            Map.entry("atan", Math::atan),
+            Map.entry("floor", Math::floor),
+            Map.entry("ceil", Math::ceil),
+            Map.entry("round", x -> (double) Math.round(x))
+    );
+
+    private static final Map<String, DoubleBinaryOperator> BINARY_FUNCTIONS = Map.of(
+            "pow", Math::pow,
+            "atan2", Math::atan2,
+            "min", Math::min,
+            "max", Math::max
+    );
+
+    private static final Map<String, Double> CONSTANTS = Map.of("pi", Math.PI, "e", Math.E);
+
+    private final int cacheSize;
+    private final Map<String, CompiledExpression> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public ExpressionEngine(@Value("${mcp.server.expressions.cache-size:1024}") int cacheSize) {
+        this.cacheSize = Math.max(1, cacheSize);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > ExpressionEngine.this.cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Compile the expression, or return the cached compilation
+     */
+    public CompiledExpression compile(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Expression cannot be empty");
+        }
+        if (expression.length() > MAX_LENGTH) {
+            throw new IllegalArgumentException("Expression is longer than " + MAX_LENGTH + " characters");
+        }
+        synchronized (cache) {
+            CompiledExpression cached = cache.get(expression);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        // Parse outside the lock; a concurrent miss on the same text just compiles it twice
+        CompiledExpression compiled = new Parser(expression).parse();
+        synchronized (cache) {
+            cache.put(expression, compiled);
+        }
+        return compiled;
+    }
+
+    /**
+     * Compile (or reuse) and evaluate the expression with the given variables
+     */
+    public double evaluate(String expression, Map<String, ? extends Number> variables) {
+        return compile(expression).evaluate(variables);
+    }
+
+    /**
+     * Cache size and hit/miss counters
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (cache) {
+            stats.put("cached", cache.size());
+        }
+        stats.put("maxCached", cacheSize);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private static double log(double x, DoubleUnaryOperator log) {
+        if (x <= 0) {
+            throw new IllegalArgumentException("Cannot calculate logarithm of a non-positive number");
+        }
+        return log.applyAsDouble(x);
+    }
+
+    /**
+     * A parsed expression, safe to evaluate from many threads at once
+     */
+    public static final class CompiledExpression {
+
+        private final String text;
+        private final Node root;
+        private final List<String> variables;
+
+        CompiledExpression(String text, Node root, List<String> variables) {
+            this.text = text;
+            this.root = root;
+            this.variables = List.copyOf(variables);
+        }
+
+        /**
+         * Names of the variables the expression uses
+         */
+        public List<String> variables() {
+            return variables;
+        }
+
+        public double evaluate(Map<String, ? extends Number> bindings) {
+            double[] slots = new double[variables.size()];
+            for (int i = 0; i < slots.length; i++) {
+                Number value = bindings != null ? bindings.get(variables.get(i)) : null;
+                if (value == null) {
+                    throw new IllegalArgumentException("No value given for variable '" + variables.get(i) + "'");
+                }
+                slots[i] = value.doubleValue();
+            }
+            return root.eval(slots);
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    // ==================== NODES ====================
+
+    interface Node {
+        double eval(double[] slots);
+    }
+
+    private record Constant(double value) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return value;
+        }
+    }
+
+    private record Variable(int slot) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return slots[slot];
+        }
+    }
+
+    private record Negate(Node operand) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return -operand.eval(slots);
+        }
+    }
+
+    private record Add(Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return left.eval(slots) + right.eval(slots);
+        }
+    }
+
+    private record Subtract(Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return left.eval(slots) - right.eval(slots);
+        }
+    }
+
+    private record Multiply(Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return left.eval(slots) * right.eval(slots);
+        }
+    }
+
+    private record Divide(Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            double divisor = right.eval(slots);
+            if (divisor == 0) {
+                throw new IllegalArgumentException("Cannot divide by zero");
+            }
+            return left.eval(slots) / divisor;
+        }
+    }
+
+    private record Remainder(Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            double divisor = right.eval(slots);
+            if (divisor == 0) {
+                throw new IllegalArgumentException("Cannot divide by zero");
+            }
+            return left.eval(slots) % divisor;
+        }
+    }
+
+    private record Call(DoubleUnaryOperator function, Node argument) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return function.applyAsDouble(argument.eval(slots));
+        }
+    }
+
+    private record BinaryCall(DoubleBinaryOperator function, Node left, Node right) implements Node {
+        @Override
+        public double eval(double[] slots) {
+            return function.applyAsDouble(left.eval(slots), right.eval(slots));
+        }
+    }
+
+    // ==================== PARSER ====================
+
+    /**
+     * Recursive descent parser for one expression
+     */
+    private static final class Parser {
+
+        private final String text;
+        private final List<String> variables = new ArrayList<>();
+        private int position;
+        private int depth;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        CompiledExpression parse() {
+            Node root = expression();
+            skipWhitespace();
+            if (position < text.length()) {
+                throw error("Unexpected '" + text.charAt(position) + "'");
+            }
+            return new CompiledExpression(text, root, variables);
+        }
+
+        // expression := term (('+' | '-') term)*
+        private Node expression() {
+            enter();
+            Node node = term();
+            while (true) {
+                if (accept('+')) {
+                    Node right = term();
+                    node = fold(new Add(node, right), node, right);
+                } else if (accept('-')) {
+                    Node right = term();
+                    node = fold(new Subtract(node, right), node, right);
+                } else {
+                    depth--;
+                    return node;
+                }
+            }
+        }
+
+        // term := unary (('*' | '/' | '%') unary)*
+        private Node term() {
+            Node node = unary();
+            while (true) {
+                if (accept('*')) {
+                    Node right = unary();
+                    node = fold(new Multiply(node, right), node, right);
+                } else if (accept('/')) {
+                    Node right = unary();
+                    node = fold(new Divide(node, right), node, right);
+                } else if (accept('%')) {
+                    Node right = unary();
+                    node = fold(new Remainder(node, right), node, right);
+                } else {
+                    return node;
+                }
+            }
+        }
+
+        // unary := ('-' | '+') unary | power
+        private Node unary() {
+            if (accept('-')) {
+                enter();
+                Node operand = unary();
+                depth--;
+                return fold(new Negate(operand), operand);
+            }
+            if (accept('+')) {
+                enter();
+                Node operand = unary();
+                depth--;
+                return operand;
+            }
+            return power();
+        }
+
+        // power := primary ('^' unary)?   so 2^3^2 = 2^9 and -2^2 = -4
+        private Node power() {
+            Node base = primary();
+            if (accept('^')) {
+                enter();
+                Node exponent = unary();
+                depth--;
+                return fold(new BinaryCall(Math::pow, base, exponent), base, exponent);
+            }
+            return base;
+        }
+
+        // primary := number | '(' expression ')' | name | name '(' expression (',' expression)? ')'
+        private Node primary() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw error("Unexpected end of expression");
+            }
+            char c = text.charAt(position);
+            if (accept('(')) {
+                Node node = expression();
+                expect(')');
+                return node;
+            }
+            if (Character.isDigit(c) || c == '.') {
+                return number();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                return name();
+            }
+            throw error("Unexpected '" + c + "'");
+        }
+
+        private Node number() {
+            int start = position;
+            while (position < text.length() && (Character.isDigit(text.charAt(position)) || text.charAt(position) == '.')) {
+                position++;
+            }
+            if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+                int mark = position++;
+                if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) {
+                    position++;
+                }
+                if (position < text.length() && Character.isDigit(text.charAt(position))) {
+                    while (position < text.length() && Character.isDigit(text.charAt(position))) {
+                        position++;
+                    }
+                } else {
+                    position = mark;
+                }
+            }
+            String literal = text.substring(start, position);
+            try {
+                return new Constant(Double.parseDouble(literal));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error("Invalid number '" + literal + "'");
+            }
+        }
+
+        private Node name() {
+            int start = position;
+            while (position < text.length()
+                    && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+                position++;
+            }
+            String name = text.substring(start, position);
+            if (!accept('(')) {
+                Double constant = CONSTANTS.get(name);
+                if (constant != null) {
+                    return new Constant(constant);
+                }
+                int slot = variables.indexOf(name);
+                if (slot < 0) {
+                    slot = variables.size();
+                    variables.add(name);
+                }
+                return new Variable(slot);
+            }
+
+            DoubleUnaryOperator function = FUNCTIONS.get(name);
+            DoubleBinaryOperator binaryFunction = BINARY_FUNCTIONS.get(name);
+            if (function == null && binaryFunction == null) {
+                position = start;
+                throw error("Unknown function '" + name + "'");
+            }
+            Node first = expression();
+            if (function != null) {
+                expect(')');
+                return fold(new Call(function, first), first);
+            }
+            expect(',');
+            Node second = expression();
+            expect(')');
+            return fold(new BinaryCall(binaryFunction, first, second), first, second);
+        }
+
+        /**
+         * Replace a node whose operands are all constants by its value
+         */
+        private static Node fold(Node node, Node... operands) {
+            for (Node operand : operands) {
+                if (!(operand instanceof Constant)) {
+                    return node;
+                }
+            }
+            return new Constant(node.eval(new double[0]));
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw error("Expression is nested more than " + MAX_DEPTH + " levels deep");
+            }
+        }
+
+        private boolean accept(char expected) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) {
+            if (!accept(expected)) {
+                throw error(position < text.length()
+                        ? "Expected '" + expected + "' but found '" + text.charAt(position) + "'"
+                        : "Expected '" + expected + "' at end of expression");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + (position + 1) + " in '" + text + "'");
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.mcpserver;
 
 import org.springaicommunity.mcp.annotation.McpTool;
+import org.springaicommunity.mcp.annotation.McpToolParam;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -21,11 +31,47 @@ import java.util.stream.Stream;
 @Service
 public class FileService {
 
+    /**
+     * Largest range a single readFileRange or writeFileChunk call transfers
+     */
+    public static final int MAX_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * Ranges at least this large are read through a memory-mapped buffer
+     */
+    private static final int MAP_THRESHOLD_BYTES = 256 * 1024;
+
+    private static final String PART_SUFFIX = ".part";
+
+    /**
+     * A byte range of a file. data is base64 unless encoding is "utf8".
+     */
+    public record FileChunk(String filename, long offset, int length, long fileSize, boolean eof,
+                            String encoding, String data) {
+    }
+
+    /**
+     * Outcome of a chunked upload call. Resume an interrupted upload from nextOffset.
+     */
+    public record ChunkWrite(String filename, long offset, int bytesWritten, long nextOffset, boolean complete) {
+    }
+
     private final Path workspaceDir;
 
-    public FileService() {
+    private final FileWriteCoordinator writeCoordinator;
+
+    @Autowired
+    public FileService(FileWriteCoordinator writeCoordinator) {
         // Create a workspace directory for file operations
-        this.workspaceDir = Paths.get(System.getProperty("user.home"), ".mcp-demo-workspace");
+        this(writeCoordinator, Paths.get(System.getProperty("user.home"), ".mcp-demo-workspace"));
+    }
+
+    /**
+     * Use the given workspace directory, e.g. a temp directory in benchmarks
+     */
+    public FileService(FileWriteCoordinator writeCoordinator, Path workspaceDir) {
+        this.writeCoordinator = writeCoordinator;
+        this.workspaceDir = workspaceDir;
         try {
             Files.createDirectories(workspaceDir);
         } catch (IOException e) {
@@ -47,11 +93,96 @@ public class FileService {
         }
     }
 
+    @McpTool(name = "readFileRange", description = "Read up to 1 MB of a file starting at a byte offset. Use for large files; continue from offset + length until eof")
+    public FileChunk readFileRange(
+            String filename,
+            @McpToolParam(description = "Byte offset to start reading at (default 0)", required = false) Long offset,
+            @McpToolParam(description = "Number of bytes to read (default and max 1048576)", required = false) Integer length,
+            @McpToolParam(description = "base64 (default) or utf8", required = false) String encoding) throws IOException {
+        Path filePath = workspaceDir.resolve(filename);
+        if (!Files.isRegularFile(filePath)) {
+            throw new IllegalArgumentException(String.format("File '%s' does not exist", filename));
+        }
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long start = offset != null ? offset : 0;
+            if (start < 0 || start > size) {
+                throw new IllegalArgumentException(String.format("Offset %d is outside '%s' (%d bytes)", start, filename, size));
+            }
+            int requested = length != null && length >= 0 ? Math.min(length, MAX_CHUNK_BYTES) : MAX_CHUNK_BYTES;
+            int count = (int) Math.min(requested, size - start);
+
+            byte[] bytes = readRange(channel, start, count);
+            boolean utf8 = "utf8".equalsIgnoreCase(encoding);
+            String data = utf8 ? new String(bytes, StandardCharsets.UTF_8) : Base64.getEncoder().encodeToString(bytes);
+            return new FileChunk(filename, start, count, size, start + count >= size, utf8 ? "utf8" : "base64", data);
+        }
+    }
+
+    @McpTool(name = "writeFileChunk", description = "Upload a file in chunks of up to 1 MB. Chunks go to a partial file that replaces the target when last is true. Omit offset to append; resume an interrupted upload from nextOffset")
+    public ChunkWrite writeFileChunk(
+            String filename,
+            @McpToolParam(description = "Chunk content") String data,
+            @McpToolParam(description = "Byte offset of this chunk (default: end of the partial upload)", required = false) Long offset,
+            @McpToolParam(description = "base64 (default) or utf8", required = false) String encoding,
+            @McpToolParam(description = "true on the final chunk to publish the file", required = false) Boolean last) throws IOException {
+        if (data == null) {
+            throw new IllegalArgumentException(String.format("No data given for the chunk of '%s'", filename));
+        }
+        if (offset != null && offset < 0) {
+            throw new IllegalArgumentException(String.format("Offset %d cannot be negative", offset));
+        }
+        byte[] bytes;
+        try {
+            bytes = "utf8".equalsIgnoreCase(encoding)
+                    ? data.getBytes(StandardCharsets.UTF_8)
+                    : Base64.getDecoder().decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(String.format("Chunk of '%s' is not valid base64: %s", filename, e.getMessage()));
+        }
+        if (bytes.length > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException(String.format("Chunk of %d bytes exceeds the %d byte limit", bytes.length, MAX_CHUNK_BYTES));
+        }
+
+        Path target = workspaceDir.resolve(filename);
+        Path part = workspaceDir.resolve(filename + PART_SUFFIX);
+        boolean complete = Boolean.TRUE.equals(last);
+        return writeCoordinator.withLock(target, () -> {
+            long start;
+            long nextOffset;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                long current = channel.size();
+                start = offset != null ? offset : current;
+                // Re-sending an already written chunk is allowed, skipping ahead is not
+                if (start > current) {
+                    throw new IllegalArgumentException(String.format(
+                            "Offset %d does not match the upload of '%s'; resume from offset %d", start, filename, current));
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                long position = start;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                if (complete) {
+                    channel.truncate(position);
+                    channel.force(true);
+                }
+                nextOffset = complete ? position : Math.max(current, position);
+            }
+
+            if (complete) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new ChunkWrite(filename, start, bytes.length, nextOffset, complete);
+        });
+    }
+
     @McpTool(name = "writeFile", description = "Write content to a file in the workspace (creates or overwrites)")
     public String writeFile(String filename, String content) {
         try {
             Path filePath = workspaceDir.resolve(filename);
-            Files.writeString(filePath, content);
+            writeCoordinator.writeAtomically(filePath, content.getBytes(StandardCharsets.UTF_8));
             return String.format("Successfully wrote %d characters to '%s'", content.length(), filename);
         } catch (IOException e) {
             return String.format("Error writing file '%s': %s", filename, e.getMessage());
@@ -62,11 +193,10 @@ public class FileService {
     public String appendToFile(String filename, String content) {
         try {
             Path filePath = workspaceDir.resolve(filename);
-            if (!Files.exists(filePath)) {
-                return String.format("File '%s' does not exist. Use writeFile to create it first.", filename);
-            }
-            Files.writeString(filePath, content, StandardOpenOption.APPEND);
+            writeCoordinator.append(filePath, content.getBytes(StandardCharsets.UTF_8));
             return String.format("Successfully appended %d characters to '%s'", content.length(), filename);
+        } catch (NoSuchFileException e) {
+            return String.format("File '%s' does not exist. Use writeFile to create it first.", filename);
         } catch (IOException e) {
             return String.format("Error appending to file '%s': %s", filename, e.getMessage());
         }
@@ -76,7 +206,7 @@ public class FileService {
     public String listFiles() {
         try (Stream<Path> paths = Files.list(workspaceDir)) {
             List<String> files = paths
-                    .filter(Files::isRegularFile)
+                    .filter(FileService::isListed)
                     .map(Path::getFileName)
                     .map(Path::toString)
                     .sorted()
@@ -91,14 +221,34 @@ public class FileService {
         }
     }
 
+    @McpTool(name = "listFilesPage", description = "List workspace files in sorted pages. Pass nextCursor from the previous page as cursor to continue")
+    public Page listFilesPage(
+            @McpToolParam(description = "Only return files whose name starts with this prefix", required = false) String prefix,
+            @McpToolParam(description = "Maximum files per page (default 100, max 1000)", required = false) Integer limit,
+            @McpToolParam(description = "nextCursor returned by the previous page", required = false) String cursor) throws IOException {
+        String namePrefix = prefix == null || prefix.isEmpty() ? null : prefix;
+        Page.Collector collector = new Page.Collector(namePrefix,
+                cursor == null || cursor.isEmpty() ? null : cursor, Page.limit(limit));
+
+        // Stream directory entries so only one page of names is held in memory
+        DirectoryStream.Filter<Path> filter = path -> isListed(path)
+                && (namePrefix == null || path.getFileName().toString().startsWith(namePrefix));
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(workspaceDir, filter)) {
+            for (Path entry : entries) {
+                collector.offer(entry.getFileName().toString());
+            }
+        }
+        return collector.toPage();
+    }
+
     @McpTool(name = "deleteFile", description = "Delete a file from the workspace")
     public String deleteFile(String filename) {
         try {
             Path filePath = workspaceDir.resolve(filename);
-            if (!Files.exists(filePath)) {
+            boolean deleted = writeCoordinator.withLock(filePath, () -> Files.deleteIfExists(filePath));
+            if (!deleted) {
                 return String.format("File '%s' does not exist", filename);
             }
-            Files.delete(filePath);
             return String.format("Successfully deleted '%s'", filename);
         } catch (IOException e) {
             return String.format("Error deleting file '%s': %s", filename, e.getMessage());
@@ -121,6 +271,34 @@ public class FileService {
         }
     }
 
+    /**
+     * Files a listing shows: partial uploads and atomic-write temp files are left out
+     */
+    private static boolean isListed(Path path) {
+        return Files.isRegularFile(path)
+                && !path.getFileName().toString().endsWith(PART_SUFFIX)
+                && !FileWriteCoordinator.isTempFile(path);
+    }
+
+    /**
+     * Read a byte range, through a memory-mapped buffer for large ranges
+     */
+    private static byte[] readRange(FileChannel channel, long start, int count) throws IOException {
+        byte[] bytes = new byte[count];
+        if (count >= MAP_THRESHOLD_BYTES) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, count);
+            mapped.get(bytes);
+            return bytes;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return bytes;
+    }
+
     @McpTool(name = "getWorkspacePath", description = "Get the workspace directory path")
     public String getWorkspacePath() {
         return "Workspace directory: " + workspaceDir.toAbsolutePath().toString();
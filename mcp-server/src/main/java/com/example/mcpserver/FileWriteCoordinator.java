@@ -0,0 +1,248 @@
+package com.example.mcpserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Coordinates writes to workspace files.
+ *
+ * Every change to a file runs under one of a fixed set of striped locks, so
+ * writes, appends and deletes of the same file never interleave. Appends are
+ * queued per file and written by whichever caller holds the lock, so many
+ * small concurrent appends become one gathering write. Whole-file writes go
+ * to a temp file that is renamed over the target, so readers see either the
+ * old or the new content and never a partial file.
+ */
+@Component
+public class FileWriteCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileWriteCoordinator.class);
+
+    /**
+     * Name of the sibling temp file writeAtomically renames over its target: .&lt;name&gt;.&lt;n&gt;.tmp
+     */
+    private static final Pattern TEMP_FILE = Pattern.compile("\\..+\\.\\d+\\.tmp");
+
+    /**
+     * An append waiting for the current lock holder to write it
+     */
+    private record PendingAppend(byte[] bytes, CompletableFuture<Void> done) {
+    }
+
+    /**
+     * A file operation run while holding the file's lock
+     */
+    @FunctionalInterface
+    public interface FileAction<T> {
+        T run() throws IOException;
+    }
+
+    private final ReentrantLock[] stripes;
+    private final long flushIntervalNanos;
+    private final int maxBatchBytes;
+    private final Map<Path, Queue<PendingAppend>> appendQueues = new ConcurrentHashMap<>();
+    private final AtomicLong tempFiles = new AtomicLong();
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong appendBatches = new AtomicLong();
+    private final AtomicLong atomicWrites = new AtomicLong();
+    private final AtomicLong contendedLocks = new AtomicLong();
+
+    /**
+     * Default settings, used outside of Spring (e.g. benchmarks)
+     */
+    public FileWriteCoordinator() {
+        this(64, 0, 1 << 20);
+    }
+
+    /**
+     * @param lockStripes         number of striped locks shared by all files
+     * @param flushIntervalMillis how long the writer waits for more appends before writing a batch; 0 writes at once
+     * @param maxBatchBytes       largest batch of appends written in one call
+     */
+    @Autowired
+    public FileWriteCoordinator(@Value("${mcp.server.files.lock-stripes:64}") int lockStripes,
+                                @Value("${mcp.server.files.append.flush-interval-ms:0}") long flushIntervalMillis,
+                                @Value("${mcp.server.files.append.max-batch-bytes:1048576}") int maxBatchBytes) {
+        int count = Integer.highestOneBit(Math.max(lockStripes, 1) - 1) << 1;
+        this.stripes = new ReentrantLock[Math.max(count, 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.flushIntervalNanos = flushIntervalMillis * 1_000_000;
+        this.maxBatchBytes = Math.max(maxBatchBytes, 1);
+        logger.info("File writes use {} lock stripes (append flush interval {} ms)", stripes.length, flushIntervalMillis);
+    }
+
+    /**
+     * Run an operation while holding the lock of the given file
+     */
+    public <T> T withLock(Path path, FileAction<T> action) throws IOException {
+        ReentrantLock lock = lockFor(key(path));
+        acquire(lock);
+        try {
+            return action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Append to an existing file. Returns once the bytes are written;
+     * throws NoSuchFileException if the file does not exist.
+     */
+    public void append(Path path, byte[] bytes) throws IOException {
+        Path key = key(path);
+        PendingAppend pending = new PendingAppend(bytes, new CompletableFuture<>());
+        Queue<PendingAppend> queue = appendQueues.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>());
+        queue.add(pending);
+        appends.incrementAndGet();
+
+        // Whoever gets the lock writes every queued append, including ours if it is still pending
+        ReentrantLock lock = lockFor(key);
+        acquire(lock);
+        try {
+            if (!pending.done().isDone()) {
+                if (flushIntervalNanos > 0) {
+                    LockSupport.parkNanos(flushIntervalNanos);
+                }
+                drain(key, queue);
+            }
+            if (queue.isEmpty()) {
+                // Appenders still holding this queue drain it themselves once they get the lock
+                appendQueues.remove(key, queue);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            pending.done().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the file is the temp file of an atomic write that has not been renamed yet
+     */
+    public static boolean isTempFile(Path path) {
+        return TEMP_FILE.matcher(path.getFileName().toString()).matches();
+    }
+
+    /**
+     * Replace the file's content atomically: write a sibling temp file, then rename it over the target
+     */
+    public void writeAtomically(Path path, byte[] bytes) throws IOException {
+        withLock(path, () -> {
+            Path temp = path.resolveSibling("." + path.getFileName() + "." + tempFiles.incrementAndGet() + ".tmp");
+            try {
+                Files.write(temp, bytes, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            atomicWrites.incrementAndGet();
+            return null;
+        });
+    }
+
+    /**
+     * Append, batch and lock contention counters
+     */
+    public Map<String, Object> stats() {
+        long appendCount = appends.get();
+        long batchCount = appendBatches.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lockStripes", stripes.length);
+        stats.put("flushIntervalMillis", flushIntervalNanos / 1_000_000);
+        stats.put("appends", appendCount);
+        stats.put("appendBatches", batchCount);
+        stats.put("appendsPerBatch", batchCount == 0 ? 0.0 : (double) appendCount / batchCount);
+        stats.put("atomicWrites", atomicWrites.get());
+        stats.put("contendedLocks", contendedLocks.get());
+        stats.put("pendingAppendFiles", appendQueues.size());
+        return stats;
+    }
+
+    /**
+     * Write everything queued for the file, up to maxBatchBytes per write
+     */
+    private void drain(Path path, Queue<PendingAppend> queue) {
+        while (!queue.isEmpty()) {
+            List<PendingAppend> batch = new ArrayList<>();
+            long batchBytes = 0;
+            PendingAppend next;
+            while (batchBytes < maxBatchBytes && (next = queue.poll()) != null) {
+                batch.add(next);
+                batchBytes += next.bytes().length;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+                for (int i = 0; i < buffers.length; i++) {
+                    buffers[i] = ByteBuffer.wrap(batch.get(i).bytes());
+                }
+                long remaining = batchBytes;
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                batch.forEach(pending -> pending.done().complete(null));
+            } catch (IOException e) {
+                batch.forEach(pending -> pending.done().completeExceptionally(e));
+            }
+            appendBatches.incrementAndGet();
+        }
+    }
+
+    private void acquire(ReentrantLock lock) {
+        if (!lock.tryLock()) {
+            contendedLocks.incrementAndGet();
+            lock.lock();
+        }
+    }
+
+    private ReentrantLock lockFor(Path key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static Path key(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
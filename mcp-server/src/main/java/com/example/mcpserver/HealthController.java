@@ -1,5 +1,6 @@
 package com.example.mcpserver;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -12,6 +13,18 @@ import java.util.Map;
 @RestController
 public class HealthController {
 
+    @Autowired
+    private ToolExecutor toolExecutor;
+
+    @Autowired
+    private KeyValueStore keyValueStore;
+
+    @Autowired
+    private FileWriteCoordinator fileWriteCoordinator;
+
+    @Autowired
+    private ExpressionEngine expressionEngine;
+
     @GetMapping("/health")
     public Map<String, Object> health() {
         Map<String, Object> health = new HashMap<>();
@@ -21,6 +34,38 @@ public class HealthController {
         return health;
     }
 
+    /**
+     * Tool execution mode with per-tool queue depth and active invocations.
+     */
+    @GetMapping("/health/tools")
+    public Map<String, Object> toolExecution() {
+        return toolExecutor.stats();
+    }
+
+    /**
+     * Storage backend statistics (entries, log and snapshot state, expirations and evictions).
+     */
+    @GetMapping("/health/storage")
+    public Map<String, Object> storage() {
+        return keyValueStore.stats();
+    }
+
+    /**
+     * File write coordination statistics (append batching, lock contention).
+     */
+    @GetMapping("/health/files")
+    public Map<String, Object> files() {
+        return fileWriteCoordinator.stats();
+    }
+
+    /**
+     * Compiled expression cache of the evaluate tool (size, hits, misses).
+     */
+    @GetMapping("/health/expressions")
+    public Map<String, Object> expressions() {
+        return expressionEngine.stats();
+    }
+
     @GetMapping("/")
     public Map<String, Object> root() {
         Map<String, Object> info = new HashMap<>();
@@ -29,6 +74,11 @@ public class HealthController {
         info.put("description", "Model Context Protocol Server with Spring AI 1.1.0-RC1");
         info.put("endpoints", Map.of(
             "health", "/health",
+            "toolExecution", "/health/tools",
+            "storage", "/health/storage",
+            "files", "/health/files",
+            "expressions", "/health/expressions",
+            "prometheus", "/actuator/prometheus",
             "mcp", "/mcp/message"
         ));
         return info;
@@ -0,0 +1,58 @@
+package com.example.mcpserver;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Default storage backend: a ConcurrentHashMap, lost on restart.
+ */
+public class InMemoryKeyValueStore implements KeyValueStore {
+
+    private final Map<String, String> storage = new ConcurrentHashMap<>();
+
+    @Override
+    public String get(String key) {
+        return storage.get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return storage.put(key, value);
+    }
+
+    @Override
+    public String remove(String key) {
+        return storage.remove(key);
+    }
+
+    @Override
+    public String compute(String key, UnaryOperator<String> update) {
+        return storage.compute(key, (k, current) -> update.apply(current));
+    }
+
+    @Override
+    public Set<String> keys() {
+        return storage.keySet();
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    @Override
+    public void clear() {
+        storage.clear();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("backend", "memory");
+        stats.put("entries", storage.size());
+        return stats;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.mcpserver;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Storage backend behind DataStorageService.
+ * Implementations must be safe for concurrent use.
+ */
+public interface KeyValueStore extends AutoCloseable {
+
+    /**
+     * A value together with its expiry deadline in epoch milliseconds, 0 for none
+     */
+    record ExpiringValue(String value, long expiresAt) {
+    }
+
+    /**
+     * Get the value for a key, or null if absent
+     */
+    String get(String key);
+
+    /**
+     * Store a value and return the previous one, or null
+     */
+    String put(String key, String value);
+
+    /**
+     * Store a value that expires after ttl (null for no expiry) and return the
+     * previous one, or null. Backends without expiry only accept a null ttl;
+     * StorageConfig wraps them in ExpiringKeyValueStore when TTLs are enabled.
+     */
+    default String put(String key, String value, Duration ttl) {
+        if (ttl != null) {
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support expiry");
+        }
+        return put(key, value);
+    }
+
+    /**
+     * Remove a key and return its value, or null if absent
+     */
+    String remove(String key);
+
+    /**
+     * Atomically replace the value of one key. The update function receives the
+     * current value (null if absent) and returns the new value, or null to remove
+     * the key. No other write to the key can happen in between. Returns the new value.
+     */
+    String compute(String key, UnaryOperator<String> update);
+
+    /**
+     * Like compute, but the update also sets the expiry deadline of the key.
+     * Backends that persist their data store the deadline with the value so it
+     * survives a restart; the others ignore it and ExpiringKeyValueStore keeps
+     * it in memory.
+     */
+    default String computeWithExpiry(String key, Function<String, ExpiringValue> update) {
+        return compute(key, current -> {
+            ExpiringValue next = update.apply(current);
+            return next == null ? null : next.value();
+        });
+    }
+
+    /**
+     * Expiry deadlines recovered from persistent storage, by key. Only keys with a
+     * deadline are listed; backends that do not persist deadlines return an empty map.
+     */
+    default Map<String, Long> expiries() {
+        return Map.of();
+    }
+
+    /**
+     * Store several values; each key is written atomically
+     */
+    default void putAll(Map<String, String> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Remove several keys and return the ones that were present
+     */
+    default Set<String> removeAll(Collection<String> keys) {
+        Set<String> removed = new HashSet<>();
+        for (String key : keys) {
+            if (remove(key) != null) {
+                removed.add(key);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Snapshot of the stored keys
+     */
+    Set<String> keys();
+
+    /**
+     * One sorted page of keys after the cursor, optionally filtered by prefix.
+     * The default implementation scans all keys but only keeps one page in memory.
+     */
+    default Page scanKeys(String prefix, String cursor, int limit) {
+        Page.Collector collector = new Page.Collector(prefix, cursor, limit);
+        for (String key : keys()) {
+            collector.offer(key);
+        }
+        return collector.toPage();
+    }
+
+    /**
+     * One sorted page of keys in [from, to) after the cursor; a null bound leaves
+     * that end open. The default implementation scans all keys like scanKeys.
+     */
+    default Page scanRange(String from, String to, String cursor, int limit) {
+        Page.Collector collector = new Page.Collector(null, cursor, limit);
+        for (String key : keys()) {
+            if ((from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) < 0)) {
+                collector.offer(key);
+            }
+        }
+        return collector.toPage();
+    }
+
+    int size();
+
+    void clear();
+
+    /**
+     * Backend name and implementation specific statistics
+     */
+    Map<String, Object> stats();
+
+    @Override
+    default void close() {
+    }
+}
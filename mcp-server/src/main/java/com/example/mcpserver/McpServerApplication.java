@@ -1,7 +1,14 @@
 package com.example.mcpserver;
 
+import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpSyncServer;
+import org.springaicommunity.mcp.annotation.McpTool;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.util.ReflectionUtils;
 
 import java.util.Arrays;
 
@@ -12,13 +19,28 @@ public class McpServerApplication {
 		// Check if --stdio flag is present
 		boolean stdioMode = Arrays.asList(args).contains("--stdio");
 
+		SpringApplication application = new SpringApplication(McpServerApplication.class);
 		if (stdioMode) {
-			// Enable STDIO transport mode
+			// Enable STDIO transport mode with the fast-start settings of application-stdio.properties:
+			// no web server, trimmed auto-configuration and lazy beans
 			System.setProperty("spring.ai.mcp.server.transport", "stdio");
-			System.setProperty("server.port", "0"); // Disable HTTP server in STDIO mode
+			application.setWebApplicationType(WebApplicationType.NONE);
+			application.setAdditionalProfiles("stdio");
 		}
 
-		SpringApplication.run(McpServerApplication.class, args);
+		application.run(args);
+	}
+
+	/**
+	 * Beans created at startup even with lazy initialization: the MCP server,
+	 * which starts reading the transport, and the @McpTool beans it registers.
+	 */
+	@Bean
+	static LazyInitializationExcludeFilter mcpServerBeans() {
+		LazyInitializationExcludeFilter servers = LazyInitializationExcludeFilter.forBeanTypes(McpSyncServer.class, McpAsyncServer.class);
+		return (beanName, beanDefinition, beanType) -> servers.isExcluded(beanName, beanDefinition, beanType)
+				|| (beanType != null && Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(beanType))
+						.anyMatch(method -> method.isAnnotationPresent(McpTool.class)));
 	}
 
 }
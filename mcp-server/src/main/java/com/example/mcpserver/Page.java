@@ -0,0 +1,78 @@
+package com.example.mcpserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One page of a sorted, cursor-paginated listing.
+ * Pass nextCursor back as the cursor argument to get the following page; it is null on the last page.
+ */
+public record Page(List<String> items, int count, String nextCursor) {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Clamp a requested page size to 1..MAX_LIMIT, using DEFAULT_LIMIT when absent
+     */
+    public static int limit(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(requested, MAX_LIMIT);
+    }
+
+    /**
+     * Collects the smallest names after the cursor that match the prefix.
+     * Memory is bounded by the page size no matter how many names are offered.
+     */
+    public static class Collector {
+
+        private final String prefix;
+        private final String cursor;
+        private final int limit;
+        private final PriorityQueue<String> largestFirst = new PriorityQueue<>(Comparator.reverseOrder());
+
+        public Collector(String prefix, String cursor, int limit) {
+            this.prefix = prefix;
+            this.cursor = cursor;
+            this.limit = limit;
+        }
+
+        public void offer(String name) {
+            if (prefix != null && !name.startsWith(prefix)) {
+                return;
+            }
+            if (cursor != null && name.compareTo(cursor) <= 0) {
+                return;
+            }
+            // Keep one extra entry to know whether another page follows
+            if (largestFirst.size() <= limit) {
+                largestFirst.offer(name);
+            } else if (name.compareTo(largestFirst.peek()) < 0) {
+                largestFirst.poll();
+                largestFirst.offer(name);
+            }
+        }
+
+        public Page toPage() {
+            List<String> items = new ArrayList<>(largestFirst);
+            Collections.sort(items);
+            return Page.of(items, limit);
+        }
+    }
+
+    /**
+     * Build a page from up to limit + 1 sorted names
+     */
+    public static Page of(List<String> sortedNames, int limit) {
+        if (sortedNames.size() > limit) {
+            List<String> items = sortedNames.subList(0, limit);
+            return new Page(List.copyOf(items), items.size(), items.get(items.size() - 1));
+        }
+        return new Page(List.copyOf(sortedNames), sortedNames.size(), null);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.mcpserver;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Selects the storage backend behind DataStorageService.
+ *
+ * mcp.server.storage.backend=memory (default) keeps data in memory only.
+ * mcp.server.storage.backend=wal adds a write-ahead log and snapshots so data survives restarts.
+ * mcp.server.storage.backend=compact keeps UTF-8 keys and values off-heap for millions of entries.
+ *
+ * The backend is wrapped in ExpiringKeyValueStore only when something needs it:
+ * per-key TTLs (mcp.server.storage.ttl.enabled), a max-entries / max-bytes
+ * budget or the sorted key index behind the scan tools (mcp.server.storage.key-index).
+ * The key index is on by default for the memory and wal backends and off for
+ * compact, whose keys would otherwise be copied onto the heap.
+ * With all three off, DataStorageService talks to the bare backend.
+ */
+@Configuration
+public class StorageConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageConfig.class);
+
+    @Value("${mcp.server.storage.backend:memory}")
+    private String backend;
+
+    @Value("${mcp.server.storage.wal.directory:${user.home}/.mcp-demo-storage}")
+    private String walDirectory;
+
+    @Value("${mcp.server.storage.wal.sync-writes:true}")
+    private boolean walSyncWrites;
+
+    @Value("${mcp.server.storage.wal.snapshot-interval-seconds:300}")
+    private long walSnapshotIntervalSeconds;
+
+    @Value("${mcp.server.storage.wal.snapshot-log-bytes:67108864}")
+    private long walSnapshotLogBytes;
+
+    @Value("${mcp.server.storage.compact.chunk-bytes:16777216}")
+    private int compactChunkBytes;
+
+    @Value("${mcp.server.storage.compact.initial-capacity:1024}")
+    private int compactInitialCapacity;
+
+    @Value("${mcp.server.storage.max-entries:0}")
+    private long maxEntries;
+
+    @Value("${mcp.server.storage.max-bytes:0}")
+    private long maxBytes;
+
+    @Value("${mcp.server.storage.eviction-policy:lru}")
+    private String evictionPolicy;
+
+    @Value("${mcp.server.storage.ttl.enabled:true}")
+    private boolean ttlEnabled;
+
+    @Value("${mcp.server.storage.expiry.tick-millis:100}")
+    private long expiryTickMillis;
+
+    @Value("${mcp.server.storage.key-index:#{null}}")
+    private Boolean keyIndexSetting;
+
+    @Bean(destroyMethod = "close")
+    public KeyValueStore keyValueStore(MeterRegistry meterRegistry) {
+        logger.info("Using '{}' storage backend", backend);
+        ExpiringKeyValueStore.EvictionPolicy policy = ExpiringKeyValueStore.EvictionPolicy.of(evictionPolicy);
+        boolean budget = maxEntries > 0 || maxBytes > 0;
+        boolean keyIndex = keyIndexSetting != null ? keyIndexSetting : !"compact".equalsIgnoreCase(backend);
+        if (!budget && !ttlEnabled && !keyIndex) {
+            return backendStore();
+        }
+        ExpiringKeyValueStore store = new ExpiringKeyValueStore(backendStore(), maxEntries, maxBytes, policy,
+                expiryTickMillis, keyIndex);
+        if (keyIndex && "compact".equalsIgnoreCase(backend)) {
+            logger.warn("mcp.server.storage.key-index keeps every key on the heap next to the compact backend's off-heap copy");
+        }
+        if (budget) {
+            logger.info("Storage budget: max {} entries, max {} bytes, {} eviction", maxEntries, maxBytes, evictionPolicy);
+        }
+
+        FunctionCounter.builder("mcp.server.storage.expirations", store, ExpiringKeyValueStore::expirations)
+                .description("Keys removed because their TTL passed")
+                .register(meterRegistry);
+        FunctionCounter.builder("mcp.server.storage.evictions", store, ExpiringKeyValueStore::evictions)
+                .description("Keys evicted to stay within the storage budget")
+                .register(meterRegistry);
+        if (budget) {
+            Gauge.builder("mcp.server.storage.bytes", store, ExpiringKeyValueStore::estimatedBytes)
+                    .description("Estimated size of the stored keys and values")
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+        return store;
+    }
+
+    private KeyValueStore backendStore() {
+        return switch (backend.toLowerCase()) {
+            case "memory" -> new InMemoryKeyValueStore();
+            case "wal" -> new WalKeyValueStore(Paths.get(walDirectory), walSyncWrites,
+                    walSnapshotIntervalSeconds * 1000, walSnapshotLogBytes);
+            case "compact" -> new CompactKeyValueStore(compactChunkBytes, compactInitialCapacity);
+            default -> throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        };
+    }
+}
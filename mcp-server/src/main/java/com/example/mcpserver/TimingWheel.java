@@ -0,0 +1,127 @@
+package com.example.mcpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for key expiry.
+ *
+ * Four levels of 64 slots each. Level 0 holds timers due within 64 ticks,
+ * level 1 within 64^2 ticks, and so on. When a lower level wraps around, the
+ * next slot of the level above is cascaded down. Scheduling is O(1) and
+ * advancing costs O(1) per tick plus the timers that fire or move down a
+ * level; no pass over all keys is ever made. Timers beyond the top level wait
+ * in an overflow list that is re-placed each time the top level wraps.
+ *
+ * There is no cancel: callers check that a fired timer is still current.
+ * Not thread-safe; callers guard it with their own lock.
+ */
+final class TimingWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private List<Timer<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    private record Timer<T>(long deadlineTick, T item) {
+    }
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param nowMillis  current time on the clock later passed to advance
+     */
+    TimingWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule an item to fire at the first tick at or after the deadline. A
+     * deadline that is already due fires on the next tick, since the slot of
+     * the current tick has been processed.
+     */
+    void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(new Timer<>(Math.max(deadlineTick, currentTick + 1), item));
+        size++;
+    }
+
+    /**
+     * Run every tick up to now, handing the items that fire to the consumer
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            if ((currentTick & MASK) == 0) {
+                cascade(1);
+            }
+            List<Timer<T>> due = slot(0, (int) (currentTick & MASK));
+            if (!due.isEmpty()) {
+                slots.set((int) (currentTick & MASK), new ArrayList<>());
+                size -= due.size();
+                for (Timer<T> timer : due) {
+                    expired.accept(timer.item());
+                }
+            }
+        }
+    }
+
+    /**
+     * Timers waiting, including ones whose item has since been replaced
+     */
+    int size() {
+        return size;
+    }
+
+    long tickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Move the current slot of a level down, after cascading the level above if it wrapped too
+     */
+    private void cascade(int level) {
+        if (level == LEVELS) {
+            List<Timer<T>> waiting = overflow;
+            overflow = new ArrayList<>();
+            waiting.forEach(this::place);
+            return;
+        }
+        int index = (int) ((currentTick >>> (BITS * level)) & MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        List<Timer<T>> timers = slot(level, index);
+        if (!timers.isEmpty()) {
+            slots.set(level * SLOTS + index, new ArrayList<>());
+            timers.forEach(this::place);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = Math.max(0, timer.deadlineTick() - currentTick);
+        long deadline = currentTick + delta;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (BITS * (level + 1))) {
+                slot(level, (int) ((deadline >>> (BITS * level)) & MASK)).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private List<Timer<T>> slot(int level, int index) {
+        return slots.get(level * SLOTS + index);
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.mcpserver;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Executes MCP tool invocations.
+ *
+ * In "direct" mode tools run on the thread that dispatched the call and
+ * nothing else happens. In "limited" mode each tool also has a concurrency
+ * limit: a call waits on the tool's semaphore before it runs, so slow file I/O
+ * cannot take every dispatch thread away from cheap tools. "virtual" mode
+ * applies the same limits on a virtual thread: calls dispatched on a platform
+ * thread are handed to a virtual thread, which waits for the permit and runs
+ * the tool; calls already on a virtual thread (spring.threads.virtual.enabled)
+ * run in place. Waiting for a permit then never holds a platform thread.
+ *
+ * ToolInstrumentation routes every @McpTool call through here, so the tools
+ * themselves carry no instrumentation. Every invocation is recorded in Micrometer: mcp.server.tool.calls (timer
+ * with percentiles, tagged by tool and outcome), mcp.server.tool.response.bytes
+ * and the mcp.server.tool.in.flight gauge. With limits, the
+ * mcp.server.tool.queue.depth and mcp.server.tool.active gauges show the calls
+ * waiting for and holding a permit.
+ */
+@Component
+public class ToolExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolExecutor.class);
+
+    private static final String LIMIT_PROPERTY_PREFIX = "mcp.server.tool-execution.max-concurrency.";
+
+    private final String mode;
+    private final boolean limited;
+    private final ExecutorService virtualThreads;
+    private final int defaultMaxConcurrency;
+    private final Environment environment;
+    private final Map<String, ToolLimiter> limiters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Map<String, ToolMeters> meters = new ConcurrentHashMap<>();
+
+    /**
+     * Direct mode executor, used outside of Spring (e.g. benchmarks)
+     */
+    public ToolExecutor() {
+        this("direct", 0, null);
+    }
+
+    /**
+     * Executor recording to a private registry, used outside of Spring (e.g. benchmarks)
+     */
+    public ToolExecutor(String mode, int defaultMaxConcurrency, Environment environment) {
+        this(mode, defaultMaxConcurrency, environment, new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public ToolExecutor(@Value("${mcp.server.tool-execution.mode:direct}") String mode,
+                        @Value("${mcp.server.tool-execution.max-concurrency.default:16}") int defaultMaxConcurrency,
+                        Environment environment,
+                        MeterRegistry meterRegistry) {
+        boolean virtual = "virtual".equalsIgnoreCase(mode);
+        this.limited = virtual || "limited".equalsIgnoreCase(mode);
+        this.mode = virtual ? "virtual" : limited ? "limited" : "direct";
+        this.virtualThreads = virtual
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-tool-", 0).factory())
+                : null;
+        this.defaultMaxConcurrency = defaultMaxConcurrency;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        if (limited) {
+            logger.info("Tool invocations are limited per tool in {} mode (default max concurrency: {})",
+                    this.mode, defaultMaxConcurrency);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (virtualThreads != null) {
+            virtualThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Run a tool invocation and return its result.
+     * Exceptions thrown by the tool are rethrown unchanged.
+     */
+    public <T> T execute(String toolName, Callable<T> invocation) {
+        return execute(toolName, invocation, result -> false);
+    }
+
+    /**
+     * Run a tool invocation that may also report failure in its result, like an
+     * MCP CallToolResult with isError set; such results are recorded as errors
+     */
+    public <T> T execute(String toolName, Callable<T> invocation, Predicate<? super T> failed) {
+        ToolMeters toolMeters = meters.computeIfAbsent(toolName, this::createMeters);
+        toolMeters.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = dispatch(toolName, invocation);
+            (failed.test(result) ? toolMeters.error : toolMeters.success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            toolMeters.responseBytes.record(estimateBytes(result));
+            return result;
+        } catch (RuntimeException e) {
+            toolMeters.error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            toolMeters.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Run the invocation on the calling thread, or on a virtual thread in virtual
+     * mode when the calling thread is a platform thread
+     */
+    private <T> T dispatch(String toolName, Callable<T> invocation) {
+        if (!limited) {
+            return call(invocation);
+        }
+        if (virtualThreads == null || Thread.currentThread().isVirtual()) {
+            return runLimited(toolName, invocation);
+        }
+
+        Future<T> future = virtualThreads.submit(() -> runLimited(toolName, invocation));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running tool '" + toolName + "'", e);
+        } catch (ExecutionException e) {
+            // runLimited only throws unchecked exceptions
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Run the invocation on the current thread after taking one of the tool's permits
+     */
+    private <T> T runLimited(String toolName, Callable<T> invocation) {
+        ToolLimiter limiter = limiters.computeIfAbsent(toolName, this::createLimiter);
+        limiter.queued.incrementAndGet();
+        try {
+            limiter.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to run tool '" + toolName + "'", e);
+        } finally {
+            limiter.queued.decrementAndGet();
+        }
+        limiter.active.incrementAndGet();
+        try {
+            return call(invocation);
+        } finally {
+            limiter.active.decrementAndGet();
+            limiter.completed.incrementAndGet();
+            limiter.permits.release();
+        }
+    }
+
+    /**
+     * Execution mode and per-tool queue depth, active count and limit
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", mode);
+
+        Map<String, Object> tools = new HashMap<>();
+        limiters.forEach((toolName, limiter) -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("maxConcurrency", limiter.maxConcurrency);
+            entry.put("active", limiter.active.get());
+            entry.put("queueDepth", limiter.queued.get());
+            entry.put("completed", limiter.completed.get());
+            tools.put(toolName, entry);
+        });
+        stats.put("tools", tools);
+        return stats;
+    }
+
+    private ToolLimiter createLimiter(String toolName) {
+        int maxConcurrency = environment.getProperty(LIMIT_PROPERTY_PREFIX + toolName, Integer.class, defaultMaxConcurrency);
+        ToolLimiter limiter = new ToolLimiter(Math.max(maxConcurrency, 1));
+        Gauge.builder("mcp.server.tool.queue.depth", limiter.queued, AtomicInteger::get)
+                .description("MCP tool calls waiting for a concurrency permit")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+        Gauge.builder("mcp.server.tool.active", limiter.active, AtomicInteger::get)
+                .description("MCP tool calls holding a concurrency permit")
+                .tag("tool", toolName)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private ToolMeters createMeters(String toolName) {
+        AtomicInteger inFlight = meterRegistry.gauge("mcp.server.tool.in.flight", Tags.of("tool", toolName), new AtomicInteger());
+        return new ToolMeters(callTimer(toolName, "success"), callTimer(toolName, "error"),
+                DistributionSummary.builder("mcp.server.tool.response.bytes")
+                        .description("Approximate size of MCP tool results")
+                        .baseUnit("bytes")
+                        .tag("tool", toolName)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry),
+                inFlight);
+    }
+
+    private Timer callTimer(String toolName, String outcome) {
+        return Timer.builder("mcp.server.tool.calls")
+                .description("MCP tool invocations on the server")
+                .tags("tool", toolName, "outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rough serialized size of a tool result, without serializing it
+     */
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence text) {
+            return text.length() + 2;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = 2;
+            for (Object element : collection) {
+                bytes += estimateBytes(element) + 1;
+            }
+            return bytes;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long bytes = 2;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimateBytes(String.valueOf(entry.getKey())) + estimateBytes(entry.getValue()) + 2;
+            }
+            return bytes;
+        }
+        if (value instanceof Record) {
+            long bytes = 2;
+            for (RecordComponent component : value.getClass().getRecordComponents()) {
+                try {
+                    bytes += component.getName().length() + 4 + estimateBytes(component.getAccessor().invoke(value));
+                } catch (ReflectiveOperationException e) {
+                    return bytes;
+                }
+            }
+            return bytes;
+        }
+        return String.valueOf(value).length();
+    }
+
+    private static <T> T call(Callable<T> invocation) {
+        try {
+            return invocation.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Micrometer meters of a single tool
+     */
+    private record ToolMeters(Timer success, Timer error, DistributionSummary responseBytes, AtomicInteger inFlight) {
+    }
+
+    /**
+     * Concurrency limit and counters for a single tool
+     */
+    private static class ToolLimiter {
+
+        private final int maxConcurrency;
+        private final Semaphore permits;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+
+        ToolLimiter(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.mcpserver;
+
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Runs every MCP tool call through ToolExecutor.
+ *
+ * Spring AI turns the @McpTool methods into a list of SyncToolSpecification
+ * beans; this post-processor replaces the call handler of each one with a
+ * handler that runs the original under ToolExecutor. Metrics and per-tool
+ * concurrency limits therefore apply to all tools without any code in the
+ * tool methods. A tool that throws is reported by Spring AI as a result with
+ * isError set, which is recorded as an error.
+ */
+@Component
+public class ToolInstrumentation implements BeanPostProcessor {
+
+    private final Supplier<ToolExecutor> toolExecutor;
+
+    /**
+     * The executor is looked up on first use, since post-processors are created
+     * before the meter registry it records to
+     */
+    @Autowired
+    public ToolInstrumentation(ObjectProvider<ToolExecutor> toolExecutor) {
+        this.toolExecutor = toolExecutor::getObject;
+    }
+
+    /**
+     * Instrument with a fixed executor, used outside of Spring (e.g. benchmarks)
+     */
+    public ToolInstrumentation(ToolExecutor toolExecutor) {
+        this.toolExecutor = () -> toolExecutor;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof List<?> list && !list.isEmpty()
+                && list.stream().allMatch(SyncToolSpecification.class::isInstance)) {
+            return list.stream().map(spec -> instrument((SyncToolSpecification) spec)).toList();
+        }
+        return bean;
+    }
+
+    public SyncToolSpecification instrument(SyncToolSpecification specification) {
+        String toolName = specification.tool().name();
+        BiFunction<McpSyncServerExchange, McpSchema.CallToolRequest, McpSchema.CallToolResult> handler = specification.callHandler();
+        return SyncToolSpecification.builder()
+                .tool(specification.tool())
+                .callHandler((exchange, request) -> toolExecutor.get().execute(toolName,
+                        () -> handler.apply(exchange, request),
+                        result -> result != null && Boolean.TRUE.equals(result.isError())))
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.mcpserver;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * BulkMath kernels on the Vector API, using the widest SIMD registers of the CPU.
+ * The remainder that does not fill a whole vector is finished with scalar code.
+ *
+ * Only loaded when jdk.incubator.vector is in the boot layer; see BulkMath.create.
+ * Like the scalar kernels, multiply-add rounds the product before adding (no
+ * fma), so elementwise and polyEval give the same results on both paths. Sums
+ * are accumulated lane by lane, so they can differ from the scalar kernels in
+ * the last bits.
+ */
+final class VectorKernels implements BulkMath.Kernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final BulkMath.Kernels SCALAR = new BulkMath.ScalarKernels();
+
+    @Override
+    public double sum(double[] values, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            acc = acc.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double dot(double[] a, double[] b, int from, int to) {
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            acc = DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).add(acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void elementwise(BulkMath.Op op, double[] a, double[] b, double[] out, int from, int to) {
+        VectorOperators.Binary operator = switch (op) {
+            case ADD -> VectorOperators.ADD;
+            case SUBTRACT -> VectorOperators.SUB;
+            case MULTIPLY -> VectorOperators.MUL;
+            case DIVIDE -> VectorOperators.DIV;
+            case MIN -> VectorOperators.MIN;
+            case MAX -> VectorOperators.MAX;
+        };
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i)
+                    .lanewise(operator, DoubleVector.fromArray(SPECIES, b, i))
+                    .intoArray(out, i);
+        }
+        if (i < to) {
+            SCALAR.elementwise(op, a, b, out, i, to);
+        }
+    }
+
+    @Override
+    public void minMax(double[] values, int from, int to, double[] minMax) {
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector max = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, values, i);
+            min = min.min(v);
+            max = max.max(v);
+        }
+        double lowest = min.reduceLanes(VectorOperators.MIN);
+        double highest = max.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            lowest = Math.min(lowest, values[i]);
+            highest = Math.max(highest, values[i]);
+        }
+        minMax[0] = lowest;
+        minMax[1] = highest;
+    }
+
+    @Override
+    public double squaredDeviations(double[] values, double mean, int from, int to) {
+        DoubleVector means = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, values, i).sub(means);
+            acc = deviation.mul(deviation).add(acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double deviation = values[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public void polyEval(double[] coefficients, double[] x, double[] out, int from, int to) {
+        int last = coefficients.length - 1;
+        int i = from;
+        for (int upper = from + SPECIES.loopBound(to - from); i < upper; i += SPECIES.length()) {
+            DoubleVector xs = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector result = DoubleVector.broadcast(SPECIES, coefficients[last]);
+            for (int k = last - 1; k >= 0; k--) {
+                result = result.mul(xs).add(coefficients[k]);
+            }
+            result.intoArray(out, i);
+        }
+        if (i < to) {
+            SCALAR.polyEval(coefficients, x, out, i, to);
+        }
+    }
+}
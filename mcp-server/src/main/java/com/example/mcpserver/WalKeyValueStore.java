@@ -0,0 +1,484 @@
+package com.example.mcpserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Durable storage backend: an in-memory map backed by a write-ahead log
+ * with periodic compacted snapshots.
+ *
+ * Reads are served from memory. Every write is applied to the map and queued
+ * to the log under one short lock so the log order matches the map order.
+ * If the log cannot write a record, the change is rolled back in memory (unless
+ * a later write has replaced it) and a synchronous write fails, so memory
+ * never keeps a write the log lost. clear() is the exception: it waits for its
+ * record under the lock and only then empties the map.
+ * On startup the latest snapshot is loaded and the log segments written
+ * after it are replayed.
+ *
+ * Snapshots are taken without blocking writers: the log is rotated first and
+ * the live map is then copied to disk. Replaying the newer segment on top of
+ * such a snapshot converges to the correct state, since each record sets or
+ * removes a key outright.
+ *
+ * Expiry deadlines written through computeWithExpiry are logged with the value
+ * and kept in the snapshot, so ExpiringKeyValueStore can schedule them again
+ * after a restart. Expiry itself is left to that decorator.
+ */
+public class WalKeyValueStore implements KeyValueStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalKeyValueStore.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4D435053;
+    private static final int SNAPSHOT_MAGIC_EXPIRY = 0x4D435054;
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+
+    private final Map<String, String> storage = new ConcurrentHashMap<>();
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Path directory;
+    private final WriteAheadLog log;
+    private final boolean syncWrites;
+    private final long snapshotIntervalMillis;
+    private final long snapshotLogBytes;
+    private final ScheduledExecutorService snapshotter;
+    private final long recoveryMillis;
+    private volatile long lastSnapshotAt = System.currentTimeMillis();
+    private volatile long lastSnapshotMillis;
+
+    /**
+     * @param directory              directory holding the log segments and snapshot
+     * @param syncWrites             wait for the group-committed fsync before a write returns
+     * @param snapshotIntervalMillis take a snapshot at least this often while writes happen
+     * @param snapshotLogBytes       take a snapshot once the current log segment reaches this size
+     */
+    public WalKeyValueStore(Path directory, boolean syncWrites, long snapshotIntervalMillis, long snapshotLogBytes) {
+        this(directory, new WriteAheadLog(directory), syncWrites, snapshotIntervalMillis, snapshotLogBytes);
+    }
+
+    WalKeyValueStore(Path directory, WriteAheadLog log, boolean syncWrites, long snapshotIntervalMillis, long snapshotLogBytes) {
+        this.directory = directory;
+        this.log = log;
+        this.syncWrites = syncWrites;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.snapshotLogBytes = snapshotLogBytes;
+
+        long start = System.nanoTime();
+        try {
+            long fromSegment = loadSnapshot();
+            log.replay(fromSegment, this::apply);
+            log.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover storage from " + directory, e);
+        }
+        this.recoveryMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Recovered {} entries from {} in {} ms", storage.size(), directory, recoveryMillis);
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotIfDue, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public String get(String key) {
+        return storage.get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        Change change;
+        appendLock.lock();
+        try {
+            Long previousDeadline = deadlines.remove(key);
+            String previous = storage.put(key, value);
+            change = new Change(key, previous, previousDeadline, value, log.append(WriteAheadLog.PUT, key, value));
+        } finally {
+            appendLock.unlock();
+        }
+        awaitSync(List.of(change));
+        return change.previous();
+    }
+
+    @Override
+    public String remove(String key) {
+        String removed;
+        List<Change> changes = new ArrayList<>(1);
+        appendLock.lock();
+        try {
+            removed = storage.remove(key);
+            Long previousDeadline = deadlines.remove(key);
+            if (removed != null) {
+                changes.add(new Change(key, removed, previousDeadline, null, log.append(WriteAheadLog.DELETE, key, null)));
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitSync(changes);
+        return removed;
+    }
+
+    /**
+     * The update runs under the append lock, so it is atomic with respect to all
+     * other writes. A key updated in place keeps its expiry deadline.
+     */
+    @Override
+    public String compute(String key, UnaryOperator<String> update) {
+        return computeWithExpiry(key, current -> {
+            String next = update.apply(current);
+            return next == null ? null : new ExpiringValue(next, deadlines.getOrDefault(key, 0L));
+        });
+    }
+
+    /**
+     * Logs the deadline with the value; nothing is logged if neither changed
+     */
+    @Override
+    public String computeWithExpiry(String key, Function<String, ExpiringValue> update) {
+        ExpiringValue next;
+        List<Change> changes = new ArrayList<>(1);
+        appendLock.lock();
+        try {
+            String current = storage.get(key);
+            Long currentDeadline = deadlines.get(key);
+            next = update.apply(current);
+            if (next == null) {
+                deadlines.remove(key);
+                if (current != null) {
+                    storage.remove(key);
+                    changes.add(new Change(key, current, currentDeadline, null, log.append(WriteAheadLog.DELETE, key, null)));
+                }
+            } else if (!next.value().equals(current) || next.expiresAt() != deadlines.getOrDefault(key, 0L)) {
+                storage.put(key, next.value());
+                CompletableFuture<Long> written;
+                if (next.expiresAt() != 0) {
+                    deadlines.put(key, next.expiresAt());
+                    written = log.append(WriteAheadLog.PUT_EXPIRING, key, next.value(), next.expiresAt());
+                } else {
+                    deadlines.remove(key);
+                    written = log.append(WriteAheadLog.PUT, key, next.value());
+                }
+                changes.add(new Change(key, current, currentDeadline, next.value(), written));
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitSync(changes);
+        return next == null ? null : next.value();
+    }
+
+    /**
+     * Appends the whole batch under one lock acquisition and waits for a single sync
+     */
+    @Override
+    public void putAll(Map<String, String> entries) {
+        List<Change> changes = new ArrayList<>(entries.size());
+        appendLock.lock();
+        try {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                Long previousDeadline = deadlines.remove(entry.getKey());
+                String previous = storage.put(entry.getKey(), entry.getValue());
+                changes.add(new Change(entry.getKey(), previous, previousDeadline, entry.getValue(),
+                        log.append(WriteAheadLog.PUT, entry.getKey(), entry.getValue())));
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitSync(changes);
+    }
+
+    @Override
+    public Set<String> removeAll(Collection<String> keys) {
+        Set<String> removed = new HashSet<>();
+        List<Change> changes = new ArrayList<>();
+        appendLock.lock();
+        try {
+            for (String key : keys) {
+                Long previousDeadline = deadlines.remove(key);
+                String previous = storage.remove(key);
+                if (previous != null) {
+                    removed.add(key);
+                    changes.add(new Change(key, previous, previousDeadline, null, log.append(WriteAheadLog.DELETE, key, null)));
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        awaitSync(changes);
+        return removed;
+    }
+
+    @Override
+    public Set<String> keys() {
+        return storage.keySet();
+    }
+
+    @Override
+    public Map<String, Long> expiries() {
+        return Collections.unmodifiableMap(deadlines);
+    }
+
+    @Override
+    public int size() {
+        return storage.size();
+    }
+
+    /**
+     * Waits for the CLEAR record before emptying the map, even without syncWrites,
+     * since undoing a clear would mean copying the whole map first
+     */
+    @Override
+    public void clear() {
+        appendLock.lock();
+        try {
+            join(log.append(WriteAheadLog.CLEAR, null, null));
+            storage.clear();
+            deadlines.clear();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("backend", "wal");
+        stats.put("entries", storage.size());
+        stats.put("expiringEntries", deadlines.size());
+        stats.put("directory", directory.toAbsolutePath().toString());
+        stats.put("syncWrites", syncWrites);
+        stats.put("segment", log.currentSegment());
+        stats.put("segmentBytes", log.currentSegmentBytes());
+        stats.put("records", log.recordCount());
+        stats.put("fsyncs", log.syncCount());
+        stats.put("recoveryMillis", recoveryMillis);
+        stats.put("lastSnapshotAt", lastSnapshotAt);
+        stats.put("lastSnapshotMillis", lastSnapshotMillis);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        snapshotter.shutdownNow();
+        log.close();
+    }
+
+    /**
+     * Write a compacted snapshot and drop the log segments it covers
+     */
+    public void snapshot() throws IOException {
+        long start = System.nanoTime();
+
+        CompletableFuture<Long> rotated;
+        appendLock.lock();
+        try {
+            rotated = log.rotate();
+        } finally {
+            appendLock.unlock();
+        }
+        long segment = rotated.join();
+
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC_EXPIRY);
+            out.writeLong(segment);
+            for (Map.Entry<String, String> entry : storage.entrySet()) {
+                out.writeBoolean(true);
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+                out.writeLong(deadlines.getOrDefault(entry.getKey(), 0L));
+            }
+            out.writeBoolean(false);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be durable before the segments it replaces are deleted
+        WriteAheadLog.syncDirectory(directory);
+        log.deleteSegmentsBefore(segment);
+
+        lastSnapshotAt = System.currentTimeMillis();
+        lastSnapshotMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Wrote snapshot of {} entries in {} ms", storage.size(), lastSnapshotMillis);
+    }
+
+    private void snapshotIfDue() {
+        long logBytes = log.currentSegmentBytes();
+        boolean intervalElapsed = System.currentTimeMillis() - lastSnapshotAt >= snapshotIntervalMillis;
+        if (logBytes >= snapshotLogBytes || (intervalElapsed && logBytes > 0)) {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                logger.error("Snapshot failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Load the snapshot, if any, and return the first log segment to replay after it.
+     * Snapshots written before deadlines were stored have no deadline per entry.
+     */
+    private long loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            int magic = in.readInt();
+            if (magic != SNAPSHOT_MAGIC && magic != SNAPSHOT_MAGIC_EXPIRY) {
+                throw new IOException("Not a storage snapshot: " + path);
+            }
+            long segment = in.readLong();
+            while (in.readBoolean()) {
+                String key = readString(in);
+                storage.put(key, readString(in));
+                long expiresAt = magic == SNAPSHOT_MAGIC_EXPIRY ? in.readLong() : 0;
+                if (expiresAt != 0) {
+                    deadlines.put(key, expiresAt);
+                }
+            }
+            return segment;
+        }
+    }
+
+    private void apply(WriteAheadLog.Record record) {
+        switch (record.op()) {
+            case WriteAheadLog.PUT -> {
+                storage.put(record.key(), record.value());
+                deadlines.remove(record.key());
+            }
+            case WriteAheadLog.PUT_EXPIRING -> {
+                storage.put(record.key(), record.value());
+                deadlines.put(record.key(), record.expiresAt());
+            }
+            case WriteAheadLog.DELETE -> {
+                storage.remove(record.key());
+                deadlines.remove(record.key());
+            }
+            case WriteAheadLog.CLEAR -> {
+                storage.clear();
+                deadlines.clear();
+            }
+            default -> logger.warn("Skipping unknown WAL record type {}", record.op());
+        }
+    }
+
+    /**
+     * Wait for the group commit if writes are synchronous. Changes whose records
+     * the log could not write are rolled back; a synchronous write then fails.
+     */
+    private void awaitSync(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        // Records are acknowledged in order, so the last one completes after the rest
+        CompletableFuture<Long> last = changes.get(changes.size() - 1).written();
+        if (!syncWrites) {
+            last.whenComplete((segment, error) -> {
+                if (error != null) {
+                    rollBack(changes);
+                }
+            });
+            return;
+        }
+        try {
+            join(last);
+        } catch (UncheckedIOException e) {
+            rollBack(changes);
+            throw e;
+        }
+    }
+
+    /**
+     * Undo the changes whose records failed, newest first. A key that a later
+     * write has changed again is left alone, since that write owns it now.
+     */
+    private void rollBack(List<Change> changes) {
+        appendLock.lock();
+        try {
+            for (int i = changes.size() - 1; i >= 0; i--) {
+                Change change = changes.get(i);
+                if (!change.written().isCompletedExceptionally() || storage.get(change.key()) != change.next()) {
+                    continue;
+                }
+                if (change.previous() != null) {
+                    storage.put(change.key(), change.previous());
+                } else {
+                    storage.remove(change.key());
+                }
+                if (change.previousDeadline() != null) {
+                    deadlines.put(change.key(), change.previousDeadline());
+                } else {
+                    deadlines.remove(change.key());
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        logger.warn("Rolled back {} storage writes the log could not write", changes.size());
+    }
+
+    private static void join(CompletableFuture<Long> written) {
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            throw new UncheckedIOException("Failed to write to the storage log",
+                    cause instanceof IOException io ? io : new IOException(cause));
+        }
+    }
+
+    /**
+     * Strings may exceed the 64 KB limit of writeUTF, so they are length-prefixed UTF-8
+     */
+    /**
+     * An applied write and its log record: the value it replaced, the value it
+     * set (null for a removal) and their expiry deadlines
+     */
+    private record Change(String key, String previous, Long previousDeadline, String next, CompletableFuture<Long> written) {
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
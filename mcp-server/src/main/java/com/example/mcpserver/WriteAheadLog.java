@@ -0,0 +1,431 @@
+package com.example.mcpserver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log made of numbered segment files.
+ *
+ * Records are queued by callers and written by a single writer thread, which
+ * drains everything queued so far, writes it and issues one fsync for the
+ * whole batch (group commit). Each record carries a CRC so a torn tail left
+ * by a crash is detected and truncated on replay. If a batch cannot be
+ * written, its records are failed and cut from the segment again, so a later
+ * sync cannot make them durable after their writers were told they failed.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    public static final byte PUT = 1;
+    public static final byte DELETE = 2;
+    public static final byte CLEAR = 3;
+    public static final byte PUT_EXPIRING = 4;
+
+    private static final int MAX_BATCH = 4096;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * A decoded log record. The value is null for DELETE and CLEAR; expiresAt is
+     * the deadline in epoch milliseconds for PUT_EXPIRING and 0 otherwise.
+     */
+    public record Record(byte op, String key, String value, long expiresAt) {
+    }
+
+    /**
+     * Queued work for the writer thread: either an encoded record or a segment rotation
+     */
+    private record Pending(byte[] bytes, boolean rotate, CompletableFuture<Long> done) {
+    }
+
+    private static final Pending STOP = new Pending(null, false, null);
+
+    private final Path directory;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+    private volatile long segment;
+    private volatile long segmentBytes;
+    private long syncedBytes;
+    private FileChannel channel;
+    private Thread writer;
+
+    public WriteAheadLog(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create WAL directory " + directory, e);
+        }
+    }
+
+    /**
+     * Replay every record in segments numbered fromSegment and above, in order.
+     * A corrupt or partially written tail is truncated.
+     */
+    public void replay(long fromSegment, Consumer<Record> consumer) throws IOException {
+        for (long number : segmentNumbers()) {
+            if (number >= fromSegment) {
+                replaySegment(segmentPath(number), consumer);
+            }
+        }
+    }
+
+    /**
+     * Start writing to a new segment after the highest existing one
+     */
+    public void open() throws IOException {
+        List<Long> existing = segmentNumbers();
+        long next = existing.isEmpty() ? 1 : existing.get(existing.size() - 1) + 1;
+        openSegment(next);
+
+        writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Queue a record. The future completes once it has been fsynced.
+     */
+    public CompletableFuture<Long> append(byte op, String key, String value) {
+        return append(op, key, value, 0);
+    }
+
+    /**
+     * Queue a record with an expiry deadline, which is only written for PUT_EXPIRING
+     */
+    public CompletableFuture<Long> append(byte op, String key, String value, long expiresAt) {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        queue.add(new Pending(encode(op, key, value, expiresAt), false, done));
+        return done;
+    }
+
+    /**
+     * Queue a switch to a fresh segment. The future completes with the new segment number;
+     * every record queued before this call is in an older segment.
+     */
+    public CompletableFuture<Long> rotate() {
+        CompletableFuture<Long> done = new CompletableFuture<>();
+        queue.add(new Pending(null, true, done));
+        return done;
+    }
+
+    /**
+     * Delete segments made obsolete by a snapshot
+     */
+    public void deleteSegmentsBefore(long number) throws IOException {
+        boolean deleted = false;
+        for (long existing : segmentNumbers()) {
+            if (existing < number) {
+                deleted |= Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+        if (deleted) {
+            syncDirectory(directory);
+        }
+    }
+
+    /**
+     * Make file creations, renames and deletes in a directory durable.
+     * Not every platform can open a directory for this (Windows cannot); there
+     * the file system's own ordering is all there is.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    public long currentSegment() {
+        return segment;
+    }
+
+    public long currentSegmentBytes() {
+        return segmentBytes;
+    }
+
+    public long recordCount() {
+        return records.get();
+    }
+
+    public long syncCount() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() {
+        if (writer != null) {
+            // The writer drains everything queued before the stop marker
+            queue.add(STOP);
+            try {
+                writer.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Error closing WAL segment: {}", e.getMessage());
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH);
+
+            List<Pending> written = new ArrayList<>();
+            try {
+                for (Pending pending : batch) {
+                    if (pending == STOP) {
+                        stopping = true;
+                    } else if (pending.rotate()) {
+                        sync(written);
+                        openSegment(segment + 1);
+                        pending.done().complete(segment);
+                    } else {
+                        write(pending.bytes());
+                        written.add(pending);
+                    }
+                }
+                sync(written);
+            } catch (IOException e) {
+                logger.error("WAL write failed: {}", e.getMessage(), e);
+                discardUnsynced();
+                batch.stream()
+                        .filter(pending -> pending != STOP)
+                        .forEach(pending -> pending.done().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (channel == null) {
+            // The last segment could not be replaced after a failure; try again
+            openSegment(segment + 1);
+        }
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+        } else {
+            buffer.put(bytes);
+        }
+        segmentBytes += bytes.length;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Write out buffered records with a single fsync, then acknowledge them
+     */
+    private void sync(List<Pending> written) throws IOException {
+        if (written.isEmpty()) {
+            return;
+        }
+        flushBuffer();
+        channel.force(false);
+        syncedBytes = segmentBytes;
+        syncs.incrementAndGet();
+        records.addAndGet(written.size());
+        written.forEach(pending -> pending.done().complete(segment));
+        written.clear();
+    }
+
+    private void openSegment(long number) throws IOException {
+        if (channel != null) {
+            flushBuffer();
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+        channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory(directory);
+        segment = number;
+        segmentBytes = channel.size();
+        syncedBytes = segmentBytes;
+    }
+
+    /**
+     * After a failed write or sync, drop the buffered records and cut the segment
+     * back to its last synced size. If the segment cannot be cut, later records
+     * go to a new segment instead.
+     */
+    private void discardUnsynced() {
+        buffer.clear();
+        try {
+            if (channel != null) {
+                channel.truncate(syncedBytes);
+                segmentBytes = syncedBytes;
+                return;
+            }
+        } catch (IOException e) {
+            logger.error("Could not cut WAL segment {} back to {} bytes: {}", segment, syncedBytes, e.getMessage());
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // The channel is being replaced
+            }
+            channel = null;
+        }
+        try {
+            openSegment(segment + 1);
+        } catch (IOException e) {
+            logger.error("Could not open WAL segment {}: {}", segment + 1, e.getMessage());
+        }
+    }
+
+    private void replaySegment(Path path, Consumer<Record> consumer) throws IOException {
+        long validBytes = 0;
+        try (InputStream in = Files.newInputStream(path);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = data.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    int crc = data.readInt();
+                    if (length < 0 || length > Integer.MAX_VALUE - 8) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    data.readFully(payload);
+                    if (crc != checksum(payload)) {
+                        break;
+                    }
+                    consumer.accept(decode(payload));
+                    validBytes += 8 + length;
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        }
+
+        long size = Files.size(path);
+        if (validBytes < size) {
+            logger.warn("Truncating {} bytes of torn or corrupt WAL tail in {}", size - validBytes, path.getFileName());
+            try (FileChannel truncate = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                truncate.truncate(validBytes);
+            }
+        }
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Layout: [payload length][crc32 of payload][op][key length][key][value length or -1][value],
+     * followed by [expiresAt] for PUT_EXPIRING
+     */
+    private static byte[] encode(byte op, String key, String value, long expiresAt) {
+        byte[] keyBytes = key != null ? key.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        byte[] valueBytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        int payloadLength = 1 + 4 + keyBytes.length + 4 + (valueBytes != null ? valueBytes.length : 0)
+                + (op == PUT_EXPIRING ? 8 : 0);
+
+        ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+        payload.put(op);
+        payload.putInt(keyBytes.length).put(keyBytes);
+        if (valueBytes != null) {
+            payload.putInt(valueBytes.length).put(valueBytes);
+        } else {
+            payload.putInt(-1);
+        }
+        if (op == PUT_EXPIRING) {
+            payload.putLong(expiresAt);
+        }
+
+        byte[] payloadBytes = payload.array();
+        return ByteBuffer.allocate(8 + payloadLength)
+                .putInt(payloadLength)
+                .putInt(checksum(payloadBytes))
+                .put(payloadBytes)
+                .array();
+    }
+
+    private static Record decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte op = buffer.get();
+        byte[] keyBytes = new byte[buffer.getInt()];
+        buffer.get(keyBytes);
+        int valueLength = buffer.getInt();
+        String value = null;
+        if (valueLength >= 0) {
+            byte[] valueBytes = new byte[valueLength];
+            buffer.get(valueBytes);
+            value = new String(valueBytes, StandardCharsets.UTF_8);
+        }
+        long expiresAt = op == PUT_EXPIRING ? buffer.getLong() : 0;
+        return new Record(op, new String(keyBytes, StandardCharsets.UTF_8), value, expiresAt);
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
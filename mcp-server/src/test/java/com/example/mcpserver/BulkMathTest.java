@@ -0,0 +1,158 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkMathTest {
+
+    private static final double[] COEFFICIENTS = {1, -0.5, 0.25, -0.125, 0.0625};
+
+    @Test
+    void vectorKernelsMatchScalarKernels() {
+        // Surefire runs with --add-modules jdk.incubator.vector
+        BulkMath vector = BulkMath.create(true);
+        BulkMath scalar = BulkMath.scalar();
+        assertTrue(vector.isVectorized());
+
+        // Sizes below and above the fork-join threshold, with a tail that does not fill a vector
+        for (int size : new int[]{1, 7, 1003, BulkMath.PARALLEL_THRESHOLD + 13}) {
+            Random random = new Random(size);
+            double[] a = random.doubles(size, -100, 100).toArray();
+            double[] b = random.doubles(size, 0.5, 2).toArray();
+
+            assertEquals(scalar.sum(a), vector.sum(a), tolerance(a));
+            assertEquals(scalar.dot(a, b), vector.dot(a, b), tolerance(a) * 2);
+            for (BulkMath.Op op : BulkMath.Op.values()) {
+                assertArrayEquals(scalar.elementwise(op, a, b), vector.elementwise(op, a, b), op.name());
+            }
+            assertArrayEquals(scalar.polyEval(COEFFICIENTS, a), vector.polyEval(COEFFICIENTS, a));
+
+            BulkMath.Statistics expected = scalar.statistics(a);
+            BulkMath.Statistics actual = vector.statistics(a);
+            assertEquals(expected.count(), actual.count());
+            assertEquals(expected.min(), actual.min());
+            assertEquals(expected.max(), actual.max());
+            assertEquals(expected.mean(), actual.mean(), 1e-9);
+            assertEquals(expected.variance(), actual.variance(), expected.variance() * 1e-9);
+        }
+    }
+
+    @Test
+    void largeInputsAreSplitIntoChunks() {
+        assertEquals(List.of(new Range(0, BulkMath.PARALLEL_THRESHOLD - 1)), ranges(BulkMath.PARALLEL_THRESHOLD - 1),
+                "below the threshold one range covers the input");
+
+        List<Range> ranges = ranges(BulkMath.PARALLEL_THRESHOLD + 5);
+        assertEquals(BulkMath.PARALLEL_THRESHOLD / BulkMath.CHUNK + 1, ranges.size());
+        int next = 0;
+        for (Range range : ranges) {
+            assertEquals(next, range.from());
+            assertTrue(range.to() - range.from() <= BulkMath.CHUNK);
+            next = range.to();
+        }
+        assertEquals(BulkMath.PARALLEL_THRESHOLD + 5, next);
+    }
+
+    @Test
+    void splitSumIsIndependentOfScheduling() {
+        double[] values = new Random(42).doubles(BulkMath.PARALLEL_THRESHOLD * 2, -1e6, 1e6).toArray();
+        BulkMath scalar = BulkMath.scalar();
+
+        // Chunk partials are added in chunk order, so repeated runs agree to the bit
+        double first = scalar.sum(values);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(first, scalar.sum(values));
+        }
+    }
+
+    @Test
+    void toolsRejectLengthMismatch() {
+        CalculatorService calculator = new CalculatorService();
+
+        IllegalArgumentException dot = assertThrows(IllegalArgumentException.class,
+                () -> calculator.dotProduct(new double[]{1, 2, 3}, new double[]{1, 2}));
+        assertEquals("a and b must have the same length (3 vs 2)", dot.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> calculator.elementwise("add", new double[]{1}, new double[]{1, 2}));
+    }
+
+    @Test
+    void toolsRejectEmptyInput() {
+        CalculatorService calculator = new CalculatorService();
+
+        IllegalArgumentException sum = assertThrows(IllegalArgumentException.class, () -> calculator.sumArray(new double[0]));
+        assertEquals("values cannot be empty", sum.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> calculator.sumArray(null));
+        assertThrows(IllegalArgumentException.class, () -> calculator.statistics(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> calculator.dotProduct(new double[]{1}, new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> calculator.polyEval(new double[0], new double[]{1}));
+    }
+
+    /**
+     * Rounding differences of lane-wise summation grow with the size of the input
+     */
+    private static double tolerance(double[] values) {
+        double magnitude = 0;
+        for (double value : values) {
+            magnitude += Math.abs(value);
+        }
+        return magnitude * 1e-12;
+    }
+
+    private record Range(int from, int to) {
+    }
+
+    /**
+     * Ranges the sum kernel was called with, in order
+     */
+    private static List<Range> ranges(int length) {
+        List<Range> ranges = new ArrayList<>();
+        BulkMath.Kernels scalar = new BulkMath.ScalarKernels();
+        BulkMath.Kernels recording = new BulkMath.Kernels() {
+            @Override
+            public double sum(double[] values, int from, int to) {
+                synchronized (ranges) {
+                    ranges.add(new Range(from, to));
+                }
+                return scalar.sum(values, from, to);
+            }
+
+            @Override
+            public double dot(double[] a, double[] b, int from, int to) {
+                return scalar.dot(a, b, from, to);
+            }
+
+            @Override
+            public void elementwise(BulkMath.Op op, double[] a, double[] b, double[] out, int from, int to) {
+                scalar.elementwise(op, a, b, out, from, to);
+            }
+
+            @Override
+            public void minMax(double[] values, int from, int to, double[] minMax) {
+                scalar.minMax(values, from, to, minMax);
+            }
+
+            @Override
+            public double squaredDeviations(double[] values, double mean, int from, int to) {
+                return scalar.squaredDeviations(values, mean, from, to);
+            }
+
+            @Override
+            public void polyEval(double[] coefficients, double[] x, double[] out, int from, int to) {
+                scalar.polyEval(coefficients, x, out, from, to);
+            }
+        };
+        new BulkMath(recording).sum(new double[length]);
+        ranges.sort(Comparator.comparingInt(Range::from));
+        return ranges;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactKeyValueStoreTest {
+
+    @Test
+    void putGetRemoveRoundTrip() {
+        try (CompactKeyValueStore store = new CompactKeyValueStore(1 << 16, 16)) {
+            assertNull(store.put("greeting", "héllo wörld"));
+            assertNull(store.put("ключ", "значение"));
+            assertEquals("héllo wörld", store.put("greeting", "hi"));
+            assertNull(store.put("empty", ""));
+
+            assertEquals("hi", store.get("greeting"));
+            assertEquals("значение", store.get("ключ"));
+            assertEquals("", store.get("empty"));
+            assertEquals(3, store.size());
+
+            assertEquals("значение", store.remove("ключ"));
+            assertNull(store.remove("ключ"));
+            assertNull(store.get("ключ"));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void resizeKeepsEveryEntry() {
+        try (CompactKeyValueStore store = new CompactKeyValueStore(1 << 16, 16)) {
+            int initialCapacity = (int) store.stats().get("indexCapacity");
+            for (int i = 0; i < 10_000; i++) {
+                store.put("key-" + i, "value-" + i);
+            }
+            // Tombstones left by removals are dropped when the index is rebuilt
+            for (int i = 0; i < 10_000; i += 2) {
+                store.remove("key-" + i);
+            }
+            for (int i = 10_000; i < 20_000; i++) {
+                store.put("key-" + i, "value-" + i);
+            }
+
+            assertTrue((int) store.stats().get("indexCapacity") > initialCapacity);
+            assertEquals(15_000, store.size());
+            assertEquals(15_000, store.keys().size());
+            for (int i = 0; i < 20_000; i++) {
+                assertEquals(i < 10_000 && i % 2 == 0 ? null : "value-" + i, store.get("key-" + i));
+            }
+        }
+    }
+
+    @Test
+    void compactionReclaimsOverwrittenRecords() {
+        try (CompactKeyValueStore store = new CompactKeyValueStore(4096, 16)) {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < 100; i++) {
+                    store.put("key-" + i, "value-" + i + "-" + round);
+                }
+            }
+
+            Map<String, Object> stats = store.stats();
+            assertTrue((long) stats.get("compactions") > 0);
+            assertTrue((long) stats.get("garbageBytes") <= (long) stats.get("liveBytes") + 4096);
+            assertEquals(100, store.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("value-" + i + "-49", store.get("key-" + i));
+            }
+        }
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        Map<String, String> expected = new HashMap<>();
+        try (CompactKeyValueStore store = new CompactKeyValueStore(2048, 16)) {
+            for (int i = 0; i < 50_000; i++) {
+                String key = "k" + random.nextInt(500);
+                switch (random.nextInt(4)) {
+                    case 0, 1 -> {
+                        String value = "v".repeat(random.nextInt(40));
+                        assertEquals(expected.put(key, value), store.put(key, value));
+                    }
+                    case 2 -> assertEquals(expected.remove(key), store.remove(key));
+                    default -> assertEquals(expected.get(key), store.get(key));
+                }
+            }
+
+            assertEquals(expected.size(), store.size());
+            assertEquals(expected.keySet(), store.keys());
+            expected.forEach((key, value) -> assertEquals(value, store.get(key)));
+            assertTrue((long) store.stats().get("compactions") > 0);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpiringKeyValueStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keyExpiresAfterTtl() throws InterruptedException {
+        try (ExpiringKeyValueStore store = unbounded(new InMemoryKeyValueStore())) {
+            store.put("session", "abc", Duration.ofMillis(50));
+            assertEquals("abc", store.get("session"));
+
+            awaitRemoved(store, "session");
+            assertEquals(1L, store.expirations());
+        }
+    }
+
+    @Test
+    void onlyKeysWithTtlAreTrackedWithoutBudget() {
+        try (ExpiringKeyValueStore store = unbounded(new InMemoryKeyValueStore())) {
+            store.put("plain", "1");
+            store.compute("counter", current -> "1");
+            assertEquals(0, store.stats().get("trackedEntries"));
+
+            store.put("session", "abc", Duration.ofHours(1));
+            assertEquals(1, store.stats().get("trackedEntries"));
+
+            store.compute("session", current -> current + "d");
+            assertEquals(1, store.stats().get("trackedEntries"));
+
+            store.put("session", "abc");
+            assertEquals(0, store.stats().get("trackedEntries"));
+            assertEquals(0L, store.stats().get("expiringEntries"));
+        }
+    }
+
+    @Test
+    void budgetEvictsLeastRecentlyUsed() {
+        try (ExpiringKeyValueStore store = new ExpiringKeyValueStore(new InMemoryKeyValueStore(), 2, 0,
+                ExpiringKeyValueStore.EvictionPolicy.LRU, 10, false)) {
+            store.put("a", "1");
+            store.put("b", "2");
+            store.get("a");
+            store.put("c", "3");
+
+            assertEquals(2, store.size());
+            assertNull(store.get("b"));
+            assertEquals(1L, store.evictions());
+        }
+    }
+
+    @Test
+    void ttlSurvivesWalRestart() throws Exception {
+        try (ExpiringKeyValueStore store = unbounded(wal())) {
+            store.put("long", "1", Duration.ofHours(1));
+            store.put("short", "2", Duration.ofMillis(1500));
+            store.put("plain", "3");
+        }
+
+        try (ExpiringKeyValueStore store = unbounded(wal())) {
+            assertEquals(2L, store.stats().get("expiringEntries"));
+            awaitRemoved(store, "short");
+            assertEquals("1", store.get("long"));
+            assertEquals("3", store.get("plain"));
+        }
+    }
+
+    @Test
+    void ttlSurvivesSnapshot() throws Exception {
+        WalKeyValueStore backend = wal();
+        try (ExpiringKeyValueStore store = unbounded(backend)) {
+            store.put("long", "1", Duration.ofHours(1));
+            store.put("plain", "2");
+            backend.snapshot();
+        }
+
+        try (WalKeyValueStore recovered = wal()) {
+            assertEquals(1, recovered.expiries().size());
+            assertTrue(recovered.expiries().get("long") > System.currentTimeMillis());
+            assertEquals("2", recovered.get("plain"));
+        }
+    }
+
+    @Test
+    void scansMatchWithAndWithoutKeyIndex() {
+        try (ExpiringKeyValueStore indexed = new ExpiringKeyValueStore(new CompactKeyValueStore(1 << 16, 16), 0, 0,
+                ExpiringKeyValueStore.EvictionPolicy.LRU, 10, true);
+             ExpiringKeyValueStore scanned = unbounded(new CompactKeyValueStore(1 << 16, 16))) {
+            for (int i = 0; i < 50; i++) {
+                indexed.put("user:" + (i % 5) + ":" + i, "v");
+                scanned.put("user:" + (i % 5) + ":" + i, "v");
+            }
+            indexed.remove("user:1:1");
+            scanned.remove("user:1:1");
+
+            Page first = indexed.scanKeys("user:1:", null, 4);
+            assertEquals(first, scanned.scanKeys("user:1:", null, 4));
+            assertEquals(4, first.items().size());
+            assertEquals(indexed.scanKeys("user:1:", first.nextCursor(), 4), scanned.scanKeys("user:1:", first.nextCursor(), 4));
+            assertEquals(indexed.scanRange("user:2", "user:4", null, 100), scanned.scanRange("user:2", "user:4", null, 100));
+            assertEquals(20, scanned.scanRange("user:2", "user:4", null, 100).items().size());
+        }
+    }
+
+    private static ExpiringKeyValueStore unbounded(KeyValueStore backend) {
+        return new ExpiringKeyValueStore(backend, 0, 0, ExpiringKeyValueStore.EvictionPolicy.LRU, 10, false);
+    }
+
+    private WalKeyValueStore wal() {
+        return new WalKeyValueStore(directory, true, 300_000, 64 << 20);
+    }
+
+    private static void awaitRemoved(KeyValueStore store, String key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.size() > 0 && store.keys().contains(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(store.get(key));
+        assertTrue(!store.keys().contains(key), key + " should have been removed by the expiry thread");
+    }
+}
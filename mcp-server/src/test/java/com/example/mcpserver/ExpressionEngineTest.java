@@ -0,0 +1,69 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionEngineTest {
+
+    private final ExpressionEngine engine = new ExpressionEngine(16);
+
+    @Test
+    void operatorPrecedence() {
+        assertEquals(14, evaluate("2 + 3 * 4"));
+        assertEquals(20, evaluate("(2 + 3) * 4"));
+        assertEquals(3, evaluate("10 - 4 - 3"));
+        assertEquals(2, evaluate("16 / 4 / 2"));
+        assertEquals(7, evaluate("1 + 10 % 4 * 3"));
+        assertEquals(512, evaluate("2 ^ 3 ^ 2"));
+        assertEquals(-4, evaluate("-2 ^ 2"));
+        assertEquals(0.25, evaluate("2 ^ -2"));
+        assertEquals(5, evaluate("--5"));
+        assertEquals(-7, evaluate("3 * -2 - 1"));
+        assertEquals(17, evaluate("max(2, 3) * 5 + sqrt(4)"));
+    }
+
+    @Test
+    void variablesBindInOrderOfAppearance() {
+        ExpressionEngine.CompiledExpression expression = engine.compile("x * y + x ^ 2");
+        assertEquals(List.of("x", "y"), expression.variables());
+        assertEquals(15, expression.evaluate(Map.of("x", 3, "y", 2)));
+    }
+
+    @Test
+    void nestingBeyondDepthLimitIsRejected() {
+        int depth = ExpressionEngine.MAX_DEPTH - 1;
+        assertEquals(1, evaluate("(".repeat(depth) + "1" + ")".repeat(depth)));
+
+        String tooDeep = "(".repeat(ExpressionEngine.MAX_DEPTH) + "1" + ")".repeat(ExpressionEngine.MAX_DEPTH);
+        assertError(tooDeep, "nested more than " + ExpressionEngine.MAX_DEPTH + " levels deep");
+        assertError("-".repeat(ExpressionEngine.MAX_DEPTH + 1) + "1", "nested more than");
+        assertError("2" + "^2".repeat(ExpressionEngine.MAX_DEPTH + 1), "nested more than");
+    }
+
+    @Test
+    void syntaxErrorsReportPosition() {
+        assertError("1 +", "Unexpected end of expression at position 4");
+        assertError("(1 + 2", "Expected ')' at end of expression");
+        assertError("2 3", "Unexpected '3' at position 3");
+        assertError("foo(1)", "Unknown function 'foo' at position 1");
+        assertError("max(1)", "Expected ',' but found ')'");
+        assertError("1..2", "Invalid number '1..2'");
+        assertError("   ", "Expression cannot be empty");
+        assertError("1".repeat(ExpressionEngine.MAX_LENGTH + 1), "longer than " + ExpressionEngine.MAX_LENGTH);
+    }
+
+    private double evaluate(String expression) {
+        return engine.evaluate(expression, Map.of());
+    }
+
+    private void assertError(String expression, String message) {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> evaluate(expression));
+        assertTrue(error.getMessage().contains(message), error.getMessage());
+    }
+}
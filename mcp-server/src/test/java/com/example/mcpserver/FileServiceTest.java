@@ -0,0 +1,83 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileServiceTest {
+
+    @TempDir
+    Path workspace;
+
+    private FileService files;
+
+    @BeforeEach
+    void setUp() {
+        files = new FileService(new FileWriteCoordinator(), workspace);
+    }
+
+    @Test
+    void interruptedUploadResumesFromNextOffset() throws IOException {
+        FileService.ChunkWrite first = files.writeFileChunk("upload.txt", base64("hello "), null, null, false);
+        assertEquals(0, first.offset());
+        assertEquals(6, first.nextOffset());
+        assertFalse(first.complete());
+
+        // The client lost the reply and sends the same chunk again before going on
+        FileService.ChunkWrite resent = files.writeFileChunk("upload.txt", base64("hello "), 0L, null, false);
+        assertEquals(6, resent.nextOffset());
+
+        FileService.ChunkWrite last = files.writeFileChunk("upload.txt", "world", resent.nextOffset(), "utf8", true);
+        assertTrue(last.complete());
+        assertEquals(11, last.nextOffset());
+        assertEquals("hello world", Files.readString(workspace.resolve("upload.txt")));
+        assertFalse(Files.exists(workspace.resolve("upload.txt.part")));
+    }
+
+    @Test
+    void offsetPastTheUploadIsRejected() throws IOException {
+        files.writeFileChunk("upload.bin", base64("abc"), null, null, false);
+
+        IllegalArgumentException gap = assertThrows(IllegalArgumentException.class,
+                () -> files.writeFileChunk("upload.bin", base64("xyz"), 10L, null, false));
+        assertEquals("Offset 10 does not match the upload of 'upload.bin'; resume from offset 3", gap.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> files.writeFileChunk("upload.bin", base64("x"), -1L, null, false));
+        assertThrows(IllegalArgumentException.class, () -> files.writeFileChunk("upload.bin", "not base64!", null, null, false));
+
+        // The rejected chunks left the upload as it was
+        FileService.ChunkWrite next = files.writeFileChunk("upload.bin", base64("def"), 3L, null, true);
+        assertEquals(6, next.nextOffset());
+        assertEquals("abcdef", Files.readString(workspace.resolve("upload.bin")));
+    }
+
+    @Test
+    void stagingFileIsHiddenUntilTheLastChunk() throws IOException {
+        files.writeFile("other.txt", "x");
+        files.writeFileChunk("big.dat", base64("part one"), null, null, false);
+
+        assertTrue(Files.exists(workspace.resolve("big.dat.part")));
+        assertEquals("Files in workspace:\nother.txt", files.listFiles());
+        assertEquals(List.of("other.txt"), files.listFilesPage(null, null, null).items());
+        assertTrue(files.getFileInfo("big.dat").contains("does not exist"));
+
+        files.writeFileChunk("big.dat", base64(", part two"), null, null, true);
+        assertEquals("Files in workspace:\nbig.dat\nother.txt", files.listFiles());
+        assertEquals("part one, part two", Files.readString(workspace.resolve("big.dat")));
+    }
+
+    private static String base64(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileWriteCoordinatorTest {
+
+    private static final int THREADS = 16;
+    private static final int APPENDS_PER_THREAD = 200;
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void concurrentAppendsAllLandIntact() throws Exception {
+        // A short flush interval makes appenders queue up behind the writer
+        FileWriteCoordinator coordinator = new FileWriteCoordinator(4, 1, 4096);
+        Path log = workspace.resolve("log.txt");
+        coordinator.writeAtomically(log, new byte[0]);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService appenders = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                done.add(appenders.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < APPENDS_PER_THREAD; i++) {
+                        coordinator.append(log, line(thread, i).getBytes(StandardCharsets.UTF_8));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : done) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            appenders.shutdownNow();
+        }
+
+        // Every line once, whole, and each thread's lines in the order it appended them
+        List<String> lines = Files.readAllLines(log);
+        assertEquals(THREADS * APPENDS_PER_THREAD, lines.size());
+        Set<String> seen = new HashSet<>();
+        int[] nextPerThread = new int[THREADS];
+        for (String line : lines) {
+            assertTrue(seen.add(line), "duplicate line " + line);
+            String[] parts = line.split(":");
+            assertEquals(3, parts.length, "torn line " + line);
+            int thread = Integer.parseInt(parts[0]);
+            int index = Integer.parseInt(parts[1]);
+            assertEquals(line(thread, index).trim(), line);
+            assertEquals(nextPerThread[thread]++, index);
+        }
+
+        long appends = (long) coordinator.stats().get("appends");
+        long batches = (long) coordinator.stats().get("appendBatches");
+        assertEquals(THREADS * APPENDS_PER_THREAD, appends);
+        assertTrue(batches < appends, "appends were not coalesced: " + batches + " batches");
+        assertEquals(0, coordinator.stats().get("pendingAppendFiles"));
+    }
+
+    @Test
+    void appendToMissingFileFails() {
+        FileWriteCoordinator coordinator = new FileWriteCoordinator();
+
+        assertThrows(NoSuchFileException.class,
+                () -> coordinator.append(workspace.resolve("missing.txt"), "x".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(Files.exists(workspace.resolve("missing.txt")));
+    }
+
+    private static String line(int thread, int index) {
+        return thread + ":" + index + ":" + "x".repeat(40 + index % 17) + "\n";
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void alreadyDueDeadlineFiresOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 1000);
+        wheel.schedule("now", 1000);
+        wheel.schedule("past", 500);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1010, fired::add);
+
+        assertEquals(List.of("now", "past"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlineIsRoundedUpToTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("a", 11);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(19, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(20, fired::add);
+        assertEquals(List.of("a"), fired);
+    }
+
+    @Test
+    void timersCascadeAcrossLevelBoundaries() {
+        for (long origin : new long[]{0, 37}) {
+            TimingWheel<Long> wheel = new TimingWheel<>(1, origin);
+            long[] deltas = {1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262_143, 262_144, 262_145,
+                    16_777_215, 16_777_216, 16_777_300};
+            for (long delta : deltas) {
+                wheel.schedule(origin + delta, origin + delta);
+            }
+
+            Map<Long, Long> firedAt = new HashMap<>();
+            long[] now = {origin};
+            while (firedAt.size() < deltas.length && now[0] < origin + 17_000_000) {
+                now[0]++;
+                wheel.advance(now[0], deadline -> firedAt.put(deadline, now[0]));
+            }
+
+            for (long delta : deltas) {
+                long deadline = origin + delta;
+                assertEquals(deadline, firedAt.get(deadline), "timer " + delta + " ticks after " + origin);
+            }
+            assertEquals(0, wheel.size());
+        }
+    }
+
+    @Test
+    void advanceCatchesUpOnSkippedTicks() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("near", 5);
+        wheel.schedule("far", 5000);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(10_000, fired::add);
+
+        assertEquals(List.of("near", "far"), fired);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.mcpserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ToolExecutorTest {
+
+    @Test
+    void limitedModeRunsOnCallingThread() {
+        ToolExecutor executor = new ToolExecutor("limited", 4, new MockEnvironment());
+        Thread caller = Thread.currentThread();
+
+        assertSame(caller, executor.execute("add", Thread::currentThread));
+        assertEquals("limited", executor.stats().get("mode"));
+    }
+
+    @Test
+    void limitedModeCapsConcurrencyPerTool() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("mcp.server.tool-execution.max-concurrency.readFile", "2");
+        ToolExecutor executor = new ToolExecutor("limited", 16, environment);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            Future<?>[] calls = new Future<?>[6];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = callers.submit(() -> executor.execute("readFile", () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    release.await();
+                    running.decrementAndGet();
+                    return null;
+                }));
+            }
+            // Both permits are taken before any call is let go
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(2, peak.get());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> readFile = (Map<String, Object>) ((Map<String, Object>) executor.stats().get("tools")).get("readFile");
+        assertEquals(6L, readFile.get("completed"));
+    }
+
+    @Test
+    void virtualModeRunsOnVirtualThreadAndCapsConcurrency() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("mcp.server.tool-execution.max-concurrency.readFile", "2");
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ToolExecutor executor = new ToolExecutor("virtual", 16, environment, meterRegistry);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            assertTrue(executor.execute("add", () -> Thread.currentThread().isVirtual()));
+
+            Future<?>[] calls = new Future<?>[4];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = callers.submit(() -> executor.execute("readFile", () -> {
+                    started.countDown();
+                    release.await();
+                    return null;
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertEquals(2.0, meterRegistry.get("mcp.server.tool.active").tag("tool", "readFile").gauge().value());
+            release.countDown();
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+            executor.shutdown();
+        }
+
+        assertEquals("virtual", executor.stats().get("mode"));
+        assertEquals(0.0, meterRegistry.get("mcp.server.tool.queue.depth").tag("tool", "readFile").gauge().value());
+        assertEquals(0.0, meterRegistry.get("mcp.server.tool.active").tag("tool", "readFile").gauge().value());
+    }
+
+    @Test
+    void virtualModeRethrowsToolExceptionsUnchanged() {
+        ToolExecutor executor = new ToolExecutor("virtual", 4, new MockEnvironment());
+        IllegalArgumentException error = new IllegalArgumentException("Key cannot be empty");
+
+        try {
+            assertSame(error, assertThrows(IllegalArgumentException.class, () -> executor.execute("store", () -> {
+                throw error;
+            })));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void toolExceptionsAreRethrownUnchanged() {
+        ToolExecutor executor = new ToolExecutor("limited", 4, new MockEnvironment());
+        IllegalArgumentException error = new IllegalArgumentException("Key cannot be empty");
+
+        assertSame(error, assertThrows(IllegalArgumentException.class, () -> executor.execute("store", () -> {
+            throw error;
+        })));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.mcpserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.modelcontextprotocol.server.McpServerFeatures.SyncToolSpecification;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ToolInstrumentationTest {
+
+    @Autowired
+    private List<SyncToolSpecification> toolSpecs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void everyToolCallIsRecorded() {
+        McpSchema.CallToolResult result = tool("add").callHandler()
+                .apply(null, new McpSchema.CallToolRequest("add", Map.of("a", 1.5, "b", 2.5)));
+
+        assertTrue(result.content().toString().contains("4.0"));
+        assertEquals(1, meterRegistry.get("mcp.server.tool.calls").tags("tool", "add", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void errorResultsAreRecordedAsErrors() {
+        McpSchema.CallToolResult result = tool("divide").callHandler()
+                .apply(null, new McpSchema.CallToolRequest("divide", Map.of("a", 1.0, "b", 0.0)));
+
+        assertTrue(result.isError());
+        assertEquals(1, meterRegistry.get("mcp.server.tool.calls").tags("tool", "divide", "outcome", "error").timer().count());
+    }
+
+    private SyncToolSpecification tool(String name) {
+        return toolSpecs.stream().filter(spec -> spec.tool().name().equals(name)).findFirst().orElseThrow();
+    }
+}
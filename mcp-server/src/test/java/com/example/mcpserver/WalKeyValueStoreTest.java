@@ -0,0 +1,160 @@
+package com.example.mcpserver;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WalKeyValueStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayDropsTruncatedLastRecord() throws IOException {
+        try (WalKeyValueStore store = wal()) {
+            store.put("a", "1");
+            store.put("b", "2");
+            store.put("c", "3");
+        }
+
+        // A crash in the middle of the last append leaves part of a record behind
+        Path segment = segments().getLast();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (WalKeyValueStore store = wal()) {
+            assertEquals("1", store.get("a"));
+            assertEquals("2", store.get("b"));
+            assertNull(store.get("c"));
+            store.put("d", "4");
+        }
+
+        // Records appended after the truncated tail replay normally
+        try (WalKeyValueStore store = wal()) {
+            assertEquals(Set.of("a", "b", "d"), store.keys());
+        }
+    }
+
+    @Test
+    void replaysSegmentsWrittenAfterSnapshot() throws IOException {
+        try (WalKeyValueStore store = wal()) {
+            store.put("a", "1");
+            store.put("b", "2");
+            store.put("c", "3");
+            store.snapshot();
+
+            store.remove("a");
+            store.put("b", "20");
+            store.put("c", "30");
+            store.put("d", "4");
+        }
+
+        assertEquals(1, segments().size());
+        try (WalKeyValueStore store = wal()) {
+            assertNull(store.get("a"));
+            assertEquals("20", store.get("b"));
+            assertEquals("30", store.get("c"));
+            assertEquals("4", store.get("d"));
+            assertEquals(3, store.size());
+        }
+    }
+
+    @Test
+    void failedWriteIsRolledBack() throws IOException {
+        FailingLog log = new FailingLog(directory);
+        try (WalKeyValueStore store = new WalKeyValueStore(directory, log, true, 300_000, 64 << 20)) {
+            store.put("a", "1");
+            store.put("b", "2");
+
+            log.failing = true;
+            assertThrows(UncheckedIOException.class, () -> store.put("a", "10"));
+            assertThrows(UncheckedIOException.class, () -> store.remove("b"));
+            assertThrows(UncheckedIOException.class, () -> store.putAll(Map.of("c", "3", "d", "4")));
+            assertEquals("1", store.get("a"));
+            assertEquals("2", store.get("b"));
+            assertEquals(Set.of("a", "b"), store.keys());
+            log.failing = false;
+        }
+
+        try (WalKeyValueStore store = wal()) {
+            assertEquals("1", store.get("a"));
+            assertEquals("2", store.get("b"));
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void failedClearKeepsData() throws IOException {
+        FailingLog log = new FailingLog(directory);
+        try (WalKeyValueStore store = new WalKeyValueStore(directory, log, true, 300_000, 64 << 20)) {
+            store.put("a", "1");
+
+            log.failing = true;
+            assertThrows(UncheckedIOException.class, store::clear);
+            assertEquals("1", store.get("a"));
+            log.failing = false;
+        }
+    }
+
+    @Test
+    void asyncFailedWriteIsRolledBack() throws IOException {
+        FailingLog log = new FailingLog(directory);
+        try (WalKeyValueStore store = new WalKeyValueStore(directory, log, false, 300_000, 64 << 20)) {
+            store.put("a", "1");
+
+            log.failing = true;
+            // Without syncWrites the put returns and the failure is undone when the record fails
+            store.put("a", "10");
+            store.put("b", "2");
+            assertEquals("1", store.get("a"));
+            assertNull(store.get("b"));
+            log.failing = false;
+        }
+    }
+
+    private WalKeyValueStore wal() {
+        return new WalKeyValueStore(directory, true, 300_000, 64 << 20);
+    }
+
+    /**
+     * Fails every record while failing is set, as a full disk would
+     */
+    private static class FailingLog extends WriteAheadLog {
+
+        volatile boolean failing;
+
+        FailingLog(Path directory) {
+            super(directory);
+        }
+
+        @Override
+        public CompletableFuture<Long> append(byte op, String key, String value, long expiresAt) {
+            if (failing) {
+                return CompletableFuture.failedFuture(new IOException("disk full"));
+            }
+            return super.append(op, key, value, expiresAt);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}